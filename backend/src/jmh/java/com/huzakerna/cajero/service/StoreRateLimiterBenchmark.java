@@ -0,0 +1,65 @@
+package com.huzakerna.cajero.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.huzakerna.cajero.service.StoreRateLimiter.Budget;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost the rate limiter adds to a request, with several request threads: all
+ * on one store (worst-case contention on the same buckets), and spread over
+ * many stores. Limits are high enough that requests are allowed, as on the
+ * hot path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class StoreRateLimiterBenchmark {
+
+  private static final long HIGH = 1_000_000_000L;
+
+  private StoreRateLimiter limiter;
+  private UUID hotStore;
+  private UUID hotUser;
+  private UUID[] stores;
+  private UUID[] users;
+
+  @Setup
+  public void setUp() {
+    limiter = new StoreRateLimiter(new SimpleMeterRegistry(),
+        HIGH, HIGH, HIGH, HIGH, HIGH, HIGH,
+        HIGH, HIGH, HIGH, HIGH, HIGH, HIGH);
+    hotStore = UUID.randomUUID();
+    hotUser = UUID.randomUUID();
+    stores = new UUID[1024];
+    users = new UUID[stores.length];
+    for (int i = 0; i < stores.length; i++) {
+      stores[i] = UUID.randomUUID();
+      users[i] = UUID.randomUUID();
+    }
+  }
+
+  @Benchmark
+  public long oneStore() {
+    return limiter.tryAcquire(hotStore, hotUser, Budget.READ);
+  }
+
+  @Benchmark
+  public long manyStores() {
+    int i = ThreadLocalRandom.current().nextInt(stores.length);
+    return limiter.tryAcquire(stores[i], users[i], Budget.WRITE);
+  }
+}
@@ -0,0 +1,77 @@
+package com.huzakerna.cajero.util;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.huzakerna.cajero.model.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Token verification cost per authenticated request. {@code legacy} is what
+ * the filter used to do: decode the key and parse the token three times
+ * (username, then username and expiry again in isTokenValid).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtUtilsBenchmark {
+
+  private String secret;
+  private String token;
+  private JwtUtils uncached;
+  private JwtUtils cached;
+
+  @Setup
+  public void setUp() {
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    secret = Base64.getEncoder().encodeToString(key);
+
+    User user = User.builder()
+        .id(UUID.randomUUID())
+        .email("owner@example.com")
+        .storeId(UUID.randomUUID())
+        .roleCode("OWNER")
+        .build();
+    uncached = new JwtUtils(secret, 86_400_000, 0);
+    cached = new JwtUtils(secret, 86_400_000, 1000);
+    token = cached.generateToken(user);
+  }
+
+  @Benchmark
+  public void legacy(Blackhole blackhole) {
+    for (int i = 0; i < 3; i++) {
+      Claims claims = Jwts.parser()
+          .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+          .build()
+          .parseSignedClaims(token)
+          .getPayload();
+      blackhole.consume(claims);
+    }
+  }
+
+  @Benchmark
+  public Claims singleParse() {
+    return uncached.verify(token);
+  }
+
+  @Benchmark
+  public Claims cachedVerify() {
+    return cached.verify(token);
+  }
+}
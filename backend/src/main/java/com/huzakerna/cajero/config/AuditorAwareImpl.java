@@ -35,10 +35,10 @@ public class AuditorAwareImpl implements AuditorAware<User> {
 
       if (principal instanceof UserDetailsImpl) {
         var userDetails = (UserDetailsImpl) principal;
-        log.debug("Current Auditor: Found UserDetailsImpl for user ID: {}", userDetails.getUser().getId());
+        log.debug("Current Auditor: Found UserDetailsImpl for user ID: {}", userDetails.getId());
         // Use getReferenceById to avoid DB query and flush loop.
         // Returns a proxy which is sufficient for setting the relationship.
-        return Optional.of(userRepository.getReferenceById(userDetails.getUser().getId()));
+        return Optional.of(userRepository.getReferenceById(userDetails.getId()));
       }
 
       String email = authentication.getName();
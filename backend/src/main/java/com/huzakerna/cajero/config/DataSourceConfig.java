@@ -0,0 +1,49 @@
+package com.huzakerna.cajero.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.huzakerna.cajero.config.RoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Two Hikari pools on the same database: the main one (spring.datasource.hikari)
+ * for the API, and a small one (reporting.datasource.hikari) for reports,
+ * analytics and exports. Both sit behind {@link RoutingDataSource}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @ConfigurationProperties("reporting.datasource.hikari")
+  public HikariDataSource reportingDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("reportingDataSource") DataSource reportingDataSource) {
+    RoutingDataSource routing = new RoutingDataSource();
+    routing.setTargetDataSources(Map.of(
+        Route.PRIMARY, primaryDataSource,
+        Route.REPORTING, reportingDataSource));
+    routing.setDefaultTargetDataSource(primaryDataSource);
+    return routing;
+  }
+}
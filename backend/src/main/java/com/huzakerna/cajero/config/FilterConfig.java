@@ -1,19 +1,35 @@
 package com.huzakerna.cajero.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.huzakerna.cajero.filter.JwtAuthFilter;
+import com.huzakerna.cajero.filter.StoreRateLimitFilter;
+import com.huzakerna.cajero.security.UserCache;
 import com.huzakerna.cajero.security.UserDetailsServiceImpl;
+import com.huzakerna.cajero.service.StoreRateLimiter;
 import com.huzakerna.cajero.util.JwtUtils;
 
 @Configuration
 public class FilterConfig {
 
   @Bean
-  public JwtAuthFilter jwtAuthFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
+  public JwtAuthFilter jwtAuthFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService,
+      UserCache userCache, @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal) {
     JwtAuthFilter filter = new JwtAuthFilter();
     filter.setJwtUtils(jwtUtils);
     filter.setUserDetailsService(userDetailsService);
+    filter.setUserCache(userCache);
+    filter.setStatelessPrincipal(statelessPrincipal);
+    return filter;
+  }
+
+  @Bean
+  public StoreRateLimitFilter storeRateLimitFilter(StoreRateLimiter storeRateLimiter,
+      @Value("${ratelimit.enabled:true}") boolean enabled) {
+    StoreRateLimitFilter filter = new StoreRateLimitFilter();
+    filter.setStoreRateLimiter(storeRateLimiter);
+    filter.setEnabled(enabled);
     return filter;
   }
 }
@@ -0,0 +1,47 @@
+package com.huzakerna.cajero.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends connections requested by reporting work to a separate pool, so heavy
+ * reports can never take the connections checkout needs. The route is chosen
+ * per thread when a connection is opened; code already inside a transaction
+ * keeps the connection it has.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+  public enum Route {
+    PRIMARY, REPORTING
+  }
+
+  private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+  public static <T> T callWith(Route route, Supplier<T> action) {
+    Route previous = ROUTE.get();
+    ROUTE.set(route);
+    try {
+      return action.get();
+    } finally {
+      if (previous == null) {
+        ROUTE.remove();
+      } else {
+        ROUTE.set(previous);
+      }
+    }
+  }
+
+  public static void runWith(Route route, Runnable action) {
+    callWith(route, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    Route route = ROUTE.get();
+    return route != null ? route : Route.PRIMARY;
+  }
+}
@@ -2,6 +2,7 @@ package com.huzakerna.cajero.config;
 
 import com.huzakerna.cajero.filter.AdminSecretAuthFilter;
 import com.huzakerna.cajero.filter.JwtAuthFilter;
+import com.huzakerna.cajero.filter.StoreRateLimitFilter;
 import com.huzakerna.cajero.security.UserDetailsServiceImpl;
 import com.huzakerna.cajero.security.AuthEntryPointJwt;
 import lombok.RequiredArgsConstructor;
@@ -60,7 +61,7 @@ public class SecurityConfig {
   @Bean
   @Order(2)
   public SecurityFilterChain apiFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter,
-      AdminSecretAuthFilter adminSecretAuthFilter) throws Exception {
+      AdminSecretAuthFilter adminSecretAuthFilter, StoreRateLimitFilter storeRateLimitFilter) throws Exception {
     http
         .cors(cors -> cors.configurationSource(corsConfigurationSource))
         .csrf(AbstractHttpConfigurer::disable)
@@ -78,7 +79,8 @@ public class SecurityConfig {
         .sessionManagement(session -> session
             .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .addFilterBefore(adminSecretAuthFilter, UsernamePasswordAuthenticationFilter.class)
-        .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+        .addFilterAfter(storeRateLimitFilter, JwtAuthFilter.class);
 
     return http.build();
   }
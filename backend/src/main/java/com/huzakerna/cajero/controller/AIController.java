@@ -2,22 +2,26 @@ package com.huzakerna.cajero.controller;
 
 import com.huzakerna.cajero.dto.AIRequest;
 import com.huzakerna.cajero.dto.AIResponse;
-import com.huzakerna.cajero.service.AnalyticsService;
+import com.huzakerna.cajero.dto.AiDigestResponse;
+import com.huzakerna.cajero.exception.AiUnavailableException;
+import com.huzakerna.cajero.service.AiChatService;
+import com.huzakerna.cajero.service.AiDigestService;
 import com.huzakerna.cajero.security.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -25,111 +29,102 @@ import java.util.Map;
 @Slf4j
 public class AIController {
 
-  private final AnalyticsService analyticsService;
+  private static final String FAILED = "Error: Failed to process AI request. Please try again later.";
 
-  // Inject Groq API Key from application.yml or environment variables
-  @Value("${groq.api.key}")
-  private String groqApiKey;
+  private final AiChatService aiChatService;
+  private final AiDigestService aiDigestService;
 
-  // RestTemplate is used to make HTTP calls to external APIs
-  private final RestTemplate restTemplate = new RestTemplate();
-
-  // Simplified Schema Context for the AI
-  private static final String SCHEMA_CONTEXT = """
-      You have access to a database with the following structure (schema):
-
-      1. Table: products
-         - Columns: name (String), description (String), stock (BigDecimal), buying_price (BigDecimal), selling_price (BigDecimal), category_code (String), barcode (String).
-         - Relationships: Has many ProductIngredients, Has many Variants.
-
-      2. Table: transactions
-         - Columns: total_price (BigDecimal), status_code (String), transaction_type_code (String), payment_method_code (String), created_at (Timestamp).
-         - Relationships: Has many TransactionProducts.
-
-      3. Table: users
-         - Columns: name (String), email (String), role_code (String), store_id (UUID).
-
-      When answering, you can refer to these tables and columns to suggest how to find information.
-      You CANNOT query the database directly yet, but you can explain how the data is structured.
-      """;
+  @Value("${ai.chat.stream-timeout-ms:180000}")
+  private long streamTimeoutMs;
 
   /**
    * Endpoint to handle AI chat requests.
-   * Receives a prompt from the frontend, forwards it to Groq API, and returns the
-   * AI's response.
+   * Receives a prompt from the frontend, forwards it to the AI provider, and
+   * returns the AI's response. The request thread is released while the model
+   * generates.
    */
   @PostMapping("/chat")
-  @SuppressWarnings("unchecked")
-  public AIResponse chat(@RequestBody AIRequest request) {
+  public CompletableFuture<AIResponse> chat(@RequestBody AIRequest request,
+      @AuthenticationPrincipal UserDetailsImpl user) {
     log.info("Received AI chat request with prompt length: {}",
         request.getPrompt() != null ? request.getPrompt().length() : 0);
 
-    try {
-      // 1. Validate API Key
-      if (groqApiKey == null || groqApiKey.isEmpty()) {
-        return new AIResponse("Error: Groq API Key is not configured in backend.");
-      }
+    return aiChatService.chat(user, request.getPrompt())
+        .thenApply(AIResponse::new)
+        .exceptionally(AIController::failure);
+  }
 
-      // 2. Get User Context and Cached Real Data
-      Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-      String userContext = "";
-      String dataContext = "";
+  /**
+   * Same as /chat, but streams the reply as server-sent events: a "token" event
+   * ({"text": ...}) per fragment as the model produces it, then "done", or
+   * "error" if generation fails.
+   */
+  @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter chatStream(@RequestBody AIRequest request,
+      @AuthenticationPrincipal UserDetailsImpl user) {
+    log.info("Received AI stream request with prompt length: {}",
+        request.getPrompt() != null ? request.getPrompt().length() : 0);
 
-      if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        userContext = String.format("Current User: %s (Role: %s, Store ID: %s).",
-            userDetails.getUser().getName(), userDetails.getAuthorities(), userDetails.getStoreId());
+    SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+    CompletableFuture<String> generation = aiChatService.stream(user, request.getPrompt(),
+        token -> send(emitter, "token", new AIResponse(token)));
 
-        // Helper call to cached service
-        dataContext = analyticsService.getAIDataContext(userDetails.getStoreId());
+    generation.whenComplete((result, error) -> {
+      try {
+        if (error == null) {
+          emitter.send(SseEmitter.event().name("done").data(""));
+        } else {
+          emitter.send(SseEmitter.event().name("error").data(failure(error)));
+        }
+        emitter.complete();
+      } catch (IOException | IllegalStateException e) {
+        // Client already gone or emitter timed out
+        emitter.completeWithError(e);
       }
+    });
 
-      // 3. Prepare Groq API Request
-      String url = "https://api.groq.com/openai/v1/chat/completions";
-
-      // Set headers with API Key
-      HttpHeaders headers = new HttpHeaders();
-      headers.setContentType(MediaType.APPLICATION_JSON);
-      headers.setBearerAuth(groqApiKey);
-
-      // Construct System Prompt
-      String systemPrompt = "You are a helpful assistant for a POS app. Keep responses concise.\n" +
-          SCHEMA_CONTEXT + "\n" +
-          userContext + "\n" +
-          dataContext;
-
-      // Construct JSON Body for Groq (OpenAI-compatible format)
-      Map<String, Object> body = new HashMap<>();
-      body.put("model", "llama-3.1-8b-instant"); // Using the instant model for speed
-      body.put("messages", List.of(
-          // System prompt defines the AI's persona
-          Map.of("role", "system", "content", systemPrompt),
-          // User prompt comes from the frontend request
-          Map.of("role", "user", "content", request.getPrompt())));
-
-      HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+    // Stop the generation when the client disconnects or the emitter times out
+    emitter.onTimeout(() -> generation.cancel(true));
+    emitter.onError(e -> generation.cancel(true));
+    return emitter;
+  }
 
-      // 4. Call Groq API
-      // We expect a Map response structure similar to OpenAI's API
-      Map<String, Object> response = restTemplate.postForObject(url, entity, Map.class);
+  /**
+   * The precomputed insight digest of a day (default yesterday), built by the
+   * nightly job. 404 until the job has covered the store.
+   */
+  @GetMapping("/digest")
+  public ResponseEntity<AiDigestResponse> digest(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+      @AuthenticationPrincipal UserDetailsImpl user) {
+    LocalDate day = date != null ? date : LocalDate.now().minusDays(1);
+    return aiDigestService.find(user.getStoreId(), day)
+        .map(digest -> ResponseEntity.ok(AiDigestResponse.builder()
+            .date(digest.getDigestDate())
+            .summary(digest.getSummary())
+            .facts(digest.getFacts())
+            .generatedAt(digest.getUpdatedAt())
+            .build()))
+        .orElse(ResponseEntity.notFound().build());
+  }
 
-      // 5. Parse Response
-      if (response != null && response.containsKey("choices")) {
-        List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-        if (!choices.isEmpty()) {
-          // Extract the actual content text from the first choice
-          Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-          String content = (String) message.get("content");
-          return new AIResponse(content);
-        }
-      }
-    } catch (Exception e) {
-      log.error("Error calling Groq API", e);
-      // Return a user-friendly error message if something crashes
-      return new AIResponse("Error: Failed to process AI request. Please try again later.");
+  // Return a user-friendly error message if something crashes
+  private static AIResponse failure(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause instanceof AiUnavailableException) {
+      // Refused up front (quota, busy, circuit open); the message is for the user
+      log.warn("AI request refused: {}", cause.getMessage());
+      return new AIResponse(cause.getMessage());
     }
+    log.error("Error calling AI provider", cause);
+    return new AIResponse(FAILED);
+  }
 
-    // Default error if no response content was found
-    return new AIResponse("Error: No valid response received from AI service.");
+  private static void send(SseEmitter emitter, String name, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(name).data(data));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
@@ -12,15 +12,21 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.huzakerna.cajero.dto.LoginRequest;
 import com.huzakerna.cajero.dto.UserResponse;
+import com.huzakerna.cajero.exception.LoginThrottledException;
 import com.huzakerna.cajero.exception.UserNotFoundException;
 import com.huzakerna.cajero.model.User;
 import com.huzakerna.cajero.repository.UserRepository;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.LoginGuard;
 import com.huzakerna.cajero.util.JwtUtils;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -33,63 +39,72 @@ public class AuthController {
   private final JwtUtils jwtUtils;
   private final UserRepository userRepo;
   private final com.huzakerna.cajero.service.RefreshTokenService refreshTokenService;
+  private final LoginGuard loginGuard;
 
+  /**
+   * Password hashing runs on the login pool, not on request threads; attempts
+   * over the per-email or per-address limit, or stuck behind a full pool past
+   * the timeout, are refused with 429.
+   */
   @PostMapping("/signin")
-  public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-    try {
-      log.info("Attempting authentication for: {}", loginRequest.email());
-      Authentication authentication = authenticationManager.authenticate(
-          new UsernamePasswordAuthenticationToken(
-              loginRequest.email(),
-              loginRequest.password()));
-
-      UserDetailsImpl userDetails = ((UserDetailsImpl) authentication.getPrincipal());
-      log.info("Authentication successful for: {}", userDetails.getUsername());
+  public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+      HttpServletRequest request) {
+    log.info("Attempting authentication for: {}", loginRequest.email());
+    return loginGuard.authenticate(loginRequest.email(), request.getRemoteAddr(),
+        () -> authenticationManager.authenticate(
+            new UsernamePasswordAuthenticationToken(
+                loginRequest.email(),
+                loginRequest.password())),
+        this::signedIn)
+        .exceptionally(error -> {
+          Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+          if (cause instanceof LoginThrottledException throttled) {
+            throw throttled; // Answered with Retry-After by GlobalExceptionHandler
+          }
+          if (cause instanceof BadCredentialsException) {
+            log.error("Invalid credentials for: {}", loginRequest.email());
+            return ResponseEntity.status(401).body("Invalid credentials");
+          }
+          log.error("Authentication error", cause);
+          return ResponseEntity.status(500).body("Authentication failed");
+        });
+  }
 
-      User user = userRepo.findByEmail(userDetails.getUsername())
-          .orElseThrow(() -> new UserNotFoundException(userDetails.getUsername()));
+  private ResponseEntity<?> signedIn(Authentication authentication) {
+    UserDetailsImpl userDetails = ((UserDetailsImpl) authentication.getPrincipal());
+    log.info("Authentication successful for: {}", userDetails.getUsername());
 
-      String jwt = jwtUtils.generateToken(user);
-      com.huzakerna.cajero.model.RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getId());
+    User user = userRepo.findByEmail(userDetails.getUsername())
+        .orElseThrow(() -> new UserNotFoundException(userDetails.getUsername()));
 
-      UserResponse userResponse = UserResponse.builder()
-          .id(user.getId())
-          .name(user.getName())
-          .email(user.getEmail())
-          .phone(user.getPhone())
-          .storeId(user.getStoreId())
-          .roleCode(user.getRoleCode())
-          .imageUrl(user.getImageUrl())
-          .accessToken(jwt)
-          .refreshToken(refreshToken.getToken())
-          .build();
+    String jwt = jwtUtils.generateToken(user);
+    com.huzakerna.cajero.model.RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getId());
 
-      return ResponseEntity.ok(userResponse);
+    UserResponse userResponse = UserResponse.builder()
+        .id(user.getId())
+        .name(user.getName())
+        .email(user.getEmail())
+        .phone(user.getPhone())
+        .storeId(user.getStoreId())
+        .roleCode(user.getRoleCode())
+        .imageUrl(user.getImageUrl())
+        .accessToken(jwt)
+        .refreshToken(refreshToken.getToken())
+        .build();
 
-    } catch (BadCredentialsException e) {
-      log.error("Invalid credentials for: {}", loginRequest.email());
-      return ResponseEntity.status(401).body("Invalid credentials");
-    } catch (Exception e) {
-      log.error("Authentication error", e);
-      return ResponseEntity.status(500).body("Authentication failed");
-    }
+    return ResponseEntity.ok(userResponse);
   }
 
   @PostMapping("/refreshtoken")
   public ResponseEntity<?> refreshtoken(@Valid @RequestBody com.huzakerna.cajero.dto.TokenRefreshRequest request) {
     String requestRefreshToken = request.refreshToken();
 
-    return refreshTokenService.findByToken(requestRefreshToken)
-        .map(refreshTokenService::verifyExpiration)
-        .map(com.huzakerna.cajero.model.RefreshToken::getUser)
-        .map(user -> {
-          String token = jwtUtils.generateToken(user);
-          return ResponseEntity.ok(com.huzakerna.cajero.dto.TokenRefreshResponse.builder()
-              .accessToken(token)
-              .refreshToken(requestRefreshToken)
-              .build());
-        })
-        .orElseThrow(() -> new com.huzakerna.cajero.exception.TokenRefreshException(requestRefreshToken,
-            "Refresh token is not in database!"));
+    // Single use: the response carries the refresh token to use next time
+    com.huzakerna.cajero.model.RefreshToken rotated = refreshTokenService.rotate(requestRefreshToken);
+    String token = jwtUtils.generateToken(rotated.getUser());
+    return ResponseEntity.ok(com.huzakerna.cajero.dto.TokenRefreshResponse.builder()
+        .accessToken(token)
+        .refreshToken(rotated.getToken())
+        .build());
   }
 }
@@ -12,10 +12,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.huzakerna.cajero.dto.IngredientRequest;
 import com.huzakerna.cajero.dto.IngredientResponse;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.CatalogVersionCache;
 import com.huzakerna.cajero.service.IngredientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,14 +27,19 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class IngredientController {
 
+  private final CatalogVersionCache catalogVersions;
   private final IngredientService service;
 
   @GetMapping
   public ResponseEntity<List<IngredientResponse>> getAll(
-      @AuthenticationPrincipal UserDetailsImpl user) {
+      @AuthenticationPrincipal UserDetailsImpl user, WebRequest request) {
     UUID storeId = user.getStoreId();
+    String etag = catalogVersions.etag(storeId);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
 
-    return ResponseEntity.ok(service.getAllByStoreId(storeId));
+    return ResponseEntity.ok().eTag(etag).body(service.getAllByStoreId(storeId));
   }
 
   @PostMapping
@@ -13,10 +13,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.huzakerna.cajero.model.ProductCategory;
 import com.huzakerna.cajero.repository.ProductCategoryRepository;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.CatalogVersionCache;
 import com.huzakerna.cajero.service.ProductCategoryService;
 
 import jakarta.validation.Valid;
@@ -27,15 +29,20 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ProductCategoryController {
 
+  private final CatalogVersionCache catalogVersions;
   private final ProductCategoryRepository repo;
   private final ProductCategoryService service;
 
   @GetMapping
   public ResponseEntity<List<ProductCategory>> getAll(
-      @AuthenticationPrincipal UserDetailsImpl user) {
+      @AuthenticationPrincipal UserDetailsImpl user, WebRequest request) {
     UUID storeId = user.getStoreId();
+    String etag = catalogVersions.categoryEtag(storeId);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
 
-    return ResponseEntity.ok(repo.findByStoreIdAndDeletedAtIsNull(storeId));
+    return ResponseEntity.ok().eTag(etag).body(repo.findByStoreIdAndDeletedAtIsNull(storeId));
   }
 
   @PostMapping
@@ -15,10 +15,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.huzakerna.cajero.dto.ProductRequest;
 import com.huzakerna.cajero.dto.ProductResponse;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.CatalogVersionCache;
 import com.huzakerna.cajero.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +30,7 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor // Lombok generates constructor with required args
 public class ProductController {
 
+  private final CatalogVersionCache catalogVersions;
   private final ProductService service; // Must be final for Lombok
 
   @GetMapping
@@ -41,11 +44,17 @@ public class ProductController {
       @RequestParam(required = false, defaultValue = "false") Boolean includeDeleted,
       @RequestParam(required = false) String categoryCode,
       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+      WebRequest request) {
 
     UUID storeId = user.getStoreId();
+    // Read before the data, so a concurrent write can only make the tag older
+    String etag = catalogVersions.etag(storeId);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
 
-    return ResponseEntity.ok(service.getProducts(
+    return ResponseEntity.ok().eTag(etag).body(service.getProducts(
         storeId, page, size, sortBy, sortDir, keyword, categoryCode, includeDeleted, startDate, endDate));
 
   }
@@ -1,16 +1,22 @@
 package com.huzakerna.cajero.controller;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
 import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.huzakerna.cajero.dto.ReportResponse;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.DailyStoreStatService;
 import com.huzakerna.cajero.service.ReportService;
 import lombok.RequiredArgsConstructor;
 
@@ -20,6 +26,10 @@ import lombok.RequiredArgsConstructor;
 public class ReportController {
 
   private final ReportService service;
+  private final DailyStoreStatService dailyStoreStatService;
+
+  @Value("${report.rollup.max-rebuild-days:93}")
+  private long maxRebuildDays;
 
   @GetMapping("/daily")
   public ResponseEntity<ReportResponse> getDailyReport(
@@ -30,4 +40,19 @@ public class ReportController {
     UUID storeId = user.getStoreId();
     return ResponseEntity.ok(service.getDailyReport(storeId, startDate, endDate));
   }
+
+  // Regenerates the report rollup for the given days from raw transactions
+  @PostMapping("/rebuild")
+  @PreAuthorize("hasAnyRole('OWNER', 'MANAGER')")
+  public ResponseEntity<Map<String, Integer>> rebuild(
+      @AuthenticationPrincipal UserDetailsImpl user,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+    if (ChronoUnit.DAYS.between(startDate, endDate) >= maxRebuildDays) {
+      throw new IllegalArgumentException("Rebuild range must not exceed " + maxRebuildDays + " days");
+    }
+    UUID storeId = user.getStoreId();
+    return ResponseEntity.ok(Map.of("rows", dailyStoreStatService.rebuild(storeId, startDate, endDate)));
+  }
 }
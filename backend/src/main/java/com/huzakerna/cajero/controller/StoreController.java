@@ -105,7 +105,7 @@ public class StoreController {
 
         if (isAdmin || isOwner) {
             log.info("Update authorized for store: {}", store.getId());
-            return ResponseEntity.ok(repo.save(store));
+            return ResponseEntity.ok(storeService.update(store));
         }
 
         log.warn("Update access denied: isAdmin={}, isOwner={}", isAdmin, isOwner);
@@ -0,0 +1,33 @@
+package com.huzakerna.cajero.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.huzakerna.cajero.dto.SyncChangesResponse;
+import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.SyncService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+  private final SyncService service;
+
+  /**
+   * Catalog and transaction changes after the given cursor (omit for a full
+   * download). Keep calling with the returned cursor while hasMore is true.
+   */
+  @GetMapping("/changes")
+  public ResponseEntity<SyncChangesResponse> changes(
+      @AuthenticationPrincipal UserDetailsImpl user,
+      @RequestParam(required = false) String since,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(service.changes(user.getStoreId(), since, limit));
+  }
+}
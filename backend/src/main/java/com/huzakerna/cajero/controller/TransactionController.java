@@ -1,9 +1,12 @@
 package com.huzakerna.cajero.controller;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,10 +18,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.huzakerna.cajero.dto.TransactionBatchResult;
 import com.huzakerna.cajero.dto.TransactionRequest;
 import com.huzakerna.cajero.dto.TransactionResponse;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.TransactionBatchService;
+import com.huzakerna.cajero.service.TransactionExportService;
 import com.huzakerna.cajero.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +36,8 @@ import lombok.RequiredArgsConstructor;
 public class TransactionController {
 
   private final TransactionService service; // Must be final for Lombok
+  private final TransactionBatchService batchService;
+  private final TransactionExportService exportService;
 
   @GetMapping
   public ResponseEntity<Page<TransactionResponse>> getAll(
@@ -60,6 +69,33 @@ public class TransactionController {
     return service.addTransaction(storeId, request);
   }
 
+  // Offline queue upload: items are validated individually and answered per item
+  @PostMapping("/batch")
+  public ResponseEntity<List<TransactionBatchResult>> addBatch(
+      @AuthenticationPrincipal UserDetailsImpl user, @RequestBody List<TransactionRequest> requests) {
+
+    UUID storeId = user.getStoreId();
+
+    return ResponseEntity.ok(batchService.addTransactions(storeId, requests));
+  }
+
+  // CSV of transactions and their line items, streamed as rows are read
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @AuthenticationPrincipal UserDetailsImpl user,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+    UUID storeId = user.getStoreId();
+    String filename = "transactions" + (startDate != null ? "-" + startDate : "")
+        + (endDate != null ? "-" + endDate : "") + ".csv";
+
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+        .contentType(new MediaType("text", "csv", java.nio.charset.StandardCharsets.UTF_8))
+        .body(exportService.exportCsv(storeId, startDate, endDate));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<TransactionResponse> getById(@PathVariable UUID id) {
     return ResponseEntity.ok(service.getTransactionById(id));
@@ -12,10 +12,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.huzakerna.cajero.dto.VariantRequest;
 import com.huzakerna.cajero.dto.VariantResponse;
 import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.CatalogVersionCache;
 import com.huzakerna.cajero.service.VariantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,14 +27,19 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class VariantController {
 
+  private final CatalogVersionCache catalogVersions;
   private final VariantService service;
 
   @GetMapping
   public ResponseEntity<List<VariantResponse>> getAll(
-      @AuthenticationPrincipal UserDetailsImpl user) {
+      @AuthenticationPrincipal UserDetailsImpl user, WebRequest request) {
     UUID storeId = user.getStoreId();
+    String etag = catalogVersions.etag(storeId);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
 
-    return ResponseEntity.ok(service.getAllByStoreId(storeId));
+    return ResponseEntity.ok().eTag(etag).body(service.getAllByStoreId(storeId));
   }
 
   @PostMapping
@@ -0,0 +1,23 @@
+package com.huzakerna.cajero.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AiDigestResponse {
+  private LocalDate date;
+  // Null while the summary is still pending
+  private String summary;
+  private JsonNode facts;
+  private LocalDateTime generatedAt;
+}
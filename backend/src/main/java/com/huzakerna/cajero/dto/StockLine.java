@@ -0,0 +1,28 @@
+package com.huzakerna.cajero.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact sold line used to derive stock movements: the product, its quantity and
+ * the selected variant option ids. optionIds is null when the line carries no
+ * variant selection at all (product stock is deducted instead).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLine {
+
+  private UUID productId;
+
+  private BigDecimal quantity;
+
+  private List<UUID> optionIds;
+}
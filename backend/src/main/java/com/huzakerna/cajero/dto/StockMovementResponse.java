@@ -24,6 +24,7 @@ public class StockMovementResponse {
   private UUID transactionId;
   private StockMovementType type;
   private BigDecimal quantity;
+  private BigDecimal balance;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
 
@@ -0,0 +1,30 @@
+package com.huzakerna.cajero.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.huzakerna.cajero.model.ProductCategory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncChangesResponse {
+  private List<ProductResponse> products;
+  private List<IngredientResponse> ingredients;
+  // Variant options come inside their variant
+  private List<VariantResponse> variants;
+  private List<ProductCategory> categories;
+  private List<TransactionResponse> transactions;
+  // Tombstones: kind -> ids (category codes) deleted since the cursor
+  private Map<String, List<String>> deleted;
+  // Pass back as since; unchanged when nothing new
+  private String cursor;
+  // More changes are ready; ask again right away
+  private boolean hasMore;
+}
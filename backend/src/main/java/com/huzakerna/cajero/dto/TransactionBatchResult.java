@@ -0,0 +1,28 @@
+package com.huzakerna.cajero.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResult {
+
+  public enum Status {
+    CREATED, DUPLICATE, FAILED
+  }
+
+  // Position of the item in the uploaded array
+  private int index;
+
+  private String clientKey;
+
+  private Status status;
+
+  private TransactionResponse transaction;
+
+  private String error;
+}
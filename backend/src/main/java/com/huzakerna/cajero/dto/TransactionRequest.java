@@ -48,6 +48,10 @@ public class TransactionRequest {
 
     private LocalDateTime createdAt; // Optional: Client provided creation time
 
+    // Optional: client-generated idempotency key, replays return the original transaction
+    @Size(max = 64, message = "Client Key must be less than 64 characters")
+    private String clientKey;
+
     private UUID createdBy;
     private UUID updatedBy;
 
@@ -34,4 +34,6 @@ public class TransactionResponse extends BaseResponse {
 
     private UUID customerId;
 
+    private String clientKey;
+
 }
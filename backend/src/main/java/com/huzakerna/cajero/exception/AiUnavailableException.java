@@ -0,0 +1,11 @@
+package com.huzakerna.cajero.exception;
+
+/**
+ * An AI request turned away without calling the provider (quota, circuit open,
+ * too many in flight). The message is meant for the user.
+ */
+public class AiUnavailableException extends RuntimeException {
+    public AiUnavailableException(String message) {
+        super(message);
+    }
+}
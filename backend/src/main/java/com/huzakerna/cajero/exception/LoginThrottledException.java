@@ -0,0 +1,18 @@
+package com.huzakerna.cajero.exception;
+
+/**
+ * A sign-in refused before the password was checked: too many attempts for the
+ * email or address, or the login pool is full. Answered with 429.
+ */
+public class LoginThrottledException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -5,11 +5,17 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import io.jsonwebtoken.Claims;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.web.filter.OncePerRequestFilter;
+import com.huzakerna.cajero.security.UserCache;
 import com.huzakerna.cajero.security.UserDetailsImpl;
 import com.huzakerna.cajero.security.UserDetailsServiceImpl;
 import com.huzakerna.cajero.util.JwtUtils;
@@ -24,6 +30,11 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
   private JwtUtils jwtUtils;
   private UserDetailsServiceImpl userDetailsService;
+  private UserCache userCache;
+  private boolean statelessPrincipal;
+  // Async results (CompletableFuture, SSE, streamed exports) are authorized again on the ASYNC
+  // dispatch, which this filter skips; that dispatch reloads the context from the request
+  private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
 
   @Autowired
   public void setJwtUtils(JwtUtils jwtUtils) {
@@ -35,6 +46,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     this.userDetailsService = userDetailsService;
   }
 
+  @Autowired
+  public void setUserCache(UserCache userCache) {
+    this.userCache = userCache;
+  }
+
+  // Build the principal from the token claims instead of loading the user on every request
+  public void setStatelessPrincipal(boolean statelessPrincipal) {
+    this.statelessPrincipal = statelessPrincipal;
+  }
+
   @Override
   protected void doFilterInternal(
       HttpServletRequest request,
@@ -49,13 +70,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     try {
       final String jwt = authHeader.substring(7);
-      final String userEmail = jwtUtils.extractUsername(jwt);
+      // Parsed and verified once (or taken from the verified cache), then reused below
+      final Claims claims = jwtUtils.verify(jwt);
+      final String userEmail = claims.getSubject();
       log.debug("Validating token for: {}", userEmail);
 
       if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetailsImpl userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        UserDetailsImpl userDetails = statelessPrincipal ? jwtUtils.extractPrincipal(claims) : null;
+        boolean valid;
+        if (userDetails != null) {
+          // Revoked tokens carry an old version
+          valid = userCache.isCurrent(userDetails.getId(), userDetails.getTokenVersion());
+        } else {
+          userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+          valid = jwtUtils.isTokenValid(claims, userDetails);
+        }
 
-        if (jwtUtils.isTokenValid(jwt, userDetails)) {
+        if (valid) {
           UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
               userDetails,
               null,
@@ -64,7 +95,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
           authToken.setDetails(
               new WebAuthenticationDetailsSource().buildDetails(request));
 
-          SecurityContextHolder.getContext().setAuthentication(authToken);
+          SecurityContext context = SecurityContextHolder.createEmptyContext();
+          context.setAuthentication(authToken);
+          SecurityContextHolder.setContext(context);
+          securityContextRepository.saveContext(context, request, response);
           log.debug("Token successfully validated for user: {}", userEmail);
         }
       }
@@ -0,0 +1,73 @@
+package com.huzakerna.cajero.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.StoreRateLimiter;
+import com.huzakerna.cajero.service.StoreRateLimiter.Budget;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies {@link StoreRateLimiter} to authenticated API requests, after
+ * {@link JwtAuthFilter} has resolved the user. Requests over budget are
+ * answered with 429 and Retry-After before they reach a controller.
+ */
+@Slf4j
+public class StoreRateLimitFilter extends OncePerRequestFilter {
+
+  private StoreRateLimiter storeRateLimiter;
+  private boolean enabled = true;
+
+  public void setStoreRateLimiter(StoreRateLimiter storeRateLimiter) {
+    this.storeRateLimiter = storeRateLimiter;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    // Store users only; the admin key has no store
+    if (enabled && authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user
+        && user.getStoreId() != null) {
+      long wait = storeRateLimiter.tryAcquire(user.getStoreId(), user.getId(), budget(request));
+      if (wait > 0) {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+        log.debug("Rate limited {} {} for store {}", request.getMethod(), request.getRequestURI(), user.getStoreId());
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"message\":\"Too many requests. Please slow down.\"}");
+        return;
+      }
+    }
+
+    filterChain.doFilter(request, response);
+  }
+
+  static Budget budget(HttpServletRequest request) {
+    String path = request.getRequestURI();
+    if (path.startsWith("/api/reports") || path.startsWith("/api/ai") || path.contains("/export")) {
+      return Budget.REPORT;
+    }
+    String method = request.getMethod();
+    return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) ? Budget.READ : Budget.WRITE;
+  }
+}
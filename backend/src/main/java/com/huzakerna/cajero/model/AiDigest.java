@@ -0,0 +1,57 @@
+package com.huzakerna.cajero.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Precomputed AI insight digest of one store's day, built overnight by
+ * {@code AiDigestService}. {@code summary} stays NULL until the model has
+ * written it; such rows are picked up again by the next run.
+ */
+@Entity
+@Table(name = "ai_digests", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ai_digests_store_date", columnNames = { "store_id", "digest_date" })
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AiDigest {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "store_id", nullable = false)
+  private UUID storeId;
+
+  @Column(name = "digest_date", nullable = false)
+  private LocalDate digestDate;
+
+  // Revenue vs trailing average, top movers, low-stock ingredients, peak hour
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(columnDefinition = "jsonb", nullable = false)
+  private JsonNode facts;
+
+  @Column(columnDefinition = "text")
+  private String summary;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
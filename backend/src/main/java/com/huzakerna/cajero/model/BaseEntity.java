@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
 import jakarta.persistence.FetchType;
@@ -43,7 +44,7 @@ public abstract class BaseEntity {
   @CreationTimestamp
   @Column(name = "created_at", updatable = false)
   private LocalDateTime createdAt;
-  @UpdateTimestamp
+  @UpdateTimestamp(source = SourceType.DB) // Same clock as native stock updates and delta sync
   @Column(name = "updated_at")
   private LocalDateTime updatedAt;
 
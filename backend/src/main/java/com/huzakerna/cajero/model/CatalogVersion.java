@@ -0,0 +1,37 @@
+package com.huzakerna.cajero.model;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-store counters of catalog edits: products, variants and ingredients in
+ * {@code version}, categories in {@code categoryVersion}. Stock movements don't
+ * count. The catalog list endpoints build their ETags from them.
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogVersion {
+
+  @Id
+  @Column(name = "store_id")
+  private UUID storeId;
+
+  @Column(nullable = false)
+  private long version;
+
+  @Builder.Default
+  @Column(name = "category_version", nullable = false, columnDefinition = "bigint DEFAULT 0")
+  private long categoryVersion = 0;
+}
@@ -0,0 +1,78 @@
+package com.huzakerna.cajero.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily sales rollup, one row per (store, day, status, payment method, cashier).
+ * Maintained incrementally by {@code DailyStoreStatService}; key columns are
+ * never NULL (empty code / nil UUID instead) so upserts can target the unique key.
+ */
+@Entity
+@Table(name = "daily_store_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_store_stats_key", columnNames = { "store_id", "stat_date", "status_code",
+        "payment_method_code", "cashier_id" })
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyStoreStat {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "store_id", nullable = false)
+  private UUID storeId;
+
+  // Day of the transaction's createdAt (client time for offline sales)
+  @Column(name = "stat_date", nullable = false)
+  private LocalDate statDate;
+
+  @Column(name = "status_code", nullable = false)
+  private String statusCode;
+
+  @Column(name = "payment_method_code", nullable = false)
+  private String paymentMethodCode;
+
+  // users.id of the creator, nil UUID when unknown
+  @Column(name = "cashier_id", nullable = false)
+  private UUID cashierId;
+
+  @Column(name = "transaction_count", nullable = false)
+  private long transactionCount;
+
+  // Sum of line item quantities
+  @Column(name = "product_quantity", nullable = false)
+  private BigDecimal productQuantity;
+
+  @Column(name = "total_price", nullable = false)
+  private BigDecimal totalPrice;
+
+  @Column(name = "total_discount", nullable = false)
+  private BigDecimal totalDiscount;
+
+  @Column(name = "total_tax", nullable = false)
+  private BigDecimal totalTax;
+
+  @Column(name = "total_commission", nullable = false)
+  private BigDecimal totalCommission;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -3,9 +3,11 @@ package com.huzakerna.cajero.model;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
 import org.hibernate.annotations.UpdateTimestamp;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -15,7 +17,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "product_categories")
+@Table(name = "product_categories", indexes = {
+        @Index(name = "idx_product_categories_store_updated_at", columnList = "store_id, updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,7 +47,7 @@ public class ProductCategory {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
-    @UpdateTimestamp
+    @UpdateTimestamp(source = SourceType.DB) // Same clock as native stock updates and delta sync
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
@@ -8,6 +8,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiryDate")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -21,9 +24,14 @@ public class RefreshToken {
   @JoinColumn(name = "user_id", referencedColumnName = "id")
   private User user;
 
-  @Column(nullable = false, unique = true)
-  private String token;
+  // SHA-256 (hex) of the token; the token itself is never stored
+  @Column(name = "token", nullable = false, unique = true)
+  private String tokenHash;
 
   @Column(nullable = false)
   private Instant expiryDate;
+
+  // The raw token, only on the instance returned when it's issued
+  @Transient
+  private String token;
 }
@@ -44,6 +44,10 @@ public class StockMovement extends BaseEntity {
     @Column(name = "quantity")
     private BigDecimal quantity;
 
+    // Stock of the affected item right after this movement (null when stock is not tracked)
+    @Column(name = "balance")
+    private BigDecimal balance;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "transaction_id", insertable = false, updatable = false)
     private Transaction transaction;
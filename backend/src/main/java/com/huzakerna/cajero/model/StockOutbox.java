@@ -0,0 +1,84 @@
+package com.huzakerna.cajero.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pending stock deduction written by checkout in outbox mode.
+ * The id is a sequence so rows of a store are drained in checkout order.
+ */
+@Entity
+@Table(name = "stock_outbox", indexes = {
+    @Index(name = "idx_stock_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_stock_outbox_store_status", columnList = "store_id, status, id"),
+    @Index(name = "idx_stock_outbox_status_processed", columnList = "status, processed_at")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockOutbox {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "store_id", nullable = false)
+  private UUID storeId;
+
+  @Column(name = "transaction_id")
+  private UUID transactionId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "type", nullable = false)
+  private StockMovementType type;
+
+  // List of StockLine
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(columnDefinition = "jsonb", nullable = false)
+  private JsonNode payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private StockOutboxStatus status;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  // Movement timestamp (checkout time), not the time it is processed
+  @Column(name = "movement_at")
+  private LocalDateTime movementAt;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @CreationTimestamp
+  @Column(name = "created_at", updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "processed_at")
+  private LocalDateTime processedAt;
+}
@@ -0,0 +1,7 @@
+package com.huzakerna.cajero.model;
+
+public enum StockOutboxStatus {
+  PENDING,
+  DONE,
+  FAILED
+}
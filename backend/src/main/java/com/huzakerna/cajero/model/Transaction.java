@@ -6,8 +6,10 @@ import java.util.UUID;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.FetchType;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,7 +18,12 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = {
+        // Offline uploads are idempotent per store
+        @UniqueConstraint(name = "uk_transactions_store_client_key", columnNames = { "store_id", "client_key" })
+}, indexes = {
+        @Index(name = "idx_transactions_store_updated_at", columnList = "store_id, updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -52,6 +59,10 @@ public class Transaction extends BaseEntity {
     @Column(name = "customer_id")
     private UUID customerId;
 
+    // Client-generated idempotency key (offline queue id)
+    @Column(name = "client_key", length = 64, updatable = false)
+    private String clientKey;
+
     public void setTransactionProducts(List<TransactionProduct> transactionProducts) {
         if (this.transactionProducts == null) {
             this.transactionProducts = new java.util.ArrayList<>();
@@ -81,4 +81,9 @@ public class User {
     @Column(name = "password_hash", nullable = false, length = 255)
     private String passwordHash;
 
+    // Signed into access tokens; bumping it invalidates the tokens issued before
+    @Builder.Default
+    @Column(name = "token_version", nullable = false, columnDefinition = "bigint DEFAULT 0")
+    private long tokenVersion = 0;
+
 }
@@ -0,0 +1,53 @@
+package com.huzakerna.cajero.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.huzakerna.cajero.model.AiDigest;
+
+public interface AiDigestRepository extends JpaRepository<AiDigest, Long> {
+
+  Optional<AiDigest> findByStoreIdAndDigestDate(UUID storeId, LocalDate digestDate);
+
+  // Stores with sales in the window that have no finished digest for the date yet: the
+  // digests themselves are the job's checkpoint, so a rerun continues where one stopped
+  @Query(value = """
+      SELECT DISTINCT s.store_id
+      FROM daily_store_stats s
+      WHERE s.stat_date BETWEEN :activeSince AND :digestDate
+        AND s.transaction_count > 0
+        AND NOT EXISTS (
+          SELECT 1 FROM ai_digests d
+          WHERE d.store_id = s.store_id
+            AND d.digest_date = :digestDate
+            AND d.summary IS NOT NULL)
+      ORDER BY s.store_id
+      """, nativeQuery = true)
+  List<UUID> findStoreIdsPendingDigest(
+      @Param("digestDate") LocalDate digestDate,
+      @Param("activeSince") LocalDate activeSince);
+
+  @Modifying
+  @Transactional
+  @Query(value = """
+      INSERT INTO ai_digests (store_id, digest_date, facts, summary, updated_at)
+      VALUES (:storeId, :digestDate, CAST(:facts AS jsonb), :summary, now())
+      ON CONFLICT (store_id, digest_date) DO UPDATE SET
+        facts = EXCLUDED.facts,
+        summary = COALESCE(EXCLUDED.summary, ai_digests.summary),
+        updated_at = now()
+      """, nativeQuery = true)
+  int upsert(
+      @Param("storeId") UUID storeId,
+      @Param("digestDate") LocalDate digestDate,
+      @Param("facts") String facts,
+      @Param("summary") String summary);
+}
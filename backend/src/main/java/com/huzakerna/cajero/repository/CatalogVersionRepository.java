@@ -0,0 +1,31 @@
+package com.huzakerna.cajero.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.huzakerna.cajero.model.CatalogVersion;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, UUID> {
+
+  // Both join the caller's transaction, so a bump commits or rolls back with its edit
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO catalog_versions (store_id, version, category_version) VALUES (:storeId, 1, 0)
+      ON CONFLICT (store_id) DO UPDATE SET version = catalog_versions.version + 1
+      """, nativeQuery = true)
+  void incrementCatalog(@Param("storeId") UUID storeId);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO catalog_versions (store_id, version, category_version) VALUES (:storeId, 0, 1)
+      ON CONFLICT (store_id) DO UPDATE SET category_version = catalog_versions.category_version + 1
+      """, nativeQuery = true)
+  void incrementCategories(@Param("storeId") UUID storeId);
+}
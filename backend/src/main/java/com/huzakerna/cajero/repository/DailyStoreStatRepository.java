@@ -0,0 +1,189 @@
+package com.huzakerna.cajero.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.huzakerna.cajero.model.DailyStoreStat;
+
+public interface DailyStoreStatRepository extends JpaRepository<DailyStoreStat, Long> {
+
+  // Adds a (possibly negative) contribution to one rollup row, creating it if needed
+  @Modifying
+  @Query(value = """
+      INSERT INTO daily_store_stats (store_id, stat_date, status_code, payment_method_code, cashier_id,
+        transaction_count, product_quantity, total_price, total_discount, total_tax, total_commission, updated_at)
+      VALUES (:storeId, :statDate, :statusCode, :paymentMethodCode, :cashierId,
+        :transactionCount, :productQuantity, :totalPrice, :totalDiscount, :totalTax, :totalCommission, now())
+      ON CONFLICT (store_id, stat_date, status_code, payment_method_code, cashier_id) DO UPDATE SET
+        transaction_count = daily_store_stats.transaction_count + EXCLUDED.transaction_count,
+        product_quantity = daily_store_stats.product_quantity + EXCLUDED.product_quantity,
+        total_price = daily_store_stats.total_price + EXCLUDED.total_price,
+        total_discount = daily_store_stats.total_discount + EXCLUDED.total_discount,
+        total_tax = daily_store_stats.total_tax + EXCLUDED.total_tax,
+        total_commission = daily_store_stats.total_commission + EXCLUDED.total_commission,
+        updated_at = now()
+      """, nativeQuery = true)
+  int upsert(
+      @Param("storeId") UUID storeId,
+      @Param("statDate") LocalDate statDate,
+      @Param("statusCode") String statusCode,
+      @Param("paymentMethodCode") String paymentMethodCode,
+      @Param("cashierId") UUID cashierId,
+      @Param("transactionCount") long transactionCount,
+      @Param("productQuantity") BigDecimal productQuantity,
+      @Param("totalPrice") BigDecimal totalPrice,
+      @Param("totalDiscount") BigDecimal totalDiscount,
+      @Param("totalTax") BigDecimal totalTax,
+      @Param("totalCommission") BigDecimal totalCommission);
+
+  // Writers share the store lock, a rebuild takes it exclusively
+  @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('daily_store_stats:' || CAST(:storeId AS text)))", nativeQuery = true)
+  Integer lockStoreShared(@Param("storeId") UUID storeId);
+
+  @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('daily_store_stats:' || CAST(:storeId AS text)))", nativeQuery = true)
+  Integer lockStore(@Param("storeId") UUID storeId);
+
+  @Modifying
+  @Query(value = """
+      DELETE FROM daily_store_stats
+      WHERE store_id = :storeId AND stat_date BETWEEN :startDate AND :endDate
+      """, nativeQuery = true)
+  int deleteRange(
+      @Param("storeId") UUID storeId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
+
+  // Regenerates rollup rows for a range from raw transactions (after deleteRange)
+  @Modifying
+  @Query(value = """
+      INSERT INTO daily_store_stats (store_id, stat_date, status_code, payment_method_code, cashier_id,
+        transaction_count, product_quantity, total_price, total_discount, total_tax, total_commission, updated_at)
+      SELECT t.store_id,
+        CAST(t.created_at AS date),
+        COALESCE(t.status_code, ''),
+        COALESCE(t.payment_method_code, ''),
+        COALESCE(t.created_by, CAST('00000000-0000-0000-0000-000000000000' AS uuid)),
+        COUNT(*),
+        COALESCE(SUM(items.quantity), 0),
+        COALESCE(SUM(t.total_price), 0),
+        COALESCE(SUM(t.total_discount), 0),
+        COALESCE(SUM(t.total_tax), 0),
+        COALESCE(SUM(t.total_commission), 0),
+        now()
+      FROM transactions t
+      LEFT JOIN LATERAL (
+        SELECT SUM(tp.quantity) AS quantity
+        FROM transaction_products tp
+        WHERE tp.transaction_id = t.id
+      ) items ON true
+      WHERE t.store_id = :storeId
+        AND t.created_at >= :start
+        AND t.created_at < :end
+        AND t.deleted_at IS NULL
+      GROUP BY 1, 2, 3, 4, 5
+      """, nativeQuery = true)
+  int rebuildRange(
+      @Param("storeId") UUID storeId,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end);
+
+  /**
+   * Per-day report rows from the rollup, tagged by {@code kind}
+   * (TOTAL, PAYMENT, COMMISSION). The range summary is assembled from the days,
+   * so cached days and fresh ones combine freely. Columns:
+   * kind, day, label, transactions, product_sold, revenue, refund, discount,
+   * refund_transactions, refund_product, tax, amount.
+   */
+  @Query(value = """
+      WITH s AS (
+        SELECT * FROM daily_store_stats
+        WHERE store_id = :storeId
+          AND stat_date BETWEEN :startDate AND :endDate
+      )
+      SELECT 'TOTAL' AS kind, stat_date AS day, CAST(NULL AS text) AS label,
+        SUM(transaction_count) AS transactions,
+        SUM(product_quantity) AS product_sold,
+        COALESCE(SUM(total_price) FILTER (WHERE status_code = 'COMPLETED'), 0) AS revenue,
+        COALESCE(SUM(total_price) FILTER (WHERE status_code = 'REFUND'), 0) AS refund,
+        COALESCE(SUM(total_discount) FILTER (WHERE status_code = 'COMPLETED'), 0) AS discount,
+        COALESCE(SUM(transaction_count) FILTER (WHERE status_code = 'REFUND'), 0) AS refund_transactions,
+        COALESCE(SUM(product_quantity) FILTER (WHERE status_code = 'REFUND'), 0) AS refund_product,
+        COALESCE(SUM(total_tax) FILTER (WHERE status_code = 'COMPLETED'), 0) AS tax,
+        CAST(NULL AS numeric) AS amount
+      FROM s
+      GROUP BY stat_date
+      HAVING SUM(transaction_count) <> 0
+      UNION ALL
+      SELECT 'PAYMENT', stat_date, NULLIF(payment_method_code, ''),
+        NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, SUM(total_price)
+      FROM s
+      WHERE status_code = 'COMPLETED'
+      GROUP BY stat_date, payment_method_code
+      HAVING SUM(transaction_count) <> 0
+      UNION ALL
+      SELECT 'COMMISSION', s.stat_date, u.name,
+        NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, SUM(s.total_commission)
+      FROM s
+      JOIN users u ON u.id = s.cashier_id
+      WHERE s.status_code = 'COMPLETED'
+      GROUP BY s.stat_date, u.name
+      HAVING SUM(s.transaction_count) <> 0
+      """, nativeQuery = true)
+  List<Object[]> findDailyReportRows(
+      @Param("storeId") UUID storeId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
+
+  @Query("""
+      SELECT new map(
+        COALESCE(SUM(s.transactionCount), 0) as count,
+        COALESCE(SUM(s.totalPrice), 0) as totalRevenue
+      )
+      FROM DailyStoreStat s
+      WHERE s.storeId = :storeId
+        AND s.statusCode = 'COMPLETED'
+        AND s.statDate = :statDate
+      """)
+  Object findSalesSummary(
+      @Param("storeId") UUID storeId,
+      @Param("statDate") LocalDate statDate);
+
+  // Completed revenue and transactions per day, days without sales omitted
+  @Query(value = """
+      SELECT stat_date, SUM(total_price), SUM(transaction_count)
+      FROM daily_store_stats
+      WHERE store_id = :storeId
+        AND status_code = 'COMPLETED'
+        AND stat_date BETWEEN :startDate AND :endDate
+      GROUP BY stat_date
+      """, nativeQuery = true)
+  List<Object[]> findDailyRevenue(
+      @Param("storeId") UUID storeId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
+
+  @Query(value = """
+      SELECT
+        CAST(EXTRACT(ISODOW FROM stat_date) AS INTEGER) as dayOfWeek,
+        SUM(transaction_count) as count
+      FROM daily_store_stats
+      WHERE store_id = :storeId
+        AND status_code = 'COMPLETED'
+        AND stat_date BETWEEN :startDate AND :endDate
+      GROUP BY EXTRACT(ISODOW FROM stat_date)
+      HAVING SUM(transaction_count) > 0
+      ORDER BY count DESC
+      """, nativeQuery = true)
+  List<Object[]> findBusyDays(
+      @Param("storeId") UUID storeId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
+}
@@ -1,8 +1,14 @@
 package com.huzakerna.cajero.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.huzakerna.cajero.model.Ingredient;
 
@@ -15,4 +21,30 @@ public interface IngredientRepository extends JpaRepository<Ingredient, UUID> {
 
   @EntityGraph(attributePaths = { "createdBy", "updatedBy" })
   List<Ingredient> findByStoreIdAndDeletedAtIsNull(UUID storeId);
+
+  @EntityGraph(attributePaths = { "createdBy", "updatedBy", "measureUnit" })
+  List<Ingredient> findByStoreIdAndIdIn(UUID storeId, Collection<UUID> ids);
+
+  // Atomic relative update; returns the new stock, or null when not found / not tracked
+  @Query(value = """
+      UPDATE ingredients SET stock = stock + :delta, updated_at = now()
+      WHERE id = :id AND stock IS NOT NULL
+      RETURNING stock
+      """, nativeQuery = true)
+  BigDecimal addStock(@Param("id") UUID id, @Param("delta") BigDecimal delta);
+
+  // AI tool: stock of the store's ingredients matching a name
+  @Query("""
+      SELECT new map(i.name as name, i.stock as stock, mu.code as unit)
+      FROM Ingredient i
+      LEFT JOIN i.measureUnit mu
+      WHERE i.storeId = :storeId
+        AND i.deletedAt IS NULL
+        AND LOWER(i.name) LIKE LOWER(CONCAT('%', :keyword, '%'))
+      ORDER BY i.name
+      """)
+  List<Map<String, Object>> findStockByName(
+      @Param("storeId") UUID storeId,
+      @Param("keyword") String keyword,
+      Pageable pageable);
 }
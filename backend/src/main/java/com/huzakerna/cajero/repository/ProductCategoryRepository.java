@@ -1,5 +1,6 @@
 package com.huzakerna.cajero.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,4 +11,6 @@ public interface ProductCategoryRepository extends JpaRepository<ProductCategory
     List<ProductCategory> findByStoreId(UUID storeId);
 
     List<ProductCategory> findByStoreIdAndDeletedAtIsNull(UUID storeId);
+
+    List<ProductCategory> findByStoreIdAndCodeIn(UUID storeId, Collection<String> codes);
 }
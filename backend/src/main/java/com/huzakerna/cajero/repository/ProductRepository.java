@@ -1,6 +1,10 @@
 package com.huzakerna.cajero.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -31,4 +35,35 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
                         @Param("end") LocalDateTime end,
                         Pageable pageable);
 
+        // Recipe plan compilation: products with their base recipe in one query
+        @EntityGraph(attributePaths = { "ingredients" })
+        List<Product> findAllWithIngredientsByIdIn(Collection<UUID> ids);
+
+        // Delta sync: changed products with what their response maps
+        @EntityGraph(attributePaths = { "createdBy", "updatedBy", "ingredients", "ingredients.ingredient",
+                        "ingredients.ingredient.measureUnit" })
+        List<Product> findWithIngredientsByStoreIdAndIdIn(UUID storeId, Collection<UUID> ids);
+
+        // Atomic relative update; returns the new stock, or null when not found / not tracked
+        @Query(value = """
+                        UPDATE products SET stock = stock + :delta, updated_at = now()
+                        WHERE id = :id AND stock IS NOT NULL
+                        RETURNING stock
+                        """, nativeQuery = true)
+        BigDecimal addStock(@Param("id") UUID id, @Param("delta") BigDecimal delta);
+
+        // AI tool: stock of the store's products matching a name
+        @Query("""
+                        SELECT new map(p.name as name, p.stock as stock)
+                        FROM Product p
+                        WHERE p.storeId = :storeId
+                          AND p.deletedAt IS NULL
+                          AND LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))
+                        ORDER BY p.name
+                        """)
+        List<Map<String, Object>> findStockByName(
+                        @Param("storeId") UUID storeId,
+                        @Param("keyword") String keyword,
+                        Pageable pageable);
+
 }
@@ -1,16 +1,38 @@
 package com.huzakerna.cajero.repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import com.huzakerna.cajero.model.RefreshToken;
 import com.huzakerna.cajero.model.User;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-  Optional<RefreshToken> findByToken(String token);
+  Optional<RefreshToken> findByTokenHash(String tokenHash);
 
   @Modifying(flushAutomatically = true, clearAutomatically = true)
   int deleteByUser(User user);
+
+  // 0 when another request already used (rotated) the token
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM refresh_tokens t WHERE t.id = :id")
+  int deleteTokenById(@Param("id") long id);
+
+  // One bounded batch per call, so the purge never holds a long lock.
+  // The column is expiryDate: field names are used as is (PhysicalNamingStrategyStandardImpl)
+  @Modifying
+  @Transactional
+  @Query(value = """
+      DELETE FROM refresh_tokens
+      WHERE id IN (
+        SELECT id FROM refresh_tokens
+        WHERE expiryDate < :now
+        LIMIT :limit)
+      """, nativeQuery = true)
+  int deleteExpiredBatch(@Param("now") Instant now, @Param("limit") int limit);
 }
@@ -0,0 +1,113 @@
+package com.huzakerna.cajero.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies many stock deltas in a single UPDATE per table.
+ * Ids and deltas are sent as two parallel arrays and joined with unnest, so the
+ * statement count stays the same whatever the number of rows touched.
+ * Rows whose stock is NULL (stock not tracked) are left untouched.
+ * Each method returns the new stock per updated id.
+ * The UPDATE locks rows in whatever order its join runs, so the rows are first
+ * locked in id order with SELECT ... FOR UPDATE; concurrent checkouts touching
+ * the same rows then wait on each other instead of deadlocking.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockDeltaRepository {
+
+  private static final List<String> LOCK_INGREDIENTS_SQL = List.of(
+      "SELECT 1 FROM ingredients WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+
+  private static final List<String> LOCK_PRODUCTS_SQL = List.of(
+      "SELECT 1 FROM products WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+
+  // Parent variants first (their updated_at is touched too), then the options
+  private static final List<String> LOCK_VARIANT_OPTIONS_SQL = List.of(
+      "SELECT 1 FROM variants WHERE id IN (SELECT variant_id FROM variant_options WHERE id = ANY(?))"
+          + " ORDER BY id FOR UPDATE",
+      "SELECT 1 FROM variant_options WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+
+  private static final String INGREDIENT_SQL = """
+      UPDATE ingredients t
+      SET stock = t.stock + d.delta, updated_at = now()
+      FROM unnest(?, ?) AS d(id, delta)
+      WHERE t.id = d.id AND t.stock IS NOT NULL
+      RETURNING t.id, t.stock
+      """;
+
+  private static final String PRODUCT_SQL = """
+      UPDATE products t
+      SET stock = t.stock + d.delta, updated_at = now()
+      FROM unnest(?, ?) AS d(id, delta)
+      WHERE t.id = d.id AND t.stock IS NOT NULL
+      RETURNING t.id, t.stock
+      """;
+
+  // Options have no updated_at; the parent variant is touched for delta sync
+  private static final String VARIANT_OPTION_SQL = """
+      WITH changed AS (
+        UPDATE variant_options t
+        SET stock = t.stock + d.delta
+        FROM unnest(?, ?) AS d(id, delta)
+        WHERE t.id = d.id AND t.stock IS NOT NULL
+        RETURNING t.id, t.stock, t.variant_id
+      ), touched AS (
+        UPDATE variants v SET updated_at = now()
+        WHERE v.id IN (SELECT variant_id FROM changed)
+      )
+      SELECT id, stock FROM changed
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public Map<UUID, BigDecimal> applyIngredientDeltas(Map<UUID, BigDecimal> deltas) {
+    return apply(LOCK_INGREDIENTS_SQL, INGREDIENT_SQL, deltas);
+  }
+
+  public Map<UUID, BigDecimal> applyProductDeltas(Map<UUID, BigDecimal> deltas) {
+    return apply(LOCK_PRODUCTS_SQL, PRODUCT_SQL, deltas);
+  }
+
+  public Map<UUID, BigDecimal> applyVariantOptionDeltas(Map<UUID, BigDecimal> deltas) {
+    return apply(LOCK_VARIANT_OPTIONS_SQL, VARIANT_OPTION_SQL, deltas);
+  }
+
+  private Map<UUID, BigDecimal> apply(List<String> locks, String sql, Map<UUID, BigDecimal> deltas) {
+    Map<UUID, BigDecimal> balances = new HashMap<>();
+    if (deltas.isEmpty()) {
+      return balances;
+    }
+    UUID[] ids = deltas.keySet().toArray(new UUID[0]);
+    BigDecimal[] values = deltas.values().toArray(new BigDecimal[0]);
+
+    for (String lock : locks) {
+      jdbcTemplate.query(con -> {
+        PreparedStatement ps = con.prepareStatement(lock);
+        ps.setArray(1, con.createArrayOf("uuid", ids));
+        return ps;
+      }, rs -> {
+      });
+    }
+
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement(sql);
+      ps.setArray(1, con.createArrayOf("uuid", ids));
+      ps.setArray(2, con.createArrayOf("numeric", values));
+      return ps;
+    }, rs -> {
+      balances.put(rs.getObject(1, UUID.class), rs.getBigDecimal(2));
+    });
+    return balances;
+  }
+}
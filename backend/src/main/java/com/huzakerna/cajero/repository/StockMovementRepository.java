@@ -1,8 +1,11 @@
 package com.huzakerna.cajero.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.huzakerna.cajero.model.StockMovement;
 
@@ -17,4 +20,28 @@ public interface StockMovementRepository
 
   @EntityGraph(attributePaths = { "createdBy", "updatedBy" })
   List<StockMovement> findByStoreIdAndDeletedAtIsNull(UUID storeId);
+
+  // Ingredients whose stock covers fewer than :coverDays days of average sales usage
+  // since :since (or that are already out); sign-agnostic on the movement quantity
+  @Query(value = """
+      SELECT i.name, i.stock, ABS(SUM(sm.quantity)) / :days AS daily_usage
+      FROM ingredients i
+      JOIN stock_movements sm ON sm.ingredient_id = i.id
+        AND sm.store_id = :storeId
+        AND sm.type = 'SALE'
+        AND sm.created_at >= :since
+      WHERE i.store_id = :storeId
+        AND i.deleted_at IS NULL
+        AND i.stock IS NOT NULL
+      GROUP BY i.id, i.name, i.stock
+      HAVING i.stock <= 0 OR i.stock < ABS(SUM(sm.quantity)) / :days * :coverDays
+      ORDER BY i.stock / NULLIF(ABS(SUM(sm.quantity)), 0) NULLS FIRST
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<Object[]> findLowStockIngredients(
+      @Param("storeId") UUID storeId,
+      @Param("since") LocalDateTime since,
+      @Param("days") int days,
+      @Param("coverDays") int coverDays,
+      @Param("limit") int limit);
 }
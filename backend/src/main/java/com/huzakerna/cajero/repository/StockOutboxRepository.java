@@ -0,0 +1,62 @@
+package com.huzakerna.cajero.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.huzakerna.cajero.model.StockOutbox;
+
+public interface StockOutboxRepository extends JpaRepository<StockOutbox, Long> {
+
+  // Stores whose queue head (oldest pending row) is due
+  @Query(value = """
+      SELECT h.store_id
+      FROM (
+        SELECT DISTINCT ON (store_id) store_id, id, next_attempt_at
+        FROM stock_outbox
+        WHERE status = 'PENDING'
+        ORDER BY store_id, id
+      ) h
+      WHERE h.next_attempt_at <= :now
+      ORDER BY h.id
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<UUID> findDueStoreIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  // Head of a store's queue, in checkout order
+  @Query(value = """
+      SELECT * FROM stock_outbox
+      WHERE store_id = :storeId AND status = 'PENDING'
+      ORDER BY id
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<StockOutbox> findPendingByStore(@Param("storeId") UUID storeId, @Param("limit") int limit);
+
+  // Serializes processing of one store across workers and instances
+  @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext(CAST(:storeId AS text)))", nativeQuery = true)
+  boolean tryLockStore(@Param("storeId") UUID storeId);
+
+  @Query(value = "SELECT COUNT(*) FROM stock_outbox WHERE status = 'PENDING'", nativeQuery = true)
+  long countPending();
+
+  @Query(value = "SELECT MIN(created_at) FROM stock_outbox WHERE status = 'PENDING'", nativeQuery = true)
+  LocalDateTime findOldestPendingCreatedAt();
+
+  // One bounded batch of completed rows per call; FAILED rows stay for inspection
+  @Modifying
+  @Transactional
+  @Query(value = """
+      DELETE FROM stock_outbox
+      WHERE id IN (
+        SELECT id FROM stock_outbox
+        WHERE status = 'DONE' AND processed_at < :before
+        LIMIT :limit)
+      """, nativeQuery = true)
+  int deleteDoneBatch(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
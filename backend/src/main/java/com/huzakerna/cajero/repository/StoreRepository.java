@@ -3,6 +3,7 @@ package com.huzakerna.cajero.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.huzakerna.cajero.model.Store;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -10,4 +11,17 @@ public interface StoreRepository extends JpaRepository<Store, UUID> {
   Optional<Store> findByEmail(String email);
 
   boolean existsByEmail(String email);
+
+  // The few columns writes check, without loading the whole store
+  interface ContextView {
+    UUID getId();
+
+    Double getMaxDiscount();
+
+    String getSubscriptionStatus();
+
+    LocalDateTime getSubscriptionExpiresAt();
+  }
+
+  Optional<ContextView> findContextById(UUID id);
 }
@@ -0,0 +1,94 @@
+package com.huzakerna.cajero.repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.huzakerna.cajero.util.SyncCursor;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads which rows of a store changed after a {@link SyncCursor}, across all
+ * synced tables, in (updated_at, kind, key) order. Each table is read through
+ * its (store_id, updated_at) index and limited on its own, then the branches
+ * are merged, so a page costs the same whatever the catalog size. Only keys
+ * are returned; soft-deleted rows come back flagged as tombstones.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyncChangeRepository {
+
+  public static final String PRODUCT = "product";
+  public static final String INGREDIENT = "ingredient";
+  public static final String VARIANT = "variant";
+  public static final String CATEGORY = "category";
+  public static final String TRANSACTION = "transaction";
+
+  public record Change(String kind, String key, LocalDateTime updatedAt, boolean deleted) {
+  }
+
+  // Kind -> table and key column
+  private static final Map<String, String[]> SOURCES = Map.of(
+      PRODUCT, new String[] { "products", "id" },
+      INGREDIENT, new String[] { "ingredients", "id" },
+      VARIANT, new String[] { "variants", "id" },
+      CATEGORY, new String[] { "product_categories", "code" },
+      TRANSACTION, new String[] { "transactions", "id" });
+
+  private static final List<String> KINDS = List.of(PRODUCT, INGREDIENT, VARIANT, CATEGORY, TRANSACTION);
+
+  private static final String BRANCH = """
+      (SELECT '%1$s'::text AS kind, %3$s::text AS key, updated_at, deleted_at IS NOT NULL AS deleted
+       FROM %2$s
+       WHERE store_id = ? AND updated_at >= ? AND updated_at <= LOCALTIMESTAMP - make_interval(secs => ?)
+         AND (updated_at, '%1$s'::text, %3$s::text) > (?, ?, ?)
+       ORDER BY updated_at, %3$s::text
+       LIMIT ?)
+      """;
+
+  private static final String SQL = KINDS.stream()
+      .map(kind -> String.format(BRANCH, kind, SOURCES.get(kind)[0], SOURCES.get(kind)[1]))
+      .collect(Collectors.joining("UNION ALL\n"))
+      + "ORDER BY updated_at, kind, key\nLIMIT ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Up to {@code limit} changes after {@code after}, leaving out those younger
+   * than {@code settle} by the database clock, which stamps every updated_at.
+   * Transactions older than {@code transactionsFrom} are skipped.
+   */
+  public List<Change> findChanges(UUID storeId, SyncCursor after, Duration settle,
+      LocalDateTime transactionsFrom, int limit) {
+    List<Object> args = new ArrayList<>();
+    Timestamp afterTs = Timestamp.valueOf(after.updatedAt());
+    for (String kind : KINDS) {
+      LocalDateTime from = TRANSACTION.equals(kind) && transactionsFrom.isAfter(after.updatedAt())
+          ? transactionsFrom
+          : after.updatedAt();
+      args.add(storeId);
+      args.add(Timestamp.valueOf(from));
+      args.add(settle.toMillis() / 1000.0);
+      args.add(afterTs);
+      args.add(after.kind());
+      args.add(after.key());
+      args.add(limit);
+    }
+    args.add(limit);
+
+    return jdbcTemplate.query(SQL, (rs, i) -> new Change(
+        rs.getString("kind"),
+        rs.getString("key"),
+        rs.getTimestamp("updated_at").toLocalDateTime(),
+        rs.getBoolean("deleted")), args.toArray());
+  }
+}
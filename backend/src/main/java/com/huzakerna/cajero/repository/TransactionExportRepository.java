@@ -0,0 +1,65 @@
+package com.huzakerna.cajero.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Forward-only read of a store's transactions for export, one row per line
+ * item (transactions without lines produce a single row). Rows are handed to
+ * the callback as the driver fetches them, so memory does not grow with the
+ * range. Must run inside a transaction: the Postgres driver only uses a
+ * cursor (honours the fetch size) when autocommit is off.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionExportRepository {
+
+  private static final String EXPORT_SQL = """
+      SELECT t.id, t.created_at, t.status_code, t.transaction_type_code, t.payment_method_code,
+        t.description, t.total_price, t.total_discount, t.total_tax, t.total_commission,
+        c.name AS customer_name, u.name AS cashier_name,
+        tp.product_id, p.name AS product_name, tp.quantity, tp.selling_price, tp.discount, tp.tax,
+        tp.commission, tp.note,
+        (SELECT string_agg(COALESCE(v.name || ': ', '') || vo.name, '; ')
+         FROM jsonb_array_elements(CASE WHEN jsonb_typeof(tp.selected_variants) = 'array'
+                                        THEN tp.selected_variants ELSE '[]'::jsonb END) e
+         JOIN variant_options vo ON CAST(vo.id AS text) = e->>'optionId'
+         LEFT JOIN variants v ON v.id = vo.variant_id) AS selected_variants
+      FROM transactions t
+      LEFT JOIN transaction_products tp ON tp.transaction_id = t.id
+      LEFT JOIN products p ON p.id = tp.product_id
+      LEFT JOIN customers c ON c.id = t.customer_id
+      LEFT JOIN users u ON u.id = t.created_by
+      WHERE t.store_id = ?
+        AND t.created_at >= ?
+        AND t.created_at < ?
+        AND t.deleted_at IS NULL
+      ORDER BY t.created_at, t.id
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public void streamLines(UUID storeId, LocalDateTime start, LocalDateTime end, int fetchSize,
+      RowCallbackHandler handler) {
+    // Exports may legitimately outlast the reporting pool's statement timeout
+    jdbcTemplate.execute("SET LOCAL statement_timeout = 0");
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(fetchSize);
+      ps.setObject(1, storeId);
+      ps.setTimestamp(2, Timestamp.valueOf(start));
+      ps.setTimestamp(3, Timestamp.valueOf(end));
+      return ps;
+    }, handler);
+  }
+}
@@ -2,7 +2,9 @@ package com.huzakerna.cajero.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +17,14 @@ import org.springframework.data.jpa.repository.EntityGraph;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
+  Optional<Transaction> findByStoreIdAndClientKey(UUID storeId, String clientKey);
+
+  List<Transaction> findByStoreIdAndClientKeyIn(UUID storeId, Collection<String> clientKeys);
+
+  // Delta sync: changed transactions with their lines
+  @EntityGraph(attributePaths = { "createdBy", "updatedBy", "transactionProducts", "transactionProducts.product" })
+  List<Transaction> findWithProductsByStoreIdAndIdIn(UUID storeId, Collection<UUID> ids);
+
   @EntityGraph(attributePaths = { "createdBy", "updatedBy" })
   @Query("""
           SELECT DISTINCT t FROM Transaction t
@@ -37,59 +47,6 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
       @Param("end") LocalDateTime end,
       Pageable pageable);
 
-  @Query("""
-      SELECT
-        CAST(t.createdAt AS LocalDate) as date,
-        COUNT(t) as count,
-        SUM(CASE WHEN t.statusCode = 'COMPLETED' THEN t.totalPrice ELSE 0 END) as revenue,
-        SUM(CASE WHEN t.statusCode = 'REFUND' THEN t.totalPrice ELSE 0 END) as refund,
-        SUM(CASE WHEN t.statusCode = 'COMPLETED' THEN t.totalDiscount ELSE 0 END) as discount
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY CAST(t.createdAt AS LocalDate)
-      """)
-  List<Object[]> findTransactionDailyStats(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
-  @Query("""
-      SELECT
-        CAST(t.createdAt AS LocalDate) as date,
-        SUM(tp.quantity) as productSold
-      FROM Transaction t
-      JOIN t.transactionProducts tp
-      WHERE t.storeId = :storeId
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY CAST(t.createdAt AS LocalDate)
-      """)
-  List<Object[]> findProductDailyStats(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
-  @Query("""
-      SELECT
-        COUNT(t),
-        SUM(t.totalPrice),
-        (SELECT SUM(tp.quantity)
-         FROM TransactionProduct tp
-         WHERE tp.transaction.id = t.id)
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'REFUND'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY t.id
-      """)
-  List<Object[]> findRefundStats(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
   @Query("""
       SELECT SUM(t.totalTax)
       FROM Transaction t
@@ -103,111 +60,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
       @Param("start") LocalDateTime start,
       @Param("end") LocalDateTime end);
 
-  @Query("""
-      SELECT
-        t.paymentMethodCode,
-        SUM(t.totalPrice)
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'COMPLETED'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY t.paymentMethodCode
-      """)
-  List<Object[]> findPaymentMethodStats(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
-  @Query("""
-      SELECT
-        u.name,
-        SUM(t.totalCommission)
-      FROM Transaction t
-      JOIN t.createdBy u
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'COMPLETED'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY u.name
-      """)
-  List<Object[]> findCommissionStats(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
-  // Daily Detailed Stats
-
-  @Query("""
-      SELECT
-        CAST(t.createdAt AS LocalDate) as date,
-        COUNT(t),
-        SUM(t.totalPrice),
-        (SELECT SUM(tp.quantity)
-         FROM TransactionProduct tp
-         WHERE tp.transaction.id = t.id)
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'REFUND'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY CAST(t.createdAt AS LocalDate), t.id
-      """)
-  List<Object[]> findRefundStatsDaily(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
-  @Query("""
-      SELECT
-        CAST(t.createdAt AS LocalDate) as date,
-        SUM(t.totalTax)
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'COMPLETED'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY CAST(t.createdAt AS LocalDate)
-      """)
-  List<Object[]> findTotalTaxDaily(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
-  @Query("""
-      SELECT
-        CAST(t.createdAt AS LocalDate) as date,
-        t.paymentMethodCode,
-        SUM(t.totalPrice)
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'COMPLETED'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY CAST(t.createdAt AS LocalDate), t.paymentMethodCode
-      """)
-  List<Object[]> findPaymentMethodStatsDaily(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
+  // Stores with transactions created or edited since the given time
+  @Query(value = """
+      SELECT DISTINCT store_id FROM transactions
+      WHERE created_at >= :since OR updated_at >= :since
+      """, nativeQuery = true)
+  List<UUID> findStoreIdsWithActivitySince(@Param("since") LocalDateTime since);
 
-  @Query("""
-      SELECT
-        CAST(t.createdAt AS LocalDate) as date,
-        u.name,
-        SUM(t.totalCommission)
-      FROM Transaction t
-      JOIN t.createdBy u
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'COMPLETED'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      GROUP BY CAST(t.createdAt AS LocalDate), u.name
-      """)
-  List<Object[]> findCommissionStatsDaily(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
+  @Query("SELECT MIN(t.createdAt) FROM Transaction t WHERE t.storeId = :storeId")
+  LocalDateTime findFirstCreatedAt(@Param("storeId") UUID storeId);
 
   // AI-Specific Helpers
 
@@ -233,22 +94,6 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
       @Param("end") LocalDateTime end,
       Pageable pageable);
 
-  @Query("""
-      SELECT new map(
-        COUNT(t) as count,
-        COALESCE(SUM(t.totalPrice), 0) as totalRevenue
-      )
-      FROM Transaction t
-      WHERE t.storeId = :storeId
-        AND t.statusCode = 'COMPLETED'
-        AND t.createdAt BETWEEN :start AND :end
-        AND t.deletedAt IS NULL
-      """)
-  Object findSalesSummary(
-      @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
-
   @Query("""
       SELECT new map(
         t.description as name,
@@ -288,21 +133,33 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
       @Param("start") LocalDateTime start,
       @Param("end") LocalDateTime end);
 
+  // Products sold on [dayStart, dayEnd) against their daily average over [trailingStart, dayStart),
+  // biggest changes first
   @Query(value = """
-      SELECT
-        CAST(EXTRACT(ISODOW FROM created_at) AS INTEGER) as dayOfWeek,
-        COUNT(*) as count
-      FROM transactions
-      WHERE store_id = :storeId
-        AND status_code = 'COMPLETED'
-        AND created_at BETWEEN :start AND :end
-        AND deleted_at IS NULL
-      GROUP BY EXTRACT(ISODOW FROM created_at)
-      ORDER BY count DESC
+      SELECT name, day_quantity, trailing_quantity / :trailingDays AS trailing_average
+      FROM (
+        SELECT p.name,
+          SUM(CASE WHEN t.created_at >= :dayStart THEN tp.quantity ELSE 0 END) AS day_quantity,
+          SUM(CASE WHEN t.created_at < :dayStart THEN tp.quantity ELSE 0 END) AS trailing_quantity
+        FROM transaction_products tp
+        JOIN transactions t ON t.id = tp.transaction_id
+        JOIN products p ON p.id = tp.product_id
+        WHERE t.store_id = :storeId
+          AND t.status_code = 'COMPLETED'
+          AND t.deleted_at IS NULL
+          AND t.created_at >= :trailingStart
+          AND t.created_at < :dayEnd
+        GROUP BY p.id, p.name
+      ) m
+      ORDER BY ABS(day_quantity - trailing_quantity / :trailingDays) DESC, name
+      LIMIT :limit
       """, nativeQuery = true)
-  List<Object[]> findBusyDays(
+  List<Object[]> findProductMovers(
       @Param("storeId") UUID storeId,
-      @Param("start") LocalDateTime start,
-      @Param("end") LocalDateTime end);
+      @Param("trailingStart") LocalDateTime trailingStart,
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("dayEnd") LocalDateTime dayEnd,
+      @Param("trailingDays") int trailingDays,
+      @Param("limit") int limit);
 
 }
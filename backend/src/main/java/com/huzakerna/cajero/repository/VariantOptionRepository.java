@@ -1,11 +1,35 @@
 package com.huzakerna.cajero.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.huzakerna.cajero.model.VariantOption;
 
 public interface VariantOptionRepository extends JpaRepository<VariantOption, UUID> {
 
   List<VariantOption> findByVariantId(UUID variantId);
+
+  // Recipe plan compilation: every option of the given products with its recipe
+  @EntityGraph(attributePaths = { "ingredients", "variant" })
+  List<VariantOption> findAllWithIngredientsByVariantProductIdIn(Collection<UUID> productIds);
+
+  // Atomic relative update; returns the new stock, or null when not found / not tracked.
+  // Also touches the parent variant, whose updated_at delta sync follows.
+  @Query(value = """
+      WITH changed AS (
+        UPDATE variant_options SET stock = stock + :delta
+        WHERE id = :id AND stock IS NOT NULL
+        RETURNING variant_id, stock
+      ), touched AS (
+        UPDATE variants SET updated_at = now()
+        WHERE id IN (SELECT variant_id FROM changed)
+      )
+      SELECT stock FROM changed
+      """, nativeQuery = true)
+  BigDecimal addStock(@Param("id") UUID id, @Param("delta") BigDecimal delta);
 }
@@ -1,5 +1,6 @@
 package com.huzakerna.cajero.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,4 +15,9 @@ public interface VariantRepository extends JpaRepository<Variant, UUID> {
 
   @EntityGraph(attributePaths = { "createdBy", "updatedBy" })
   List<Variant> findByStoreIdAndDeletedAtIsNull(UUID storeId);
+
+  // Delta sync: changed variants with their options and option recipes
+  @EntityGraph(attributePaths = { "createdBy", "updatedBy", "options", "options.ingredients",
+      "options.ingredients.ingredient", "options.ingredients.ingredient.measureUnit" })
+  List<Variant> findWithOptionsByStoreIdAndIdIn(UUID storeId, Collection<UUID> ids);
 }
@@ -0,0 +1,64 @@
+package com.huzakerna.cajero.security;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.model.User;
+import com.huzakerna.cajero.repository.UserRepository;
+import com.huzakerna.cajero.util.AfterCommit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived cache of users by id, for the places that need more than the
+ * token claims: checking a token's version against the user's current one.
+ * Entries are detached snapshots, read-only. {@link #revoke} bumps the version
+ * so every token issued before stops working; on this node right away, on
+ * other nodes once their entry expires.
+ */
+@Component
+public class UserCache {
+
+  private final UserRepository userRepository;
+  private final Cache<UUID, Optional<User>> users;
+
+  public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+      @Value("${jwt.user-cache.max-size:10000}") long maxSize,
+      @Value("${jwt.user-cache.ttl-ms:60000}") long ttlMs) {
+    this.userRepository = userRepository;
+    this.users = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+  }
+
+  // Empty for unknown and deleted users
+  public Optional<User> get(UUID id) {
+    return users.get(id, key -> userRepository.findById(key).filter(user -> user.getDeletedAt() == null));
+  }
+
+  // Whether a token carrying this version is still current for the user
+  public boolean isCurrent(UUID id, long tokenVersion) {
+    return get(id).map(user -> user.getTokenVersion() == tokenVersion).orElse(false);
+  }
+
+  @Transactional
+  public void revoke(UUID id) {
+    userRepository.incrementTokenVersion(id);
+    evict(id);
+  }
+
+  public void evict(UUID id) {
+    AfterCommit.invalidate(() -> users.invalidate(id));
+  }
+}
@@ -29,10 +29,29 @@ public class UserDetailsImpl implements UserDetails {
     }
   }
 
+  // Principal from verified token claims, without loading the user
+  public static UserDetailsImpl fromClaims(UUID id, String email, UUID storeId, String roleCode, long tokenVersion) {
+    return new UserDetailsImpl(User.builder()
+        .id(id)
+        .email(email)
+        .storeId(storeId)
+        .roleCode(roleCode)
+        .tokenVersion(tokenVersion)
+        .build());
+  }
+
+  public UUID getId() {
+    return user.getId();
+  }
+
   public UUID getStoreId() {
     return user.getStoreId();
   }
 
+  public long getTokenVersion() {
+    return user.getTokenVersion();
+  }
+
   @Override
   public String getUsername() {
     return user.getEmail();
@@ -0,0 +1,243 @@
+package com.huzakerna.cajero.service;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.exception.AiUnavailableException;
+import com.huzakerna.cajero.util.CircuitBreaker;
+import com.huzakerna.cajero.util.AtomicTokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a slow or failing AI provider from spreading to the rest of the node.
+ * Per-store token buckets, sized by the store's subscription, limit how often
+ * a store may ask. A bulkhead caps concurrent provider calls and queues a
+ * bounded number more (waiting without holding a thread); beyond that calls
+ * are refused. A circuit breaker refuses calls right away while the provider
+ * keeps failing. Refusals fail with {@link AiUnavailableException}.
+ */
+@Component
+@Slf4j
+public class AiCallGuard {
+
+  static final String BUSY = "The AI assistant is busy right now. Please try again in a moment.";
+  static final String UNAVAILABLE = "The AI assistant is temporarily unavailable. Please try again in a few minutes.";
+  static final String QUOTA = "Your store has reached its AI request limit. Please try again later.";
+
+  private record Plan(long capacity, long perHour) {
+  }
+
+  private record Quota(String status, AtomicTokenBucket bucket) {
+  }
+
+  private record Waiting(Runnable start, CompletableFuture<?> result) {
+  }
+
+  private final StoreContextCache storeContexts;
+  private final CircuitBreaker breaker;
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final int maxQueue;
+  private final long queueTimeoutMs;
+  private final Queue<Waiting> waiting = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final Plan ultra;
+  private final Plan pro;
+  private final Plan basic;
+  private final Cache<UUID, Quota> quotas;
+
+  private final Counter bulkheadRejections;
+  private final Counter circuitRejections;
+  private final Counter quotaRejections;
+  private final Counter circuitOpened;
+
+  public AiCallGuard(StoreContextCache storeContexts, MeterRegistry meterRegistry,
+      @Value("${ai.bulkhead.max-concurrent:20}") int maxConcurrent,
+      @Value("${ai.bulkhead.max-queue:50}") int maxQueue,
+      @Value("${ai.bulkhead.queue-timeout-ms:10000}") long queueTimeoutMs,
+      @Value("${ai.circuit.failure-threshold:5}") int failureThreshold,
+      @Value("${ai.circuit.open-ms:30000}") long openMs,
+      @Value("${ai.quota.ultra.capacity:30}") long ultraCapacity,
+      @Value("${ai.quota.ultra.per-hour:120}") long ultraPerHour,
+      @Value("${ai.quota.pro.capacity:10}") long proCapacity,
+      @Value("${ai.quota.pro.per-hour:30}") long proPerHour,
+      @Value("${ai.quota.basic.capacity:3}") long basicCapacity,
+      @Value("${ai.quota.basic.per-hour:5}") long basicPerHour) {
+    this.storeContexts = storeContexts;
+    this.breaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs));
+    this.permits = new Semaphore(maxConcurrent);
+    this.maxConcurrent = maxConcurrent;
+    this.maxQueue = maxQueue;
+    this.queueTimeoutMs = queueTimeoutMs;
+
+    this.ultra = new Plan(ultraCapacity, ultraPerHour);
+    this.pro = new Plan(proCapacity, proPerHour);
+    this.basic = new Plan(basicCapacity, basicPerHour);
+    this.quotas = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofHours(2))
+        .build();
+
+    this.bulkheadRejections = meterRegistry.counter("ai.rejections", "reason", "bulkhead");
+    this.circuitRejections = meterRegistry.counter("ai.rejections", "reason", "circuit_open");
+    this.quotaRejections = meterRegistry.counter("ai.rejections", "reason", "quota");
+    this.circuitOpened = meterRegistry.counter("ai.circuit.opened");
+    Gauge.builder("ai.bulkhead.queue", queued, AtomicInteger::get).register(meterRegistry);
+    Gauge.builder("ai.bulkhead.active", permits, p -> this.maxConcurrent - p.availablePermits())
+        .register(meterRegistry);
+    Gauge.builder("ai.circuit.open", breaker, b -> b.state() == CircuitBreaker.State.OPEN ? 1 : 0)
+        .register(meterRegistry);
+  }
+
+  // Takes one request from the store's quota, or throws
+  public void checkQuota(UUID storeId) {
+    if (storeId == null) {
+      return;
+    }
+    String status = storeContexts.find(storeId)
+        .map(StoreContextCache.StoreContext::subscriptionStatus)
+        .orElse("free");
+    Quota quota = quotas.asMap().compute(storeId, (id, current) -> current != null && current.status().equals(status)
+        ? current
+        : new Quota(status, bucket(status)));
+    if (quota.bucket().tryConsume() > 0) {
+      quotaRejections.increment();
+      throw new AiUnavailableException(QUOTA);
+    }
+  }
+
+  /**
+   * Runs a provider call inside the bulkhead and circuit breaker. Cancelling
+   * the returned future cancels the call, or drops it from the queue.
+   */
+  public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+    if (breaker.isOpen()) {
+      circuitRejections.increment();
+      return CompletableFuture.failedFuture(new AiUnavailableException(UNAVAILABLE));
+    }
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Runnable start = () -> start(call, result);
+    if (permits.tryAcquire()) {
+      start.run();
+      return result;
+    }
+    if (queued.incrementAndGet() > maxQueue) {
+      queued.decrementAndGet();
+      bulkheadRejections.increment();
+      return CompletableFuture.failedFuture(new AiUnavailableException(BUSY));
+    }
+    Waiting entry = new Waiting(start, result);
+    waiting.add(entry);
+    // Whoever takes the entry off the queue owns its slot: drain, the deadline or a cancel
+    result.whenComplete((value, error) -> {
+      if (waiting.remove(entry)) {
+        queued.decrementAndGet();
+      }
+    });
+    CompletableFuture.delayedExecutor(queueTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> expire(entry));
+    // A permit may have been released before we queued
+    drain();
+    return result;
+  }
+
+  // Still queued at the deadline, even if no permit was released meanwhile
+  private void expire(Waiting entry) {
+    if (waiting.remove(entry)) {
+      queued.decrementAndGet();
+      bulkheadRejections.increment();
+      entry.result().completeExceptionally(new AiUnavailableException(BUSY));
+    }
+  }
+
+  private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+    if (!breaker.tryAcquire()) {
+      release();
+      circuitRejections.increment();
+      result.completeExceptionally(new AiUnavailableException(UNAVAILABLE));
+      return;
+    }
+
+    CompletableFuture<T> inner;
+    try {
+      inner = call.get();
+    } catch (RuntimeException e) {
+      inner = CompletableFuture.failedFuture(e);
+    }
+    CompletableFuture<T> running = inner;
+    result.whenComplete((value, error) -> {
+      if (result.isCancelled()) {
+        running.cancel(true);
+      }
+    });
+    running.whenComplete((value, error) -> {
+      release();
+      Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+      if (cause == null) {
+        breaker.onSuccess();
+        result.complete(value);
+        return;
+      }
+      // The client going away says nothing about the provider
+      if (cause instanceof CancellationException || cause instanceof UncheckedIOException) {
+        breaker.onIgnored();
+      } else if (breaker.onFailure()) {
+        circuitOpened.increment();
+        log.warn("AI circuit opened after repeated failures: {}", cause.getMessage());
+      }
+      result.completeExceptionally(cause);
+    });
+  }
+
+  private void release() {
+    permits.release();
+    drain();
+  }
+
+  // Starts queued calls while permits are free
+  private void drain() {
+    while (!waiting.isEmpty() && permits.tryAcquire()) {
+      Waiting next = waiting.poll();
+      if (next == null) {
+        permits.release();
+        return;
+      }
+      queued.decrementAndGet();
+      if (next.result().isDone()) {
+        permits.release();
+      } else {
+        next.start().run();
+      }
+    }
+  }
+
+  private AtomicTokenBucket bucket(String status) {
+    Plan plan = switch (status == null ? "" : status.toLowerCase(Locale.ROOT)) {
+      case "ultra" -> ultra;
+      case "pro" -> pro;
+      default -> basic; // free, past_due and anything unknown
+    };
+    return new AtomicTokenBucket(plan.capacity(), plan.perHour() / 3600d);
+  }
+}
@@ -0,0 +1,201 @@
+package com.huzakerna.cajero.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.huzakerna.cajero.config.RoutingDataSource;
+import com.huzakerna.cajero.config.RoutingDataSource.Route;
+import com.huzakerna.cajero.exception.AiUnavailableException;
+import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.ai.AiMessage;
+import com.huzakerna.cajero.service.ai.AiProvider;
+import com.huzakerna.cajero.service.ai.AiReply;
+import com.huzakerna.cajero.service.ai.AiTool;
+import com.huzakerna.cajero.service.ai.AiToolCall;
+
+/**
+ * Builds the chat prompt and hands it to the configured {@link AiProvider}.
+ * With tools enabled the prompt is short and the model fetches the store data
+ * it needs through {@link AiToolCatalog}; otherwise the precomputed analytics
+ * context is included. Repeated questions are answered from
+ * {@link AiResponseCache} without a model call; everything else goes through
+ * the store's quota and the {@link AiCallGuard} bulkhead and circuit breaker.
+ */
+@Service
+public class AiChatService {
+
+  private static final String PERSONA = "You are a helpful assistant for a POS app. Keep responses concise.\n";
+
+  private static final String TOOLS_CONTEXT = """
+      Today is %s. Use the tools to look up this store's sales, refunds, best sellers, peak hours and stock
+      instead of guessing numbers, and only ask for the periods the question needs.
+      Convert 24h hours to AM/PM (e.g. 13 -> 1 PM).
+      """;
+
+  // Simplified Schema Context for the AI
+  private static final String SCHEMA_CONTEXT = """
+      You have access to a database with the following structure (schema):
+
+      1. Table: products
+         - Columns: name (String), description (String), stock (BigDecimal), buying_price (BigDecimal), selling_price (BigDecimal), category_code (String), barcode (String).
+         - Relationships: Has many ProductIngredients, Has many Variants.
+
+      2. Table: transactions
+         - Columns: total_price (BigDecimal), status_code (String), transaction_type_code (String), payment_method_code (String), created_at (Timestamp).
+         - Relationships: Has many TransactionProducts.
+
+      3. Table: users
+         - Columns: name (String), email (String), role_code (String), store_id (UUID).
+
+      When answering, you can refer to these tables and columns to suggest how to find information.
+      You CANNOT query the database directly yet, but you can explain how the data is structured.
+      """;
+
+  private final AiProvider aiProvider;
+  private final AiContextCache aiContextCache;
+  private final AiResponseCache aiResponseCache;
+  private final AiToolCatalog aiToolCatalog;
+  private final AiCallGuard aiCallGuard;
+  private final boolean toolsEnabled;
+  private final int maxToolRounds;
+  private final long answerWindowMs;
+
+  public AiChatService(AiProvider aiProvider, AiContextCache aiContextCache, AiResponseCache aiResponseCache,
+      AiToolCatalog aiToolCatalog, AiCallGuard aiCallGuard,
+      @Value("${ai.tools.enabled:true}") boolean toolsEnabled,
+      @Value("${ai.tools.max-rounds:3}") int maxToolRounds,
+      @Value("${ai.tools.answer-window-ms:600000}") long answerWindowMs) {
+    this.aiProvider = aiProvider;
+    this.aiContextCache = aiContextCache;
+    this.aiResponseCache = aiResponseCache;
+    this.aiToolCatalog = aiToolCatalog;
+    this.aiCallGuard = aiCallGuard;
+    this.toolsEnabled = toolsEnabled;
+    this.maxToolRounds = maxToolRounds;
+    this.answerWindowMs = answerWindowMs;
+  }
+
+  public CompletableFuture<String> chat(UserDetailsImpl user, String prompt) {
+    return answer(user, prompt, null);
+  }
+
+  // Completes with the whole reply; cancelling it aborts the generation
+  public CompletableFuture<String> stream(UserDetailsImpl user, String prompt, Consumer<String> onToken) {
+    return answer(user, prompt, onToken);
+  }
+
+  private CompletableFuture<String> answer(UserDetailsImpl user, String prompt, Consumer<String> onToken) {
+    validate(prompt);
+    UUID storeId = user != null ? user.getStoreId() : null;
+    AiContextCache.Context context = context(storeId);
+
+    String cached = aiResponseCache.get(storeId, role(user), prompt, context);
+    if (cached != null) {
+      if (onToken != null) {
+        onToken.accept(cached);
+      }
+      return CompletableFuture.completedFuture(cached);
+    }
+    try {
+      aiCallGuard.checkQuota(storeId);
+    } catch (AiUnavailableException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    // Cancelling the answer must reach whichever model call is running
+    AtomicReference<CompletableFuture<AiReply>> current = new AtomicReference<>();
+    CompletableFuture<String> answer = converse(storeId, messages(user, prompt, context), 0, onToken, current)
+        .thenApply(reply -> reply.content() != null ? reply.content() : "");
+    answer.whenComplete((text, error) -> {
+      if (error != null) {
+        CompletableFuture<AiReply> call = current.get();
+        if (call != null) {
+          call.cancel(true);
+        }
+      } else {
+        // Only a reply that finished is cached
+        aiResponseCache.put(storeId, role(user), prompt, context, text);
+      }
+    });
+    return answer;
+  }
+
+  // One model turn; tool calls are run and answered, then the model is asked again
+  private CompletableFuture<AiReply> converse(UUID storeId, List<AiMessage> messages, int round,
+      Consumer<String> onToken, AtomicReference<CompletableFuture<AiReply>> current) {
+    // The last round offers no tools, so the model has to answer with what it has
+    List<AiTool> tools = toolsEnabled && storeId != null && round < maxToolRounds
+        ? aiToolCatalog.tools()
+        : List.of();
+    CompletableFuture<AiReply> call = aiCallGuard.call(() -> onToken == null
+        ? aiProvider.complete(messages, tools)
+        : aiProvider.stream(messages, tools, onToken));
+    current.set(call);
+
+    return call.thenCompose(reply -> {
+      if (!reply.hasToolCalls() || tools.isEmpty()) {
+        return CompletableFuture.completedFuture(reply);
+      }
+      List<AiMessage> next = new ArrayList<>(messages);
+      next.add(AiMessage.assistant(reply));
+      for (AiToolCall toolCall : reply.toolCalls()) {
+        // Lookups use the reporting pool, never the connections checkout needs
+        String result = RoutingDataSource.callWith(Route.REPORTING, () -> aiToolCatalog.execute(storeId, toolCall));
+        next.add(AiMessage.tool(toolCall.id(), result));
+      }
+      return converse(storeId, next, round + 1, onToken, current);
+    });
+  }
+
+  List<AiMessage> messages(UserDetailsImpl user, String prompt, AiContextCache.Context context) {
+    // No name or email: answers are shared by everyone with the same role in the store
+    String userContext = "";
+    if (user != null) {
+      userContext = String.format("Current User Role: %s, Store ID: %s.", role(user), user.getStoreId());
+    }
+
+    String systemPrompt;
+    if (toolsEnabled) {
+      systemPrompt = PERSONA +
+          String.format(TOOLS_CONTEXT, LocalDate.now()) +
+          userContext;
+    } else {
+      systemPrompt = PERSONA +
+          SCHEMA_CONTEXT + "\n" +
+          userContext + "\n" +
+          (context != null ? context.text() : "");
+    }
+
+    return List.of(AiMessage.system(systemPrompt), AiMessage.user(prompt));
+  }
+
+  private static String role(UserDetailsImpl user) {
+    return user != null ? String.valueOf(user.getAuthorities()) : "";
+  }
+
+  private AiContextCache.Context context(UUID storeId) {
+    if (storeId == null) {
+      return null;
+    }
+    if (toolsEnabled) {
+      // Nothing is precomputed; answers are reused within a window, as long as a context lived
+      return new AiContextCache.Context("", System.currentTimeMillis() / answerWindowMs + 1);
+    }
+    // Refreshed ahead in the background, so this doesn't wait on the database
+    return aiContextCache.get(storeId);
+  }
+
+  private static void validate(String prompt) {
+    if (prompt == null || prompt.isBlank()) {
+      throw new IllegalArgumentException("Prompt is required");
+    }
+  }
+}
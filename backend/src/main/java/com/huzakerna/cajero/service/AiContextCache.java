@@ -0,0 +1,194 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh-ahead cache of the AI data context per store. Chat always gets the
+ * current entry, however old, while a scheduled task recomputes entries of
+ * recently active stores in the background and swaps them in whole. Refreshes
+ * are spread out by a per-store offset and capped per tick, so stores don't all
+ * hit the database at once. Only a store's very first request waits, briefly.
+ */
+@Component
+@Slf4j
+public class AiContextCache {
+
+  private static final String PREPARING = "\n\nREAL-TIME DATA CONTEXT: [Data is being prepared, try again shortly]";
+
+  /**
+   * A store's data context and its version. Versions increase with every
+   * refresh; 0 marks the placeholder served while a store's first context is
+   * still being computed.
+   */
+  public record Context(String text, long version) {
+
+    public boolean isReady() {
+      return version > 0;
+    }
+  }
+
+  private static final Context PREPARING_CONTEXT = new Context(PREPARING, 0);
+
+  private record Entry(Context context, Instant computedAt) {
+  }
+
+  // Per-store meters, removed when the store goes idle
+  private record Meters(Gauge age, Timer refresh) {
+  }
+
+  private final AnalyticsService analyticsService;
+  private final AiResponseCache aiResponseCache;
+  private final MeterRegistry meterRegistry;
+  private final ExecutorService refreshExecutor;
+
+  private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<UUID, Instant> lastAccess = new ConcurrentHashMap<>();
+  private final Map<UUID, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+  private final Map<UUID, Meters> meters = new ConcurrentHashMap<>();
+  private final AtomicLong versions = new AtomicLong();
+
+  @Value("${ai.context.refresh-after-ms:600000}")
+  private long refreshAfterMs;
+
+  @Value("${ai.context.active-window-ms:3600000}")
+  private long activeWindowMs;
+
+  @Value("${ai.context.cold-wait-ms:3000}")
+  private long coldWaitMs;
+
+  @Value("${ai.context.max-refreshes-per-tick:20}")
+  private int maxRefreshesPerTick;
+
+  public AiContextCache(AnalyticsService analyticsService, AiResponseCache aiResponseCache,
+      MeterRegistry meterRegistry, @Value("${ai.context.refresh-threads:2}") int threads) {
+    this.analyticsService = analyticsService;
+    this.aiResponseCache = aiResponseCache;
+    this.meterRegistry = meterRegistry;
+    AtomicInteger counter = new AtomicInteger();
+    this.refreshExecutor = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "ai-context-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public Context get(UUID storeId) {
+    lastAccess.put(storeId, Instant.now());
+    Entry entry = entries.get(storeId);
+    if (entry != null) {
+      return entry.context();
+    }
+
+    // First request for this store: compute now, but don't hold the chat for long
+    try {
+      return refreshAsync(storeId).get(coldWaitMs, TimeUnit.MILLISECONDS).context();
+    } catch (TimeoutException e) {
+      return PREPARING_CONTEXT;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return PREPARING_CONTEXT;
+    } catch (Exception e) {
+      log.warn("AI context for store {} failed: {}", storeId, e.getMessage());
+      return PREPARING_CONTEXT;
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${ai.context.refresh-tick-ms:60000}", initialDelayString = "${ai.context.refresh-tick-ms:60000}")
+  public void refreshDue() {
+    Instant now = Instant.now();
+    List<UUID> due = new ArrayList<>();
+
+    for (Map.Entry<UUID, Instant> access : lastAccess.entrySet()) {
+      UUID storeId = access.getKey();
+      if (Duration.between(access.getValue(), now).toMillis() > activeWindowMs) {
+        forget(storeId);
+        continue;
+      }
+      Entry entry = entries.get(storeId);
+      // Per-store offset spreads refreshes of entries created at the same time
+      long threshold = refreshAfterMs - Math.floorMod(storeId.hashCode(), Math.max(1, refreshAfterMs / 4));
+      if (entry == null || Duration.between(entry.computedAt(), now).toMillis() >= threshold) {
+        due.add(storeId);
+      }
+    }
+
+    due.sort(Comparator.comparing(storeId -> entries.containsKey(storeId)
+        ? entries.get(storeId).computedAt()
+        : Instant.MIN));
+    due.stream().limit(maxRefreshesPerTick).forEach(this::refreshAsync);
+  }
+
+  private CompletableFuture<Entry> refreshAsync(UUID storeId) {
+    return inFlight.computeIfAbsent(storeId, id -> CompletableFuture
+        .supplyAsync(() -> refresh(id), refreshExecutor)
+        .whenComplete((entry, error) -> inFlight.remove(id)));
+  }
+
+  private Entry refresh(UUID storeId) {
+    Meters storeMeters = meters(storeId);
+    long start = System.nanoTime();
+    try {
+      Context context = new Context(analyticsService.buildAIDataContext(storeId), versions.incrementAndGet());
+      Entry entry = new Entry(context, Instant.now());
+      entries.put(storeId, entry); // Swapped in whole; readers see the old or the new context
+      // Answers given against the previous context no longer apply
+      aiResponseCache.evictStore(storeId);
+      return entry;
+    } catch (RuntimeException e) {
+      // Keep serving the previous context
+      log.warn("AI context refresh for store {} failed: {}", storeId, e.getMessage());
+      throw e;
+    } finally {
+      storeMeters.refresh().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Meters meters(UUID storeId) {
+    return meters.computeIfAbsent(storeId, id -> new Meters(
+        Gauge.builder("ai.context.age.seconds", entries, map -> {
+          Entry entry = map.get(id);
+          return entry == null ? Double.NaN : Duration.between(entry.computedAt(), Instant.now()).toSeconds();
+        }).tag("store", id.toString()).register(meterRegistry),
+        Timer.builder("ai.context.refresh.duration").tag("store", id.toString()).register(meterRegistry)));
+  }
+
+  private void forget(UUID storeId) {
+    lastAccess.remove(storeId);
+    entries.remove(storeId);
+    aiResponseCache.evictStore(storeId);
+    Meters removed = meters.remove(storeId);
+    if (removed != null) {
+      meterRegistry.remove(removed.age());
+      meterRegistry.remove(removed.refresh());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+}
@@ -0,0 +1,289 @@
+package com.huzakerna.cajero.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.huzakerna.cajero.config.RoutingDataSource;
+import com.huzakerna.cajero.config.RoutingDataSource.Route;
+import com.huzakerna.cajero.model.AiDigest;
+import com.huzakerna.cajero.repository.AiDigestRepository;
+import com.huzakerna.cajero.repository.DailyStoreStatRepository;
+import com.huzakerna.cajero.repository.StockMovementRepository;
+import com.huzakerna.cajero.repository.TransactionRepository;
+import com.huzakerna.cajero.service.ai.AiMessage;
+import com.huzakerna.cajero.service.ai.AiProvider;
+import com.huzakerna.cajero.service.ai.AiReply;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds yesterday's insight digest for every store with recent sales: revenue
+ * against the trailing average, top movers, low-stock ingredients and the peak
+ * hour, plus a short summary written by the {@link AiProvider}. Stores are
+ * processed in chunks on a small pool. Saved digests are the checkpoint: a run
+ * only picks up stores without a finished digest, so a run cut short (deadline,
+ * restart, provider down) is continued by the next scheduled one.
+ */
+@Service
+@Slf4j
+public class AiDigestService {
+
+  private static final String SUMMARY_PROMPT = """
+      You write the morning briefing for a small shop owner using a POS app.
+      Summarize how %s went in 3-4 short sentences from the JSON facts below: revenue against the usual
+      day, notable product movers, ingredients to restock and the busiest hour (convert 24h to AM/PM).
+      Only use the numbers given.
+      """;
+
+  private final AiDigestRepository aiDigestRepository;
+  private final DailyStoreStatRepository dailyStoreStatRepository;
+  private final TransactionRepository transactionRepository;
+  private final StockMovementRepository stockMovementRepository;
+  private final AiProvider aiProvider;
+  private final AiCallGuard aiCallGuard;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  private final int chunkSize;
+  private final int trailingDays;
+  private final int activeDays;
+  private final int movers;
+  private final int lowStockCoverDays;
+  private final long summaryTimeoutMs;
+  private final long maxRunMs;
+
+  private final ExecutorService executor;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public AiDigestService(AiDigestRepository aiDigestRepository, DailyStoreStatRepository dailyStoreStatRepository,
+      TransactionRepository transactionRepository, StockMovementRepository stockMovementRepository,
+      AiProvider aiProvider, AiCallGuard aiCallGuard, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+      @Value("${ai.digest.threads:4}") int threads,
+      @Value("${ai.digest.chunk-size:50}") int chunkSize,
+      @Value("${ai.digest.trailing-days:7}") int trailingDays,
+      @Value("${ai.digest.active-days:30}") int activeDays,
+      @Value("${ai.digest.movers:5}") int movers,
+      @Value("${ai.digest.low-stock-cover-days:3}") int lowStockCoverDays,
+      @Value("${ai.digest.summary-timeout-ms:60000}") long summaryTimeoutMs,
+      @Value("${ai.digest.max-run-ms:3300000}") long maxRunMs) {
+    this.aiDigestRepository = aiDigestRepository;
+    this.dailyStoreStatRepository = dailyStoreStatRepository;
+    this.transactionRepository = transactionRepository;
+    this.stockMovementRepository = stockMovementRepository;
+    this.aiProvider = aiProvider;
+    this.aiCallGuard = aiCallGuard;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.chunkSize = chunkSize;
+    this.trailingDays = trailingDays;
+    this.activeDays = activeDays;
+    this.movers = movers;
+    this.lowStockCoverDays = lowStockCoverDays;
+    this.summaryTimeoutMs = summaryTimeoutMs;
+    this.maxRunMs = maxRunMs;
+
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "ai-digest-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public Optional<AiDigest> find(UUID storeId, LocalDate date) {
+    return aiDigestRepository.findByStoreIdAndDigestDate(storeId, date);
+  }
+
+  // Runs several times a night; later runs only finish what earlier ones left
+  @Scheduled(cron = "${ai.digest.cron:0 30 1-5 * * *}")
+  public void nightly() {
+    run(LocalDate.now().minusDays(1));
+  }
+
+  // Returns how many stores got a finished digest
+  public int run(LocalDate date) {
+    if (!running.compareAndSet(false, true)) {
+      log.info("AI digest run for {} skipped, previous run still going", date);
+      return 0;
+    }
+    Timer.Sample sample = Timer.start(meterRegistry);
+    long deadline = System.currentTimeMillis() + maxRunMs;
+    int done = 0;
+    try {
+      List<UUID> storeIds = aiDigestRepository.findStoreIdsPendingDigest(date, date.minusDays(activeDays));
+      log.info("AI digest run for {}: {} stores pending", date, storeIds.size());
+
+      for (int from = 0; from < storeIds.size(); from += chunkSize) {
+        if (System.currentTimeMillis() > deadline) {
+          log.warn("AI digest run for {} stopped at its deadline, {} stores left for the next run",
+              date, storeIds.size() - from);
+          break;
+        }
+        List<CompletableFuture<Boolean>> chunk = new ArrayList<>();
+        for (UUID storeId : storeIds.subList(from, Math.min(from + chunkSize, storeIds.size()))) {
+          chunk.add(CompletableFuture.supplyAsync(() -> digest(storeId, date), executor));
+        }
+        for (CompletableFuture<Boolean> result : chunk) {
+          if (result.join()) {
+            done++;
+          }
+        }
+      }
+      log.info("AI digest run for {} finished: {} stores done", date, done);
+    } catch (RuntimeException e) {
+      log.error("AI digest run for {} failed: {}", date, e.getMessage(), e);
+    } finally {
+      sample.stop(meterRegistry.timer("ai.digest.run"));
+      running.set(false);
+    }
+    return done;
+  }
+
+  // One store; never throws, so a bad store can't stop the chunk
+  boolean digest(UUID storeId, LocalDate date) {
+    try {
+      ObjectNode facts = RoutingDataSource.callWith(Route.REPORTING, () -> facts(storeId, date));
+      String summary = summarize(storeId, date, facts);
+      // Facts are saved either way; a missing summary is retried by the next run
+      aiDigestRepository.upsert(storeId, date, objectMapper.writeValueAsString(facts), summary);
+      meterRegistry.counter("ai.digest.stores", "result", summary != null ? "done" : "no_summary").increment();
+      return summary != null;
+    } catch (Exception e) {
+      meterRegistry.counter("ai.digest.stores", "result", "failed").increment();
+      log.warn("AI digest for store {} on {} failed: {}", storeId, date, e.getMessage());
+      return false;
+    }
+  }
+
+  ObjectNode facts(UUID storeId, LocalDate date) {
+    LocalDateTime dayStart = date.atStartOfDay();
+    LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+    ObjectNode facts = objectMapper.createObjectNode();
+    facts.put("date", date.toString());
+
+    // Revenue from the daily rollups; days without sales count as zero in the average
+    BigDecimal revenue = BigDecimal.ZERO;
+    BigDecimal trailingRevenue = BigDecimal.ZERO;
+    long transactions = 0;
+    long trailingTransactions = 0;
+    for (Object[] row : dailyStoreStatRepository.findDailyRevenue(storeId, date.minusDays(trailingDays), date)) {
+      BigDecimal dayRevenue = toDecimal(row[1]);
+      long dayTransactions = toLong(row[2]);
+      if (date.equals(toDate(row[0]))) {
+        revenue = dayRevenue;
+        transactions = dayTransactions;
+      } else {
+        trailingRevenue = trailingRevenue.add(dayRevenue);
+        trailingTransactions += dayTransactions;
+      }
+    }
+    BigDecimal averageRevenue = trailingRevenue.divide(BigDecimal.valueOf(trailingDays), 2, RoundingMode.HALF_UP);
+    ObjectNode sales = facts.putObject("revenue");
+    sales.put("amount", revenue);
+    sales.put("transactions", transactions);
+    sales.put("trailingDays", trailingDays);
+    sales.put("trailingAverage", averageRevenue);
+    sales.put("trailingAverageTransactions", (double) trailingTransactions / trailingDays);
+    if (averageRevenue.signum() > 0) {
+      sales.put("changePercent", revenue.subtract(averageRevenue)
+          .multiply(BigDecimal.valueOf(100))
+          .divide(averageRevenue, 1, RoundingMode.HALF_UP));
+    }
+
+    ArrayNode topMovers = facts.putArray("topMovers");
+    for (Object[] row : transactionRepository.findProductMovers(storeId, dayStart.minusDays(trailingDays), dayStart,
+        dayEnd, trailingDays, movers)) {
+      topMovers.addObject()
+          .put("name", String.valueOf(row[0]))
+          .put("quantity", toDecimal(row[1]))
+          .put("trailingAverage", toDecimal(row[2]).setScale(1, RoundingMode.HALF_UP));
+    }
+
+    ArrayNode lowStock = facts.putArray("lowStock");
+    for (Object[] row : stockMovementRepository.findLowStockIngredients(storeId, dayEnd.minusDays(trailingDays),
+        trailingDays, lowStockCoverDays, 10)) {
+      lowStock.addObject()
+          .put("name", String.valueOf(row[0]))
+          .put("stock", toDecimal(row[1]))
+          .put("dailyUsage", toDecimal(row[2]).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    // Ordered by transaction count, busiest first
+    List<Object[]> hours = transactionRepository.findPeakHours(storeId, dayStart, date.atTime(LocalTime.MAX));
+    if (!hours.isEmpty()) {
+      facts.putObject("peakHour")
+          .put("hour", toLong(hours.get(0)[0]))
+          .put("transactions", toLong(hours.get(0)[1]));
+    }
+    return facts;
+  }
+
+  private String summarize(UUID storeId, LocalDate date, ObjectNode facts) {
+    List<AiMessage> messages = List.of(
+        AiMessage.system(String.format(SUMMARY_PROMPT, date)),
+        AiMessage.user(facts.toString()));
+    // No store quota: this is our batch, not the owner's request. The bulkhead and breaker still apply.
+    CompletableFuture<AiReply> call = aiCallGuard.call(() -> aiProvider.complete(messages, List.of()));
+    try {
+      String text = call.get(summaryTimeoutMs, TimeUnit.MILLISECONDS).content();
+      return text == null || text.isBlank() ? null : text.trim();
+    } catch (Exception e) {
+      call.cancel(true);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      log.debug("AI digest summary for store {} failed: {}", storeId, e.getMessage());
+      return null;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  // Native rows may carry java.sql.Date and any Number subtype depending on the driver
+  private static LocalDate toDate(Object value) {
+    if (value instanceof java.sql.Date sqlDate) {
+      return sqlDate.toLocalDate();
+    }
+    return (LocalDate) value;
+  }
+
+  private static long toLong(Object value) {
+    return value == null ? 0L : ((Number) value).longValue();
+  }
+
+  private static BigDecimal toDecimal(Object value) {
+    if (value == null) {
+      return BigDecimal.ZERO;
+    }
+    if (value instanceof BigDecimal decimal) {
+      return decimal;
+    }
+    return new BigDecimal(value.toString());
+  }
+}
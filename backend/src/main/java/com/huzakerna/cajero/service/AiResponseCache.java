@@ -0,0 +1,68 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.util.PromptFingerprint;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * AI chat answers per store and role, keyed by the prompt's fingerprint and the
+ * version of the data context they were answered against. The role is part of
+ * the key because it is part of the prompt; nothing else about the user is. A context refresh makes the
+ * old answers unreachable and evicts them; the TTL bounds how long an answer
+ * is reused within one context version. Hit rate is published as the
+ * cache.gets metric of cache "ai.response".
+ */
+@Component
+public class AiResponseCache {
+
+  private record Key(UUID storeId, String role, String fingerprint, long contextVersion) {
+  }
+
+  private final Cache<Key, String> cache;
+
+  public AiResponseCache(MeterRegistry meterRegistry,
+      @Value("${ai.response-cache.max-size:10000}") long maxSize,
+      @Value("${ai.response-cache.ttl-minutes:30}") long ttlMinutes) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "ai.response");
+  }
+
+  // Null on a miss, or when the prompt/context can't be cached at all
+  public String get(UUID storeId, String role, String prompt, AiContextCache.Context context) {
+    Key key = key(storeId, role, prompt, context);
+    return key == null ? null : cache.getIfPresent(key);
+  }
+
+  public void put(UUID storeId, String role, String prompt, AiContextCache.Context context, String answer) {
+    Key key = key(storeId, role, prompt, context);
+    if (key != null && answer != null && !answer.isBlank()) {
+      cache.put(key, answer);
+    }
+  }
+
+  public void evictStore(UUID storeId) {
+    cache.asMap().keySet().removeIf(key -> key.storeId().equals(storeId));
+  }
+
+  private static Key key(UUID storeId, String role, String prompt, AiContextCache.Context context) {
+    // Answers given while the context was still being prepared are not reused
+    if (storeId == null || context == null || !context.isReady()) {
+      return null;
+    }
+    String fingerprint = PromptFingerprint.of(prompt);
+    return fingerprint.isEmpty() ? null : new Key(storeId, role, fingerprint, context.version());
+  }
+}
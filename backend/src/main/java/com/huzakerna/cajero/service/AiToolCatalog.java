@@ -0,0 +1,235 @@
+package com.huzakerna.cajero.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huzakerna.cajero.dto.ReportSummaryDTO;
+import com.huzakerna.cajero.repository.IngredientRepository;
+import com.huzakerna.cajero.repository.ProductRepository;
+import com.huzakerna.cajero.repository.TransactionRepository;
+import com.huzakerna.cajero.service.ai.AiTool;
+import com.huzakerna.cajero.service.ai.AiToolCall;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The store data the chat model may look up, as tools. Each one is a fixed,
+ * parameterized aggregate over the existing repositories; the model only
+ * chooses the tool and its arguments. The store always comes from the signed-in
+ * user, never from the model, and results are small JSON documents.
+ */
+@Component
+@Slf4j
+public class AiToolCatalog {
+
+  static final String SALES_SUMMARY = "sales_summary";
+  static final String REFUND_TOTALS = "refund_totals";
+  static final String TOP_PRODUCTS = "top_products";
+  static final String PEAK_HOURS = "peak_hours";
+  static final String ITEM_STOCK = "item_stock";
+
+  private static final Map<String, Object> PERIOD = Map.of(
+      "type", "object",
+      "properties", Map.of(
+          "start_date", Map.of("type", "string", "description", "First day, YYYY-MM-DD. Defaults to today."),
+          "end_date", Map.of("type", "string", "description", "Last day (inclusive), YYYY-MM-DD. Defaults to today.")));
+
+  private static final List<AiTool> TOOLS = List.of(
+      new AiTool(SALES_SUMMARY,
+          "Sales totals for a period: transactions, products sold, revenue, net revenue, discount, tax, expenses and revenue per payment method.",
+          PERIOD),
+      new AiTool(REFUND_TOTALS,
+          "Refunds in a period: refunded amount, refunded transactions and refunded products.",
+          PERIOD),
+      new AiTool(TOP_PRODUCTS,
+          "Best-selling products in a period by quantity sold, with their sales amount.",
+          Map.of(
+              "type", "object",
+              "properties", Map.of(
+                  "start_date", Map.of("type", "string", "description", "First day, YYYY-MM-DD. Defaults to today."),
+                  "end_date", Map.of("type", "string", "description", "Last day (inclusive), YYYY-MM-DD. Defaults to today."),
+                  "limit", Map.of("type", "integer", "description", "How many products, 1-20. Defaults to 5.")))),
+      new AiTool(PEAK_HOURS,
+          "Number of completed transactions per hour of day (0-23) in a period.",
+          PERIOD),
+      new AiTool(ITEM_STOCK,
+          "Current stock of products and ingredients whose name contains the given text.",
+          Map.of(
+              "type", "object",
+              "properties", Map.of(
+                  "name", Map.of("type", "string", "description", "Part of the product or ingredient name.")),
+              "required", List.of("name"))));
+
+  private final ReportService reportService;
+  private final TransactionRepository transactionRepository;
+  private final ProductRepository productRepository;
+  private final IngredientRepository ingredientRepository;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final int maxDays;
+
+  public AiToolCatalog(ReportService reportService, TransactionRepository transactionRepository,
+      ProductRepository productRepository, IngredientRepository ingredientRepository,
+      ObjectMapper objectMapper, MeterRegistry meterRegistry,
+      @Value("${ai.tools.max-days:366}") int maxDays) {
+    this.reportService = reportService;
+    this.transactionRepository = transactionRepository;
+    this.productRepository = productRepository;
+    this.ingredientRepository = ingredientRepository;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.maxDays = maxDays;
+  }
+
+  public List<AiTool> tools() {
+    return TOOLS;
+  }
+
+  // Runs a call for the given store; problems are reported back to the model as {"error": ...}
+  public String execute(UUID storeId, AiToolCall call) {
+    meterRegistry.counter("ai.tool.calls", "tool", String.valueOf(call.name())).increment();
+    try {
+      JsonNode args = objectMapper.readTree(call.arguments() == null || call.arguments().isBlank()
+          ? "{}"
+          : call.arguments());
+      Object result = switch (String.valueOf(call.name())) {
+        case SALES_SUMMARY -> salesSummary(storeId, args);
+        case REFUND_TOTALS -> refundTotals(storeId, args);
+        case TOP_PRODUCTS -> topProducts(storeId, args);
+        case PEAK_HOURS -> peakHours(storeId, args);
+        case ITEM_STOCK -> itemStock(storeId, args);
+        default -> throw new IllegalArgumentException("Unknown tool: " + call.name());
+      };
+      return objectMapper.writeValueAsString(result);
+    } catch (IllegalArgumentException e) {
+      return error(e.getMessage());
+    } catch (JsonProcessingException e) {
+      return error("Arguments must be a JSON object");
+    } catch (RuntimeException e) {
+      log.warn("AI tool {} failed for store {}: {}", call.name(), storeId, e.getMessage());
+      return error("Lookup failed, try again later");
+    }
+  }
+
+  private Map<String, Object> salesSummary(UUID storeId, JsonNode args) {
+    Period period = period(args);
+    ReportSummaryDTO summary = reportService.getDailyReport(storeId, period.start(), period.end()).getSummary();
+
+    Map<String, Object> result = period.toMap();
+    result.put("transactions", summary.getTotalTransaction());
+    result.put("productsSold", summary.getTotalProductSold());
+    result.put("revenue", summary.getTotalRevenue());
+    result.put("netRevenue", summary.getTotalNetRevenue());
+    result.put("discount", summary.getTotalDiscount());
+    result.put("tax", summary.getTotalTax());
+    result.put("expenses", summary.getTotalExpenses());
+    Map<String, Object> payments = new LinkedHashMap<>();
+    summary.getPaymentMethods().forEach(stat -> payments.put(
+        stat.getPaymentMethod() != null ? stat.getPaymentMethod() : "UNKNOWN", stat.getTotalAmount()));
+    result.put("revenueByPaymentMethod", payments);
+    return result;
+  }
+
+  private Map<String, Object> refundTotals(UUID storeId, JsonNode args) {
+    Period period = period(args);
+    ReportSummaryDTO summary = reportService.getDailyReport(storeId, period.start(), period.end()).getSummary();
+
+    Map<String, Object> result = period.toMap();
+    result.put("refundAmount", summary.getTotalRefund());
+    result.put("refundTransactions", summary.getTotalRefundTransaction());
+    result.put("refundProducts", summary.getTotalRefundProduct());
+    return result;
+  }
+
+  private Map<String, Object> topProducts(UUID storeId, JsonNode args) {
+    Period period = period(args);
+    int limit = Math.max(1, Math.min(20, args.path("limit").asInt(5)));
+
+    Map<String, Object> result = period.toMap();
+    result.put("products", transactionRepository.findTopSellingProducts(storeId,
+        period.start().atStartOfDay(), period.end().atTime(LocalTime.MAX), PageRequest.of(0, limit)));
+    return result;
+  }
+
+  private Map<String, Object> peakHours(UUID storeId, JsonNode args) {
+    Period period = period(args);
+    Map<String, Object> hours = new LinkedHashMap<>();
+    for (Object[] row : transactionRepository.findPeakHours(storeId, period.start().atStartOfDay(),
+        period.end().atTime(LocalTime.MAX))) {
+      hours.put(String.valueOf(row[0]), row[1]);
+    }
+
+    Map<String, Object> result = period.toMap();
+    result.put("transactionsByHour", hours);
+    return result;
+  }
+
+  private Map<String, Object> itemStock(UUID storeId, JsonNode args) {
+    String name = args.path("name").asText("").trim();
+    if (name.isEmpty()) {
+      throw new IllegalArgumentException("name is required");
+    }
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("products", productRepository.findStockByName(storeId, name, PageRequest.of(0, 10)));
+    result.put("ingredients", ingredientRepository.findStockByName(storeId, name, PageRequest.of(0, 10)));
+    return result;
+  }
+
+  private record Period(LocalDate start, LocalDate end) {
+
+    Map<String, Object> toMap() {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("startDate", start.toString());
+      map.put("endDate", end.toString());
+      return map;
+    }
+  }
+
+  private Period period(JsonNode args) {
+    LocalDate today = LocalDate.now();
+    LocalDate start = date(args, "start_date", today);
+    LocalDate end = date(args, "end_date", today);
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("end_date is before start_date");
+    }
+    if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+      throw new IllegalArgumentException("Period is limited to " + maxDays + " days");
+    }
+    return new Period(start, end);
+  }
+
+  private static LocalDate date(JsonNode args, String field, LocalDate fallback) {
+    String value = args.path(field).asText("");
+    if (value.isBlank()) {
+      return fallback;
+    }
+    try {
+      return LocalDate.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(field + " must be YYYY-MM-DD");
+    }
+  }
+
+  private String error(String message) {
+    try {
+      return objectMapper.writeValueAsString(Map.of("error", message));
+    } catch (JsonProcessingException e) {
+      return "{\"error\":\"Lookup failed\"}";
+    }
+  }
+}
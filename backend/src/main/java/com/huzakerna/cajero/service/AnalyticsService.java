@@ -1,15 +1,16 @@
 package com.huzakerna.cajero.service;
 
+import com.huzakerna.cajero.repository.DailyStoreStatRepository;
 import com.huzakerna.cajero.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -17,67 +18,75 @@ import java.util.UUID;
 public class AnalyticsService {
 
   private final TransactionRepository transactionRepository;
+  private final DailyStoreStatRepository dailyStoreStatRepository;
+  private final ReportingExecutor reportingExecutor;
+
+  private static final String UNAVAILABLE = "[Unavailable]";
 
   /**
-   * Fetches aggregated analytics data for the given store.
-   * Caches the result for 15 minutes (configured in application.yml).
+   * Builds the aggregated analytics context for the given store.
+   * Served to chat through {@link AiContextCache}, which refreshes it ahead of time.
    */
-  @Cacheable(value = "ai-analytics", key = "#storeId")
-  public String getAIDataContext(UUID storeId) {
+  public String buildAIDataContext(UUID storeId) {
     log.info("Fetching fresh analytics data from database for store: {}", storeId);
 
     LocalDateTime now = LocalDateTime.now();
     LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
     LocalDateTime endOfDay = now.toLocalDate().atTime(23, 59, 59);
 
-    try {
-      // 1. Sales Today
-      Object salesSummary = transactionRepository.findSalesSummary(storeId, startOfDay, endOfDay);
-
-      // 2. Top Products (Last 30 Days)
-      List<Object> topProducts = transactionRepository.findTopSellingProducts(storeId,
-          startOfDay.minusDays(30), endOfDay, PageRequest.of(0, 5));
-
-      // 3. Frequent Customers (Last 30 Days)
-      List<Object> frequentDescriptions = transactionRepository.findFrequentDescriptions(storeId,
-          startOfDay.minusDays(30), endOfDay, PageRequest.of(0, 5));
-
-      // 4. Peak Hours (Last 30 Days)
-      // Native Queries return List<Object[]>
-      List<Object[]> peakHoursList = transactionRepository.findPeakHours(storeId,
-          startOfDay.minusDays(30), endOfDay);
-      String peakHours = peakHoursList.stream()
-          .map(row -> String.format("{hour=%s, count=%s}", row[0], row[1]))
-          .toList().toString();
-
-      // 5. Busiest Days (Last 30 Days)
-      List<Object[]> busyDaysList = transactionRepository.findBusyDays(storeId,
-          startOfDay.minusDays(30), endOfDay);
-      String busyDays = busyDaysList.stream()
-          .map(row -> String.format("{dayOfWeek=%s, count=%s}", row[0], row[1]))
-          .toList().toString();
-
-      return String.format(
-          """
-
-              REAL-TIME DATA CONTEXT (Cached ~15m):
-              - Sales Today: %s
-              - Top Selling Products (Last 30 Days): %s
-              - Make sure to prioritize products that are available in stock.
-              - Frequent Customer Descriptions (Last 30 Days): %s
-              - Peak Hours (Last 30 Days): %s (Format: hour=0-23, count=transactions)
-              - Busiest Days (Last 30 Days): %s (Format: dayOfWeek=1(Mon)-7(Sun), count=transactions)
-
-              Use this data to answer user questions about sales, revenue, popular items, frequent customers, or busy times directly.
-              For "Peak Hours", convert 24h format to AM/PM (e.g. 13 -> 1 PM).
-              For "Busiest Days", convert numbers to Day Names (1=Monday, 7=Sunday).
-              If the user asks about "customers", refer to the "Frequent Customer Descriptions" data as likely customer names or notes.
-              """,
-          salesSummary, topProducts, frequentDescriptions, peakHours, busyDays);
-
-    } catch (Exception e) {
-      log.error("Error fetching analytics data for AI", e);
-      return "\n\nREAL-TIME DATA CONTEXT: [Data Currently Unavailable]";
-    }
+    // The five queries are independent: run them in parallel on the reporting pool.
+    // A failing one only blanks its own line of the context.
+    // 1. Sales Today (rollup)
+    CompletableFuture<Object> salesFuture = reportingExecutor.supply(
+        () -> dailyStoreStatRepository.findSalesSummary(storeId, now.toLocalDate()));
+
+    // 2. Top Products (Last 30 Days)
+    CompletableFuture<Object> topProductsFuture = reportingExecutor.supply(
+        () -> transactionRepository.findTopSellingProducts(storeId, startOfDay.minusDays(30), endOfDay,
+            PageRequest.of(0, 5)));
+
+    // 3. Frequent Customers (Last 30 Days)
+    CompletableFuture<Object> descriptionsFuture = reportingExecutor.supply(
+        () -> transactionRepository.findFrequentDescriptions(storeId, startOfDay.minusDays(30), endOfDay,
+            PageRequest.of(0, 5)));
+
+    // 4. Peak Hours (Last 30 Days)
+    // Native Queries return List<Object[]>
+    CompletableFuture<String> peakHoursFuture = reportingExecutor.supply(
+        () -> transactionRepository.findPeakHours(storeId, startOfDay.minusDays(30), endOfDay).stream()
+            .map(row -> String.format("{hour=%s, count=%s}", row[0], row[1]))
+            .toList().toString());
+
+    // 5. Busiest Days (Last 30 Days, rollup)
+    CompletableFuture<String> busyDaysFuture = reportingExecutor.supply(
+        () -> dailyStoreStatRepository.findBusyDays(storeId, now.toLocalDate().minusDays(30), now.toLocalDate())
+            .stream()
+            .map(row -> String.format("{dayOfWeek=%s, count=%s}", row[0], row[1]))
+            .toList().toString());
+
+    Object salesSummary = reportingExecutor.joinOrDefault(salesFuture, UNAVAILABLE, "sales summary");
+    Object topProducts = reportingExecutor.joinOrDefault(topProductsFuture, UNAVAILABLE, "top products");
+    Object frequentDescriptions = reportingExecutor.joinOrDefault(descriptionsFuture, UNAVAILABLE,
+        "frequent descriptions");
+    String peakHours = reportingExecutor.joinOrDefault(peakHoursFuture, UNAVAILABLE, "peak hours");
+    String busyDays = reportingExecutor.joinOrDefault(busyDaysFuture, UNAVAILABLE, "busy days");
+
+    return String.format(
+        """
+
+            REAL-TIME DATA CONTEXT (Refreshed every ~10m):
+            - Sales Today: %s
+            - Top Selling Products (Last 30 Days): %s
+            - Make sure to prioritize products that are available in stock.
+            - Frequent Customer Descriptions (Last 30 Days): %s
+            - Peak Hours (Last 30 Days): %s (Format: hour=0-23, count=transactions)
+            - Busiest Days (Last 30 Days): %s (Format: dayOfWeek=1(Mon)-7(Sun), count=transactions)
+
+            Use this data to answer user questions about sales, revenue, popular items, frequent customers, or busy times directly.
+            For "Peak Hours", convert 24h format to AM/PM (e.g. 13 -> 1 PM).
+            For "Busiest Days", convert numbers to Day Names (1=Monday, 7=Sunday).
+            If the user asks about "customers", refer to the "Frequent Customer Descriptions" data as likely customer names or notes.
+            """,
+        salesSummary, topProducts, frequentDescriptions, peakHours, busyDays);
   }
 }
@@ -0,0 +1,72 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.huzakerna.cajero.repository.CatalogVersionRepository;
+import com.huzakerna.cajero.util.AfterCommit;
+
+/**
+ * Per-store catalog versions behind the ETags of the catalog list endpoints.
+ * Catalog edits (rare next to sales) bump them inside their own transaction,
+ * on the connection they already hold. Stock is left out, so selling doesn't
+ * change the tags; list stock can be up to {@code max-age-ms} old on a 304,
+ * so the app takes stock from /api/sync/changes instead. Reads come from memory: this node's
+ * edits are seen once committed, other nodes' after the next background
+ * refresh ({@code refresh-ms}), so a 304 never waits on the database.
+ */
+@Component
+public class CatalogVersionCache {
+
+  private record Versions(long catalog, long categories) {
+  }
+
+  private final CatalogVersionRepository catalogVersionRepository;
+  private final LoadingCache<UUID, Versions> versions;
+  private final long maxAgeMs;
+
+  public CatalogVersionCache(CatalogVersionRepository catalogVersionRepository,
+      @Value("${catalog.version.max-size:20000}") long maxSize,
+      @Value("${catalog.version.refresh-ms:5000}") long refreshMs,
+      @Value("${catalog.version.max-age-ms:900000}") long maxAgeMs) {
+    this.catalogVersionRepository = catalogVersionRepository;
+    this.versions = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .refreshAfterWrite(Duration.ofMillis(refreshMs))
+        .expireAfterAccess(Duration.ofHours(1))
+        .build(id -> catalogVersionRepository.findById(id)
+            .map(v -> new Versions(v.getVersion(), v.getCategoryVersion()))
+            .orElse(new Versions(0, 0)));
+    this.maxAgeMs = maxAgeMs;
+  }
+
+  // Strong ETag of the store's product, variant and ingredient lists
+  public String etag(UUID storeId) {
+    return tag(storeId, "catalog", versions.get(storeId).catalog());
+  }
+
+  // Strong ETag of the store's category list
+  public String categoryEtag(UUID storeId) {
+    return tag(storeId, "categories", versions.get(storeId).categories());
+  }
+
+  // A product, variant or ingredient edit
+  public void bump(UUID storeId) {
+    catalogVersionRepository.incrementCatalog(storeId);
+    AfterCommit.run(() -> versions.invalidate(storeId));
+  }
+
+  public void bumpCategories(UUID storeId) {
+    catalogVersionRepository.incrementCategories(storeId);
+    AfterCommit.run(() -> versions.invalidate(storeId));
+  }
+
+  private String tag(UUID storeId, String list, long version) {
+    return "\"" + storeId + "-" + list + "-" + version + "-" + System.currentTimeMillis() / maxAgeMs + "\"";
+  }
+}
@@ -3,7 +3,6 @@ package com.huzakerna.cajero.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.huzakerna.cajero.model.Customer;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.util.ChangeTracker;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -19,13 +18,13 @@ import java.util.UUID;
 public class CustomerService {
 
     private final CustomerRepository repo;
-    private final StoreRepository sRepo;
+    private final StoreContextCache storeContexts;
     private final LogService logService;
 
     public Customer addCustomer(UUID storeId, Customer request) {
 
         // Validate store exists
-        if (!sRepo.existsById(storeId)) {
+        if (!storeContexts.exists(storeId)) {
             throw new IllegalArgumentException("Store not found");
         }
 
@@ -43,7 +42,7 @@ public class CustomerService {
     public Customer updateCustomer(UUID storeId, UUID id, Customer request) {
 
         // Validate store exists
-        if (!sRepo.existsById(storeId)) {
+        if (!storeContexts.exists(storeId)) {
             throw new IllegalArgumentException("Store not found");
         }
         // Find existing transaction
@@ -91,7 +90,7 @@ public class CustomerService {
     public Customer updateCustomer(UUID storeId, UUID id, BigDecimal addedPoints) {
 
         // Validate store exists
-        if (!sRepo.existsById(storeId)) {
+        if (!storeContexts.exists(storeId)) {
             throw new IllegalArgumentException("Store not found");
         }
         // Find existing transaction
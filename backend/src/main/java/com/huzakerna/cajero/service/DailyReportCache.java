@@ -0,0 +1,90 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.dto.DailyReportDTO;
+import com.huzakerna.cajero.util.AfterCommit;
+
+/**
+ * Per-day report entries for closed days (before today), which only change
+ * through late offline uploads, edits or expenses. Those writes evict exactly
+ * the dates they touch. Days without activity are cached as empty, so sparse
+ * history is not queried again. Today is never cached.
+ */
+@Component
+public class DailyReportCache {
+
+  private record Key(UUID storeId, LocalDate date) {
+  }
+
+  private final Cache<Key, Optional<DailyReportDTO>> cache;
+
+  // Bumped on every eviction; a day computed before a bump may be stale and is not cached
+  private final AtomicLong generation = new AtomicLong();
+
+  public DailyReportCache(
+      @Value("${report.day-cache.max-size:200000}") long maxSize,
+      @Value("${report.day-cache.ttl-hours:24}") long ttlHours) {
+    // The TTL only bounds staleness across instances; evictions are local
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofHours(ttlHours))
+        .build();
+  }
+
+  // Cached days of a store among the given dates; an empty Optional means "no activity"
+  public Map<LocalDate, Optional<DailyReportDTO>> getAll(UUID storeId, Collection<LocalDate> dates) {
+    Map<LocalDate, Optional<DailyReportDTO>> found = new HashMap<>();
+    for (LocalDate date : dates) {
+      Optional<DailyReportDTO> day = cache.getIfPresent(new Key(storeId, date));
+      if (day != null) {
+        found.put(date, day);
+      }
+    }
+    return found;
+  }
+
+  public long generation() {
+    return generation.get();
+  }
+
+  // Caches a closed day computed after reading generation(), unless something was evicted meanwhile
+  public void put(UUID storeId, LocalDate date, DailyReportDTO day, long readGeneration) {
+    if (isClosed(date) && generation.get() == readGeneration) {
+      cache.put(new Key(storeId, date), Optional.ofNullable(day));
+    }
+  }
+
+  public void evict(UUID storeId, LocalDate date) {
+    if (!isClosed(date)) {
+      return; // Today is never cached, so the checkout hot path costs nothing here
+    }
+    Key key = new Key(storeId, date);
+    AfterCommit.invalidate(() -> {
+      generation.incrementAndGet();
+      cache.invalidate(key);
+    });
+  }
+
+  public void evictRange(UUID storeId, LocalDate startDate, LocalDate endDate) {
+    generation.incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> key.storeId().equals(storeId)
+        && !key.date().isBefore(startDate) && !key.date().isAfter(endDate));
+  }
+
+  public static boolean isClosed(LocalDate date) {
+    return date.isBefore(LocalDate.now());
+  }
+}
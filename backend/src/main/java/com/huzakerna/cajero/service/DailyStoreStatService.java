@@ -0,0 +1,179 @@
+package com.huzakerna.cajero.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.huzakerna.cajero.model.Transaction;
+import com.huzakerna.cajero.model.TransactionProduct;
+import com.huzakerna.cajero.repository.DailyStoreStatRepository;
+import com.huzakerna.cajero.repository.TransactionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the {@code daily_store_stats} rollup. Transaction writes apply their
+ * contribution as deltas in the same database transaction, keyed by the day of
+ * the transaction's createdAt, so offline sales uploaded late land on the day
+ * they happened. {@link #rebuild} regenerates any range from raw transactions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyStoreStatService {
+
+  // Key value for transactions without a known creator
+  public static final UUID NO_CASHIER = new UUID(0L, 0L);
+
+  // Backfill / rebuild everything from this date
+  private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+  private final DailyStoreStatRepository repo;
+  private final TransactionRepository transactionRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final DailyReportCache dailyReportCache;
+
+  @Value("${report.rollup.rebuild-days:2}")
+  private int rebuildDays;
+
+  @Value("${report.rollup.backfill-on-startup:true}")
+  private boolean backfillOnStartup;
+
+  /** What one transaction adds to its rollup row. */
+  public record Contribution(UUID storeId, LocalDate date, String statusCode, String paymentMethodCode,
+      UUID cashierId, BigDecimal productQuantity, BigDecimal totalPrice, BigDecimal totalDiscount,
+      BigDecimal totalTax, BigDecimal totalCommission) {
+  }
+
+  // Current contribution of a transaction, null if it counts for nothing (deleted)
+  public Contribution snapshot(Transaction transaction) {
+    if (transaction.getDeletedAt() != null) {
+      return null;
+    }
+    BigDecimal quantity = BigDecimal.ZERO;
+    if (transaction.getTransactionProducts() != null) {
+      for (TransactionProduct tp : transaction.getTransactionProducts()) {
+        quantity = quantity.add(orZero(tp.getQuantity()));
+      }
+    }
+    LocalDateTime createdAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+    return new Contribution(
+        transaction.getStoreId(),
+        createdAt.toLocalDate(),
+        Objects.requireNonNullElse(transaction.getStatusCode(), ""),
+        Objects.requireNonNullElse(transaction.getPaymentMethodCode(), ""),
+        transaction.getCreatedBy() != null ? transaction.getCreatedBy().getId() : NO_CASHIER,
+        quantity,
+        orZero(transaction.getTotalPrice()),
+        orZero(transaction.getTotalDiscount()),
+        orZero(transaction.getTotalTax()),
+        orZero(transaction.getTotalCommission()));
+  }
+
+  public void add(Transaction transaction) {
+    apply(snapshot(transaction), 1);
+  }
+
+  // Moves a transaction's contribution from what it was to what it is now
+  public void replace(Contribution before, Transaction transaction) {
+    Contribution after = snapshot(transaction);
+    if (Objects.equals(before, after)) {
+      return;
+    }
+    apply(before, -1);
+    apply(after, 1);
+  }
+
+  private void apply(Contribution c, int sign) {
+    if (c == null) {
+      return;
+    }
+    repo.lockStoreShared(c.storeId());
+    repo.upsert(c.storeId(), c.date(), c.statusCode(), c.paymentMethodCode(), c.cashierId(),
+        sign,
+        signed(c.productQuantity(), sign),
+        signed(c.totalPrice(), sign),
+        signed(c.totalDiscount(), sign),
+        signed(c.totalTax(), sign),
+        signed(c.totalCommission(), sign));
+    // Late uploads and edits of a closed day invalidate just that day
+    dailyReportCache.evict(c.storeId(), c.date());
+  }
+
+  /**
+   * Regenerates the rollup of one store for the given days from raw transactions.
+   * Each day is its own transaction holding the store's rollup lock exclusively,
+   * so concurrent checkouts only ever wait for one day's worth of work.
+   */
+  public int rebuild(UUID storeId, LocalDate startDate, LocalDate endDate) {
+    if (startDate.isAfter(endDate)) {
+      throw new IllegalArgumentException("startDate must not be after endDate");
+    }
+    int rows = 0;
+    for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+      LocalDate date = day;
+      Integer dayRows = transactionTemplate.execute(status -> {
+        repo.lockStore(storeId);
+        repo.deleteRange(storeId, date, date);
+        return repo.rebuildRange(storeId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+      });
+      rows += dayRows != null ? dayRows : 0;
+    }
+    dailyReportCache.evictRange(storeId, startDate, endDate);
+    log.info("Rebuilt daily stats for store {} from {} to {}: {} rows", storeId, startDate, endDate, rows);
+    return rows;
+  }
+
+  // Heals drift for recently active stores (edits, clock skew, manual SQL)
+  @Scheduled(cron = "${report.rollup.rebuild-cron:0 30 3 * * *}")
+  public void rebuildRecent() {
+    LocalDate today = LocalDate.now();
+    LocalDate from = today.minusDays(rebuildDays);
+    rebuildStores(transactionRepository.findStoreIdsWithActivitySince(from.atStartOfDay()), from, today);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    if (!backfillOnStartup || repo.count() > 0) {
+      return;
+    }
+    log.info("Daily stats rollup is empty, backfilling from transactions");
+    rebuildStores(transactionRepository.findStoreIdsWithActivitySince(EPOCH.atStartOfDay()), null,
+        LocalDate.now().plusDays(1));
+  }
+
+  // A null start means from the store's first transaction
+  private void rebuildStores(List<UUID> storeIds, LocalDate from, LocalDate to) {
+    for (UUID storeId : storeIds) {
+      try {
+        LocalDate start = from;
+        if (start == null) {
+          LocalDateTime first = transactionRepository.findFirstCreatedAt(storeId);
+          start = first != null ? first.toLocalDate() : to;
+        }
+        rebuild(storeId, start, to);
+      } catch (RuntimeException e) {
+        log.error("Daily stats rebuild for store {} failed: {}", storeId, e.getMessage(), e);
+      }
+    }
+  }
+
+  private static BigDecimal signed(BigDecimal value, int sign) {
+    return sign < 0 ? value.negate() : value;
+  }
+
+  private static BigDecimal orZero(BigDecimal value) {
+    return value != null ? value : BigDecimal.ZERO;
+  }
+}
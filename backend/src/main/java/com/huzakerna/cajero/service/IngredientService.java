@@ -1,10 +1,12 @@
 package com.huzakerna.cajero.service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.huzakerna.cajero.dto.IngredientRequest;
 import com.huzakerna.cajero.dto.IngredientResponse;
@@ -12,7 +14,6 @@ import com.huzakerna.cajero.model.Ingredient;
 import com.huzakerna.cajero.model.MeasureUnit;
 import com.huzakerna.cajero.repository.IngredientRepository;
 import com.huzakerna.cajero.repository.MeasureUnitRepository;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.util.ChangeTracker;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -20,16 +21,18 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor // Lombok will auto-inject the dependency
+@Transactional // Catalog version bumps commit with the edit
 public class IngredientService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
+  private final CatalogVersionCache catalogVersions;
   private final IngredientRepository repo;
   private final MeasureUnitRepository muRepo;
   private final LogService logService;
 
   public IngredientResponse addIngredient(UUID storeId, IngredientRequest request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
     MeasureUnit measureUnit = muRepo.findById(request.getMeasureUnitCode())
@@ -45,6 +48,7 @@ public class IngredientService {
             .stock(request.getStock())
             .build());
 
+    catalogVersions.bump(storeId);
     return mapToResponse(ingredient);
   }
 
@@ -60,6 +64,13 @@ public class IngredientService {
         .toList();
   }
 
+  // Delta sync
+  public List<IngredientResponse> getByIds(UUID storeId, Collection<UUID> ids) {
+    return repo.findByStoreIdAndIdIn(storeId, ids).stream()
+        .map(this::mapToResponse)
+        .toList();
+  }
+
   public IngredientResponse getIngredientById(UUID id) {
     Ingredient ingredient = repo.findById(id)
         .orElseThrow(() -> new RuntimeException("Ingredient not found"));
@@ -68,7 +79,7 @@ public class IngredientService {
 
   public IngredientResponse updateIngredient(UUID storeId, UUID id, IngredientRequest request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -111,13 +122,14 @@ public class IngredientService {
           changeTracker.getChanges());
     }
 
+    catalogVersions.bump(storeId);
     return mapToResponse(ingredient);
   }
 
   // soft delete
   public IngredientResponse removeIngredient(UUID storeId, UUID id) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -138,6 +150,7 @@ public class IngredientService {
     // Log action
     logService.logAction(storeId, "ingredient", "deleted", ingredient.getId(), ingredient.getName(), null);
 
+    catalogVersions.bump(storeId);
     return mapToResponse(ingredient);
   }
 
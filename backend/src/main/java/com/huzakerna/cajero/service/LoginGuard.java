@@ -0,0 +1,168 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.exception.LoginThrottledException;
+import com.huzakerna.cajero.util.AtomicTokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps sign-ins from taking the node's CPU away from the sales API. Password
+ * hashing runs on a small dedicated pool with a bounded queue instead of on
+ * request threads. Before anything is queued, per-email and per-address token
+ * buckets turn away bursts, so credential stuffing costs no hashing at all.
+ * Refusals, and checks still queued when the timeout fires, fail with
+ * {@link LoginThrottledException}. Issuing the session after a successful
+ * check runs on a separate pool, so the hashing threads only hash.
+ */
+@Component
+public class LoginGuard {
+
+  static final String TOO_MANY = "Too many sign-in attempts. Please try again later.";
+  static final String BUSY = "Sign-in is busy right now. Please try again in a moment.";
+
+  private record Limit(long capacity, long perMinute) {
+
+    AtomicTokenBucket bucket() {
+      return new AtomicTokenBucket(capacity, perMinute / 60d);
+    }
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final ThreadPoolExecutor sessionExecutor;
+  private final long timeoutMs;
+  private final Limit emailLimit;
+  private final Limit addressLimit;
+  private final Cache<String, AtomicTokenBucket> emailBuckets;
+  private final Cache<String, AtomicTokenBucket> addressBuckets;
+
+  private final Timer hashTimer;
+  private final Counter emailRejections;
+  private final Counter addressRejections;
+  private final Counter busyRejections;
+  private final Counter timeoutRejections;
+
+  public LoginGuard(MeterRegistry meterRegistry,
+      @Value("${auth.login.threads:2}") int threads,
+      @Value("${auth.login.queue-capacity:32}") int queueCapacity,
+      @Value("${auth.login.timeout-ms:10000}") long timeoutMs,
+      @Value("${auth.login.session-threads:4}") int sessionThreads,
+      @Value("${auth.login.email.capacity:5}") long emailCapacity,
+      @Value("${auth.login.email.per-minute:5}") long emailPerMinute,
+      @Value("${auth.login.address.capacity:30}") long addressCapacity,
+      @Value("${auth.login.address.per-minute:60}") long addressPerMinute) {
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread thread = new Thread(r, "login-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          // Behind request threads when the CPU is contended
+          thread.setPriority(Thread.NORM_PRIORITY - 1);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+    // Fed no faster than the hashing pool completes, so its queue stays short
+    AtomicInteger sessionCounter = new AtomicInteger();
+    this.sessionExecutor = new ThreadPoolExecutor(sessionThreads, sessionThreads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread thread = new Thread(r, "login-session-" + sessionCounter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.sessionExecutor.allowCoreThreadTimeOut(true);
+    this.timeoutMs = timeoutMs;
+
+    this.emailLimit = new Limit(emailCapacity, emailPerMinute);
+    this.addressLimit = new Limit(addressCapacity, addressPerMinute);
+    this.emailBuckets = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofHours(1))
+        .build();
+    this.addressBuckets = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofHours(1))
+        .build();
+
+    this.hashTimer = meterRegistry.timer("auth.login.hash");
+    this.emailRejections = meterRegistry.counter("auth.login.rejections", "reason", "email");
+    this.addressRejections = meterRegistry.counter("auth.login.rejections", "reason", "address");
+    this.busyRejections = meterRegistry.counter("auth.login.rejections", "reason", "busy");
+    this.timeoutRejections = meterRegistry.counter("auth.login.rejections", "reason", "timeout");
+    Gauge.builder("auth.login.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+    Gauge.builder("auth.login.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+  }
+
+  /**
+   * Runs the credential check for a sign-in attempt on the login pool, then
+   * {@code signIn} on the session pool. Throws right away when the email or
+   * address is over its limit or the pool is full.
+   */
+  public <T, R> CompletableFuture<R> authenticate(String email, String address, Supplier<T> check,
+      Function<T, R> signIn) {
+    // The address first: a stuffing run spread over many emails stops here
+    long wait = address == null ? 0 : addressBuckets.get(address, key -> addressLimit.bucket()).tryConsume();
+    if (wait > 0) {
+      addressRejections.increment();
+      throw new LoginThrottledException(TOO_MANY, retryAfterSeconds(wait));
+    }
+    String key = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    wait = emailBuckets.get(key, k -> emailLimit.bucket()).tryConsume();
+    if (wait > 0) {
+      emailRejections.increment();
+      throw new LoginThrottledException(TOO_MANY, retryAfterSeconds(wait));
+    }
+
+    try {
+      return CompletableFuture
+          .supplyAsync(() -> hashTimer.record(check), executor)
+          .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+          .exceptionallyCompose(this::busyOnTimeout)
+          .thenApplyAsync(signIn, sessionExecutor);
+    } catch (RejectedExecutionException e) {
+      busyRejections.increment();
+      throw new LoginThrottledException(BUSY, 1);
+    }
+  }
+
+  private static long retryAfterSeconds(long waitNanos) {
+    return Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+  }
+
+  private <T> CompletableFuture<T> busyOnTimeout(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause instanceof TimeoutException) {
+      timeoutRejections.increment();
+      return CompletableFuture.failedFuture(
+          new LoginThrottledException(BUSY, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs))));
+    }
+    return CompletableFuture.failedFuture(error);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+    sessionExecutor.shutdownNow();
+  }
+}
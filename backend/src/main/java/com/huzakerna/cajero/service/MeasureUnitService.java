@@ -6,18 +6,17 @@ import com.huzakerna.cajero.model.MeasureUnit;
 import com.huzakerna.cajero.repository.MeasureUnitRepository;
 import lombok.RequiredArgsConstructor;
 
-import com.huzakerna.cajero.repository.StoreRepository;
 
 @Service
 @RequiredArgsConstructor // Lombok will auto-inject the dependency
 public class MeasureUnitService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
   private final MeasureUnitRepository repo;
 
   public MeasureUnit addMeasureUnit(MeasureUnit request) {
     // Validate store exists
-    if (request.getStoreId() != null && !sRepo.existsById(request.getStoreId())) {
+    if (request.getStoreId() != null && !storeContexts.exists(request.getStoreId())) {
       throw new IllegalArgumentException("Store not found");
     }
 
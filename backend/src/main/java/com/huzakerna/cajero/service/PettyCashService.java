@@ -3,7 +3,6 @@ package com.huzakerna.cajero.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.huzakerna.cajero.model.PettyCash;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.util.ChangeTracker;
 
 import com.huzakerna.cajero.repository.PettyCashRepository;
@@ -26,13 +25,14 @@ import lombok.extern.slf4j.Slf4j;
 public class PettyCashService {
 
     private final PettyCashRepository repo;
-    private final StoreRepository sRepo;
+    private final StoreContextCache storeContexts;
     private final LogService logService;
+    private final DailyReportCache dailyReportCache;
 
     public PettyCash addPettyCash(UUID storeId, PettyCash request) {
 
         // Validate store exists
-        if (!sRepo.existsById(storeId)) {
+        if (!storeContexts.exists(storeId)) {
             throw new IllegalArgumentException("Store not found");
         }
 
@@ -53,7 +53,7 @@ public class PettyCashService {
     public PettyCash updatePettyCash(UUID storeId, UUID id, PettyCash request) {
 
         // Validate store exists
-        if (!sRepo.existsById(storeId)) {
+        if (!storeContexts.exists(storeId)) {
             throw new IllegalArgumentException("Store not found");
         }
         // Find existing transaction
@@ -85,6 +85,10 @@ public class PettyCashService {
         pettyCash.setDescription(request.getDescription());
 
         pettyCash = repo.save(pettyCash);
+        if (pettyCash.getCreatedAt() != null) {
+            // Expenses of that day are part of the cached daily report
+            dailyReportCache.evict(storeId, pettyCash.getCreatedAt().toLocalDate());
+        }
 
         // Only add oldValues and newValues to log details if there were changes
         if (changeTracker.hasChanges()) {
@@ -5,28 +5,30 @@ import java.util.HashMap;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.huzakerna.cajero.model.ProductCategory;
 import com.huzakerna.cajero.repository.ProductCategoryRepository;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.util.ChangeTracker;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Transactional // Catalog version bumps commit with the edit
 public class ProductCategoryService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
+  private final CatalogVersionCache catalogVersions;
   private final ProductCategoryRepository repo;
   private final LogService logService;
 
   public ProductCategory addProductCategory(UUID storeId, ProductCategory request) {
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
-    return repo.save(
+    ProductCategory productCategory = repo.save(
         ProductCategory.builder()
             .code(request.getCode())
             .storeId(storeId)
@@ -34,11 +36,14 @@ public class ProductCategoryService {
             .description(request.getDescription())
             .build());
 
+    catalogVersions.bumpCategories(storeId);
+    return productCategory;
+
   }
 
   public ProductCategory updateProductCategory(UUID storeId, String code, ProductCategory request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -74,13 +79,14 @@ public class ProductCategoryService {
           changeTracker.getChanges());
     }
 
+    catalogVersions.bumpCategories(storeId);
     return (productCategory);
   }
 
   // soft delete
   public ProductCategory removeProductCategory(UUID storeId, String code) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -103,6 +109,7 @@ public class ProductCategoryService {
         UUID.nameUUIDFromBytes(productCategory.getCode().getBytes()), productCategory.getName(),
         null);
 
+    catalogVersions.bumpCategories(storeId);
     return (productCategory);
   }
 
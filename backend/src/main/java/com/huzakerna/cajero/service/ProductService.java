@@ -24,7 +24,6 @@ import com.huzakerna.cajero.repository.IngredientRepository;
 
 import com.huzakerna.cajero.repository.ProductIngredientRepository;
 import com.huzakerna.cajero.model.Ingredient;
-import com.huzakerna.cajero.repository.StoreRepository;
 
 import com.huzakerna.cajero.util.ChangeTracker;
 import jakarta.persistence.EntityNotFoundException;
@@ -36,16 +35,18 @@ import lombok.RequiredArgsConstructor;
 @Transactional
 public class ProductService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
+  private final CatalogVersionCache catalogVersions;
   private final ProductRepository repo;
   private final ProductIngredientRepository piRepo;
   private final IngredientRepository iRepo;
 
   private final LogService logService;
+  private final RecipePlanCache planCache;
 
   public ProductResponse addProduct(UUID storeId, ProductRequest request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -74,6 +75,7 @@ public class ProductService {
       }
     }
 
+    catalogVersions.bump(storeId);
     return mapToResponse(product);
   }
 
@@ -93,6 +95,7 @@ public class ProductService {
     productIngredient.setIngredient(ingredient);
 
     piRepo.save(productIngredient);
+    planCache.evict(product.getStoreId(), productId);
   }
 
   public void removeIngredientFromProduct(UUID productId, UUID ingredientId) {
@@ -100,6 +103,7 @@ public class ProductService {
     productIngredient.setId(new ProductIngredientId(productId, ingredientId));
 
     piRepo.delete(productIngredient);
+    planCache.evictProduct(productId);
   }
 
   public void removeIngredientFromProduct(UUID productId, List<UUID> ingredientIds) {
@@ -108,6 +112,7 @@ public class ProductService {
         .toList();
 
     piRepo.deleteAllByIdInBatch(productIngredients);
+    planCache.evictProduct(productId);
   }
 
   public ProductResponse getProductById(UUID id) {
@@ -127,6 +132,13 @@ public class ProductService {
     return mapToResponse(product);
   }
 
+  // Delta sync
+  public List<ProductResponse> getByIds(UUID storeId, Collection<UUID> ids) {
+    return repo.findWithIngredientsByStoreIdAndIdIn(storeId, ids).stream()
+        .map(this::mapToResponse)
+        .toList();
+  }
+
   public Page<ProductResponse> getProducts(UUID storeId,
       int page,
       int size,
@@ -160,7 +172,7 @@ public class ProductService {
 
   public ProductResponse updateProduct(UUID storeId, UUID id, ProductRequest request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -271,7 +283,10 @@ public class ProductService {
     product.setIngredients(newIngredientSet);
 
     // Save product (Hibernate handles changes)
+    // Recipe-only edits must still move updated_at, which delta sync follows
+    product.setUpdatedAt(LocalDateTime.now());
     product = repo.save(product);
+    planCache.evict(storeId, product.getId());
 
     // Only add oldValues and newValues to log details if there were changes
     if (changeTracker.hasChanges()) {
@@ -279,13 +294,14 @@ public class ProductService {
           changeTracker.getChanges());
     }
 
+    catalogVersions.bump(storeId);
     return mapToResponse(product);
   }
 
   // soft delete
   public ProductResponse removeProduct(UUID storeId, UUID id) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -306,12 +322,13 @@ public class ProductService {
     // Log action
     logService.logAction(storeId, "product", "deleted", product.getId(), product.getName(), null);
 
+    catalogVersions.bump(storeId);
     return mapToResponse(product);
   }
 
   public ProductResponse restoreProduct(UUID storeId, UUID id) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -334,6 +351,7 @@ public class ProductService {
     logDetails.put("productId", id);
     logService.logAction(storeId, "product", "restored", product.getId(), product.getName(), null);
 
+    catalogVersions.bump(storeId);
     return mapToResponse(product);
   }
 
@@ -0,0 +1,135 @@
+package com.huzakerna.cajero.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.huzakerna.cajero.dto.StockLine;
+import com.huzakerna.cajero.model.StockMovement;
+import com.huzakerna.cajero.model.StockMovementType;
+import com.huzakerna.cajero.service.RecipePlan.OptionPlan;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns sold lines into stock movements by expanding product and variant recipes.
+ * Shared by synchronous checkout and the stock outbox worker so both deduct
+ * exactly the same way. Recipes come from compiled {@link RecipePlan}s.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeExpander {
+
+  private final RecipePlanCache planCache;
+
+  /**
+   * Reads the option ids out of a line's selectedVariants JSON.
+   * Returns null when there is no variant selection array.
+   */
+  public List<UUID> selectedOptionIds(JsonNode selectedVariants) {
+    if (selectedVariants == null || !selectedVariants.isArray()) {
+      return null;
+    }
+    List<UUID> ids = new ArrayList<>();
+    for (JsonNode node : selectedVariants) {
+      if (!node.has("optionId")) {
+        log.warn("Variant node missing optionId: {}", node);
+        continue;
+      }
+      try {
+        ids.add(UUID.fromString(node.get("optionId").asText()));
+      } catch (IllegalArgumentException e) {
+        log.warn("Invalid variant optionId: {}", node);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Expands lines into stock movements (negated quantities, i.e. deductions).
+   */
+  public List<StockMovement> expand(UUID storeId, List<StockLine> lines, UUID transactionId,
+      LocalDateTime createdAt, StockMovementType type) {
+    Map<UUID, RecipePlan> plans = planCache.getPlans(storeId,
+        lines.stream().map(StockLine::getProductId).toList());
+
+    List<StockMovement> movements = new ArrayList<>();
+    for (StockLine line : lines) {
+      RecipePlan plan = plans.get(line.getProductId());
+      if (plan == null) {
+        throw new RuntimeException("Product not found");
+      }
+      expandLine(movements, plan, line, transactionId, createdAt, type);
+    }
+    return movements;
+  }
+
+  private void expandLine(List<StockMovement> movements, RecipePlan plan, StockLine line, UUID transactionId,
+      LocalDateTime createdAt, StockMovementType type) {
+    BigDecimal quantity = line.getQuantity();
+    UUID productId = plan.getProductId();
+
+    // 1. Base Product Ingredients
+    addIngredients(movements, plan.getIngredientIds(), plan.getQuantitiesPerUnit(), quantity, productId,
+        transactionId, createdAt, type);
+
+    // 2. Variant Ingredients
+    if (line.getOptionIds() != null) {
+      for (UUID optionId : line.getOptionIds()) {
+        OptionPlan option = plan.getOptions().get(optionId);
+        if (option == null) {
+          log.warn("Variant option {} not found for product {}", optionId, productId);
+          continue;
+        }
+
+        if (option.getIngredientIds().length > 0) {
+          // Priority 1: If mapped to ingredients, deduct ingredients (Cafe Case)
+          addIngredients(movements, option.getIngredientIds(), option.getQuantitiesPerUnit(), quantity, productId,
+              transactionId, createdAt, type);
+        } else if (option.isTracksStock()) {
+          // Priority 2: deduct option stock directly (Retail/Shoes Case),
+          // but only if stock is tracked (stock is not null)
+          movements.add(StockMovement.builder()
+              .variantId(optionId)
+              .productId(productId)
+              .transactionId(transactionId)
+              .type(type)
+              .quantity(quantity.negate())
+              .createdAt(createdAt)
+              .build());
+        }
+      }
+    } else if (plan.isTracksStock()) {
+      // 3. Product Stock (DEFAULT)
+      movements.add(StockMovement.builder()
+          .productId(productId)
+          .transactionId(transactionId)
+          .type(type)
+          .quantity(quantity.negate())
+          .createdAt(createdAt)
+          .build());
+    }
+  }
+
+  private void addIngredients(List<StockMovement> movements, UUID[] ingredientIds, BigDecimal[] quantitiesPerUnit,
+      BigDecimal quantity, UUID productId, UUID transactionId, LocalDateTime createdAt, StockMovementType type) {
+    for (int i = 0; i < ingredientIds.length; i++) {
+      movements.add(StockMovement.builder()
+          .ingredientId(ingredientIds[i])
+          .productId(productId)
+          .transactionId(transactionId)
+          .type(type)
+          .quantity(quantitiesPerUnit[i].multiply(quantity).negate())
+          .createdAt(createdAt)
+          .build());
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.huzakerna.cajero.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Compiled, immutable stock deduction plan for one product: its base recipe and
+ * the recipe of each of its variant options, as parallel (ingredientId,
+ * quantity per unit) arrays. Arrays are shared between threads and must not be
+ * modified.
+ */
+@Getter
+@AllArgsConstructor
+public final class RecipePlan {
+
+  private final UUID storeId;
+  private final UUID productId;
+
+  // Product stock is deducted when no variant is selected and stock is tracked
+  private final boolean tracksStock;
+
+  private final UUID[] ingredientIds;
+  private final BigDecimal[] quantitiesPerUnit;
+
+  private final Map<UUID, OptionPlan> options;
+
+  @Getter
+  @AllArgsConstructor
+  public static final class OptionPlan {
+
+    private final UUID optionId;
+
+    // Option stock is deducted when the option has no recipe and stock is tracked
+    private final boolean tracksStock;
+
+    private final UUID[] ingredientIds;
+    private final BigDecimal[] quantitiesPerUnit;
+  }
+}
@@ -0,0 +1,135 @@
+package com.huzakerna.cajero.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.model.Product;
+import com.huzakerna.cajero.model.ProductIngredient;
+import com.huzakerna.cajero.model.VariantOption;
+import com.huzakerna.cajero.model.VariantOptionIngredient;
+import com.huzakerna.cajero.repository.ProductRepository;
+import com.huzakerna.cajero.repository.VariantOptionRepository;
+import com.huzakerna.cajero.service.RecipePlan.OptionPlan;
+import com.huzakerna.cajero.util.AfterCommit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-store cache of compiled {@link RecipePlan}s, so checkout never walks the
+ * product / variant option / ingredient entity graph. Misses are compiled in
+ * bulk (two queries for any number of products). Recipe edits evict the
+ * product's plan; the TTL bounds staleness across application instances.
+ */
+@Component
+@Slf4j
+public class RecipePlanCache {
+
+  private record Key(UUID storeId, UUID productId) {
+  }
+
+  private final ProductRepository pRepo;
+  private final VariantOptionRepository voRepo;
+  private final Cache<Key, RecipePlan> cache;
+
+  public RecipePlanCache(ProductRepository pRepo, VariantOptionRepository voRepo,
+      @Value("${recipe.plan-cache.max-size:10000}") long maxSize,
+      @Value("${recipe.plan-cache.ttl-minutes:10}") long ttlMinutes) {
+    this.pRepo = pRepo;
+    this.voRepo = voRepo;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .build();
+  }
+
+  /**
+   * Plans for the given products of a store, keyed by product id.
+   * Products that don't exist or belong to another store are absent.
+   */
+  public Map<UUID, RecipePlan> getPlans(UUID storeId, Collection<UUID> productIds) {
+    List<Key> keys = new ArrayList<>();
+    for (UUID productId : new HashSet<>(productIds)) {
+      if (productId != null) {
+        keys.add(new Key(storeId, productId));
+      }
+    }
+
+    Map<UUID, RecipePlan> plans = new HashMap<>();
+    cache.getAll(keys, this::compile).forEach((key, plan) -> plans.put(key.productId(), plan));
+    return plans;
+  }
+
+  public void evict(UUID storeId, UUID productId) {
+    Key key = new Key(storeId, productId);
+    AfterCommit.invalidate(() -> cache.invalidate(key));
+  }
+
+  // For callers that only know the product id
+  public void evictProduct(UUID productId) {
+    AfterCommit.invalidate(() -> cache.asMap().keySet().removeIf(key -> key.productId().equals(productId)));
+  }
+
+  private Map<Key, RecipePlan> compile(Set<? extends Key> keys) {
+    Map<UUID, Key> byProduct = new HashMap<>();
+    for (Key key : keys) {
+      byProduct.put(key.productId(), key);
+    }
+
+    Map<UUID, Map<UUID, OptionPlan>> optionsByProduct = new HashMap<>();
+    for (VariantOption option : voRepo.findAllWithIngredientsByVariantProductIdIn(byProduct.keySet())) {
+      UUID productId = option.getVariant().getProductId();
+      optionsByProduct.computeIfAbsent(productId, id -> new HashMap<>())
+          .put(option.getId(), compileOption(option));
+    }
+
+    Map<Key, RecipePlan> plans = new HashMap<>();
+    for (Product product : pRepo.findAllWithIngredientsByIdIn(byProduct.keySet())) {
+      Key key = byProduct.get(product.getId());
+      if (!key.storeId().equals(product.getStoreId())) {
+        log.warn("Product {} does not belong to store {}", product.getId(), key.storeId());
+        continue;
+      }
+
+      List<ProductIngredient> recipe = product.getIngredients() != null
+          ? new ArrayList<>(product.getIngredients())
+          : List.of();
+      UUID[] ingredientIds = new UUID[recipe.size()];
+      BigDecimal[] quantities = new BigDecimal[recipe.size()];
+      for (int i = 0; i < recipe.size(); i++) {
+        ingredientIds[i] = recipe.get(i).getId().getIngredientId();
+        quantities[i] = recipe.get(i).getQuantityNeeded();
+      }
+
+      plans.put(key, new RecipePlan(key.storeId(), product.getId(), product.getStock() != null,
+          ingredientIds, quantities, Map.copyOf(optionsByProduct.getOrDefault(product.getId(), Map.of()))));
+    }
+    log.debug("Compiled {} recipe plans", plans.size());
+    return plans;
+  }
+
+  private OptionPlan compileOption(VariantOption option) {
+    List<VariantOptionIngredient> recipe = option.getIngredients() != null
+        ? new ArrayList<>(option.getIngredients())
+        : List.of();
+    UUID[] ingredientIds = new UUID[recipe.size()];
+    BigDecimal[] quantities = new BigDecimal[recipe.size()];
+    for (int i = 0; i < recipe.size(); i++) {
+      ingredientIds[i] = recipe.get(i).getId().getIngredientId();
+      quantities[i] = recipe.get(i).getQuantityNeeded();
+    }
+    return new OptionPlan(option.getId(), option.getStock() != null, ingredientIds, quantities);
+  }
+}
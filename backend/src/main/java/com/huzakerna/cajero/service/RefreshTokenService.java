@@ -1,60 +1,160 @@
 package com.huzakerna.cajero.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.huzakerna.cajero.exception.TokenRefreshException;
 import com.huzakerna.cajero.model.RefreshToken;
+import com.huzakerna.cajero.model.User;
 import com.huzakerna.cajero.repository.RefreshTokenRepository;
 import com.huzakerna.cajero.repository.UserRepository;
+import com.huzakerna.cajero.security.UserCache;
+import com.huzakerna.cajero.util.AfterCommit;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Refresh tokens are random, stored only as their SHA-256 and single use: each
+ * refresh deletes the token and issues a new one. Hashes known to be unknown
+ * or used are remembered in memory, so replays and guesses are turned away
+ * without a query; since tokens are random, such a hash never becomes valid.
+ * Expired rows are purged in the background in small batches.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenService {
-  @Value("${jwt.refresh-expiration-ms}")
-  private Long refreshTokenDurationMs;
+
+  private final Long refreshTokenDurationMs;
+  private final int purgeBatchSize;
 
   private final RefreshTokenRepository refreshTokenRepository;
   private final UserRepository userRepository;
+  private final UserCache userCache;
+  private final Cache<String, Boolean> rejected;
+
+  public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+      UserCache userCache,
+      @Value("${jwt.refresh-expiration-ms}") Long refreshTokenDurationMs,
+      @Value("${jwt.refresh-token.purge-batch-size:1000}") int purgeBatchSize,
+      @Value("${jwt.refresh-token.rejected-cache-size:100000}") long rejectedCacheSize) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.userRepository = userRepository;
+    this.userCache = userCache;
+    this.refreshTokenDurationMs = refreshTokenDurationMs;
+    this.purgeBatchSize = purgeBatchSize;
+    this.rejected = Caffeine.newBuilder()
+        .maximumSize(rejectedCacheSize)
+        .expireAfterWrite(Duration.ofMillis(Math.max(refreshTokenDurationMs, 0)))
+        .build();
+  }
 
   public Optional<RefreshToken> findByToken(String token) {
-    return refreshTokenRepository.findByToken(token);
+    if (token == null || token.isBlank()) {
+      return Optional.empty();
+    }
+    String hash = hash(token);
+    if (rejected.getIfPresent(hash) != null) {
+      return Optional.empty();
+    }
+    Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(hash)
+        // Rows issued before hashing hold the token itself until they expire
+        .or(() -> refreshTokenRepository.findByTokenHash(token));
+    if (found.isEmpty()) {
+      rejected.put(hash, Boolean.TRUE);
+    }
+    return found;
   }
 
   @Transactional
   public RefreshToken createRefreshToken(UUID userId) {
-    // Reuse user object
-    com.huzakerna.cajero.model.User user = userRepository.findById(userId).get();
+    return issue(userRepository.findById(userId).get());
+  }
+
+  /**
+   * Exchanges a refresh token for a new one of the same user. The old token
+   * stops working; using it again, or racing it, is refused.
+   */
+  @Transactional
+  public RefreshToken rotate(String token) {
+    RefreshToken current = findByToken(token)
+        .map(this::verifyExpiration)
+        .orElseThrow(() -> new TokenRefreshException(token, "Refresh token is not in database!"));
+    if (refreshTokenRepository.deleteTokenById(current.getId()) == 0) {
+      throw new TokenRefreshException(token, "Refresh token was already used");
+    }
+    // Only once the delete is committed; a rollback leaves the token valid
+    String usedHash = current.getTokenHash();
+    AfterCommit.run(() -> rejected.put(usedHash, Boolean.TRUE));
+    return issue(current.getUser());
+  }
 
-    // Ensure we remove any existing token for this user to keep 1 token per user
-    // policy
-    // We want to support multiple devices now, so we remove this deletion.
-    // refreshTokenRepository.deleteByUser(user);
+  private RefreshToken issue(User user) {
+    // Multiple devices are supported, so existing tokens of the user are kept
+    String token = UUID.randomUUID().toString();
 
     RefreshToken refreshToken = new RefreshToken();
-
     refreshToken.setUser(user);
     refreshToken.setExpiryDate(Instant.now().plusMillis(Math.max(refreshTokenDurationMs, 0)));
-    refreshToken.setToken(UUID.randomUUID().toString());
+    refreshToken.setTokenHash(hash(token));
 
-    return refreshTokenRepository.save(refreshToken);
+    RefreshToken saved = refreshTokenRepository.save(refreshToken);
+    saved.setToken(token);
+    return saved;
   }
 
   public RefreshToken verifyExpiration(RefreshToken token) {
     if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
       refreshTokenRepository.delete(token);
-      throw new TokenRefreshException(token.getToken(), "Refresh token was expired. Please make a new signin request");
+      rejected.put(token.getTokenHash(), Boolean.TRUE);
+      throw new TokenRefreshException("expired", "Refresh token was expired. Please make a new signin request");
     }
     return token;
   }
 
+  // Signs the user out everywhere: refresh tokens are deleted and issued access tokens revoked
   @Transactional
   public int deleteByUserId(UUID userId) {
-    return refreshTokenRepository.deleteByUser(userRepository.findById(userId).get());
+    int deleted = refreshTokenRepository.deleteByUser(userRepository.findById(userId).get());
+    userCache.revoke(userId);
+    return deleted;
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval-ms:3600000}",
+      initialDelayString = "${jwt.refresh-token.purge-initial-delay-ms:300000}")
+  public void purgeExpired() {
+    try {
+      Instant now = Instant.now();
+      int purged = 0;
+      int batch;
+      do {
+        batch = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+        purged += batch;
+      } while (batch >= purgeBatchSize);
+      if (purged > 0) {
+        log.info("Purged {} expired refresh tokens", purged);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Refresh token purge failed: {}", e.getMessage());
+    }
+  }
+
+  static String hash(String token) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 }
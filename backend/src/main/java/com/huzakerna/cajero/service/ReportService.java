@@ -4,18 +4,23 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.stereotype.Service;
 
 import com.huzakerna.cajero.dto.DailyReportDTO;
 import com.huzakerna.cajero.dto.ReportResponse;
 import com.huzakerna.cajero.dto.ReportSummaryDTO;
-import com.huzakerna.cajero.repository.TransactionRepository;
+import com.huzakerna.cajero.repository.DailyStoreStatRepository;
+import com.huzakerna.cajero.repository.PettyCashRepository;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,202 +28,176 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ReportService {
 
-  private final TransactionRepository transactionRepository;
-  private final com.huzakerna.cajero.repository.PettyCashRepository pettyCashRepository;
+  private final DailyStoreStatRepository dailyStoreStatRepository;
+  private final PettyCashRepository pettyCashRepository;
+  private final DailyReportCache dailyReportCache;
+  private final ReportingExecutor reportingExecutor;
 
   public ReportResponse getDailyReport(UUID storeId, LocalDate startDate, LocalDate endDate) {
-    var startDateTime = startDate.atStartOfDay();
-    var endDateTime = endDate.atTime(LocalTime.MAX);
-
-    // Global Stats for Summary (Reliability)
-    List<Object[]> transactions = transactionRepository.findTransactionDailyStats(storeId, startDateTime, endDateTime);
-    List<Object[]> products = transactionRepository.findProductDailyStats(storeId, startDateTime, endDateTime);
-    List<Object[]> refundStats = transactionRepository.findRefundStats(storeId, startDateTime, endDateTime);
-    List<Object[]> paymentStats = transactionRepository.findPaymentMethodStats(storeId, startDateTime, endDateTime);
-    List<Object[]> commissionStats = transactionRepository.findCommissionStats(storeId, startDateTime, endDateTime);
-
-    // Daily Detailed Stats
-    List<Object[]> refundStatsDaily = transactionRepository.findRefundStatsDaily(storeId, startDateTime, endDateTime);
-    List<Object[]> taxStatsDaily = transactionRepository.findTotalTaxDaily(storeId, startDateTime, endDateTime);
-    List<Object[]> paymentStatsDaily = transactionRepository.findPaymentMethodStatsDaily(storeId, startDateTime,
-        endDateTime);
-    List<Object[]> commissionStatsDaily = transactionRepository.findCommissionStatsDaily(storeId, startDateTime,
-        endDateTime);
-    List<Object[]> expenseStatsDaily = pettyCashRepository.findExpensesDaily(storeId, startDateTime, endDateTime);
-
-    Map<LocalDate, DailyReportDTO.DailyReportDTOBuilder> builderMap = new HashMap<>();
-    Map<LocalDate, List<ReportSummaryDTO.PaymentMethodStat>> paymentMethodsMap = new HashMap<>();
-    Map<LocalDate, List<ReportSummaryDTO.CommissionStat>> commissionsMap = new HashMap<>();
-
-    // Process Transactions (Basic)
-    for (Object[] row : transactions) {
-      LocalDate date = (LocalDate) row[0];
-      Long count = (Long) row[1];
-      BigDecimal revenue = (BigDecimal) row[2];
-      BigDecimal refund = (BigDecimal) row[3];
-      BigDecimal discount = (BigDecimal) row[4];
-
-      if (revenue == null)
-        revenue = BigDecimal.ZERO;
-      if (refund == null)
-        refund = BigDecimal.ZERO;
-      if (discount == null)
-        discount = BigDecimal.ZERO;
-
-      builderMap.computeIfAbsent(date, k -> DailyReportDTO.builder().date(k))
-          .totalTransaction(count)
-          .totalRevenue(revenue)
-          .totalRefund(refund)
-          .totalDiscount(discount)
-          .totalNetRevenue(revenue.subtract(refund));
+    // Closed days come from the cache; only missing days and today are queried
+    List<LocalDate> dates = startDate.datesUntil(endDate.plusDays(1)).toList();
+    Map<LocalDate, Optional<DailyReportDTO>> cached = dailyReportCache.getAll(storeId, dates);
+
+    Map<LocalDate, DailyReportDTO> days = new TreeMap<>(Comparator.reverseOrder());
+    cached.forEach((date, day) -> day.ifPresent(d -> days.put(date, d)));
+
+    List<LocalDate> missing = dates.stream().filter(date -> !cached.containsKey(date)).toList();
+    if (!missing.isEmpty()) {
+      long generation = dailyReportCache.generation();
+      LocalDate from = missing.get(0);
+      LocalDate to = missing.get(missing.size() - 1);
+      LoadedDays fresh = loadDays(storeId, from, to);
+
+      for (LocalDate date : missing) {
+        DailyReportDTO day = fresh.days().get(date);
+        if (fresh.complete()) {
+          dailyReportCache.put(storeId, date, day, generation);
+        }
+        if (day != null) {
+          days.put(date, day);
+        }
+      }
     }
 
-    // Process Products
-    for (Object[] row : products) {
-      LocalDate date = (LocalDate) row[0];
-      BigDecimal productSold = (BigDecimal) row[1];
-      if (productSold == null)
-        productSold = BigDecimal.ZERO;
-
-      builderMap.computeIfAbsent(date, k -> DailyReportDTO.builder().date(k))
-          .totalProductSold(productSold.longValue());
-    }
+    List<DailyReportDTO> dailyReports = new ArrayList<>(days.values());
+    return ReportResponse.builder()
+        .summary(summarize(dailyReports))
+        .dailyReports(dailyReports)
+        .build();
+  }
 
-    // Process Daily Refund Stats
-    for (Object[] row : refundStatsDaily) {
-      LocalDate date = (LocalDate) row[0];
-      Long count = (Long) row[1];
-      BigDecimal productCount = (BigDecimal) row[3];
+  // Days of a range; incomplete when the optional expenses query failed (not cached then)
+  private record LoadedDays(Map<LocalDate, DailyReportDTO> days, boolean complete) {
+  }
 
-      builderMap.computeIfAbsent(date, k -> DailyReportDTO.builder().date(k))
-          .totalRefundTransaction(count != null ? count : 0L)
-          .totalRefundProduct(productCount != null ? productCount.longValue() : 0L);
+  // Per-day entries for a range: the rollup and petty cash queries run in parallel
+  private LoadedDays loadDays(UUID storeId, LocalDate startDate, LocalDate endDate) {
+    CompletableFuture<List<Object[]>> rowsFuture = reportingExecutor
+        .supply(() -> dailyStoreStatRepository.findDailyReportRows(storeId, startDate, endDate));
+    CompletableFuture<List<Object[]>> expensesFuture = reportingExecutor
+        .supply(() -> pettyCashRepository.findExpensesDaily(storeId, startDate.atStartOfDay(),
+            endDate.atTime(LocalTime.MAX)));
+
+    List<Object[]> rows = reportingExecutor.join(rowsFuture);
+    List<Object[]> expenseStatsDaily = reportingExecutor.joinOrDefault(expensesFuture, null, "expenses");
+    boolean complete = expenseStatsDaily != null;
+    if (!complete) {
+      expenseStatsDaily = List.of();
     }
 
-    // Process Daily Tax
-    for (Object[] row : taxStatsDaily) {
-      LocalDate date = (LocalDate) row[0];
-      BigDecimal totalTax = (BigDecimal) row[1];
-      builderMap.computeIfAbsent(date, k -> DailyReportDTO.builder().date(k))
-          .totalTax(totalTax != null ? totalTax : BigDecimal.ZERO);
+    Map<LocalDate, DailyReportDTO> days = new HashMap<>();
+    for (Object[] row : rows) {
+      DailyReportDTO day = day(days, toDate(row[1]));
+      String label = (String) row[2];
+
+      switch ((String) row[0]) {
+        case "TOTAL" -> {
+          day.setTotalTransaction(toLong(row[3]));
+          day.setTotalProductSold(toLong(row[4]));
+          day.setTotalRevenue(toDecimal(row[5]));
+          day.setTotalRefund(toDecimal(row[6]));
+          day.setTotalDiscount(toDecimal(row[7]));
+          day.setTotalNetRevenue(toDecimal(row[5]).subtract(toDecimal(row[6])));
+          day.setTotalRefundTransaction(toLong(row[8]));
+          day.setTotalRefundProduct(toLong(row[9]));
+          day.setTotalTax(toDecimal(row[10]));
+        }
+        case "PAYMENT" -> day.getPaymentMethods()
+            .add(new ReportSummaryDTO.PaymentMethodStat(label, toDecimal(row[11])));
+        case "COMMISSION" -> day.getCommissions()
+            .add(new ReportSummaryDTO.CommissionStat(label, toDecimal(row[11])));
+        default -> throw new IllegalStateException("Unknown report row kind: " + row[0]);
+      }
     }
 
     // Process Daily Expenses
     for (Object[] row : expenseStatsDaily) {
-      LocalDate date = (LocalDate) row[0];
-      BigDecimal totalExpenses = (BigDecimal) row[1];
-      builderMap.computeIfAbsent(date, k -> DailyReportDTO.builder().date(k))
-          .totalExpenses(totalExpenses != null ? totalExpenses : BigDecimal.ZERO);
+      day(days, toDate(row[0])).setTotalExpenses(toDecimal(row[1]));
     }
+    return new LoadedDays(days, complete);
+  }
 
-    // Process Daily Payment Methods
-    for (Object[] row : paymentStatsDaily) {
-      LocalDate date = (LocalDate) row[0];
-      String method = (String) row[1];
-      BigDecimal amount = (BigDecimal) row[2];
-      paymentMethodsMap.computeIfAbsent(date, k -> new ArrayList<>())
-          .add(new ReportSummaryDTO.PaymentMethodStat(method, amount));
-    }
+  private ReportSummaryDTO summarize(List<DailyReportDTO> dailyReports) {
+    ReportSummaryDTO summary = ReportSummaryDTO.builder()
+        .totalRevenue(BigDecimal.ZERO)
+        .totalRefund(BigDecimal.ZERO)
+        .totalNetRevenue(BigDecimal.ZERO)
+        .totalDiscount(BigDecimal.ZERO)
+        .totalRefundTransaction(0L)
+        .totalRefundProduct(0L)
+        .totalTax(BigDecimal.ZERO)
+        .totalExpenses(BigDecimal.ZERO)
+        .build();
+    Map<String, BigDecimal> payments = new LinkedHashMap<>();
+    Map<String, BigDecimal> commissions = new LinkedHashMap<>();
 
-    // Process Daily Commissions
-    for (Object[] row : commissionStatsDaily) {
-      LocalDate date = (LocalDate) row[0];
-      String cashier = (String) row[1];
-      BigDecimal amount = (BigDecimal) row[2];
-      commissionsMap.computeIfAbsent(date, k -> new ArrayList<>())
-          .add(new ReportSummaryDTO.CommissionStat(cashier, amount));
+    for (DailyReportDTO day : dailyReports) {
+      summary.setTotalTransaction(summary.getTotalTransaction() + day.getTotalTransaction());
+      summary.setTotalProductSold(summary.getTotalProductSold() + day.getTotalProductSold());
+      summary.setTotalRevenue(summary.getTotalRevenue().add(day.getTotalRevenue()));
+      summary.setTotalRefund(summary.getTotalRefund().add(day.getTotalRefund()));
+      summary.setTotalNetRevenue(summary.getTotalNetRevenue().add(day.getTotalNetRevenue()));
+      summary.setTotalDiscount(summary.getTotalDiscount().add(day.getTotalDiscount()));
+      summary.setTotalRefundTransaction(summary.getTotalRefundTransaction() + day.getTotalRefundTransaction());
+      summary.setTotalRefundProduct(summary.getTotalRefundProduct() + day.getTotalRefundProduct());
+      summary.setTotalTax(summary.getTotalTax().add(day.getTotalTax()));
+      summary.setTotalExpenses(summary.getTotalExpenses().add(day.getTotalExpenses()));
+
+      // Keys may be null (no payment method), which LinkedHashMap accepts
+      day.getPaymentMethods().forEach(stat -> payments.merge(stat.getPaymentMethod(), stat.getTotalAmount(),
+          BigDecimal::add));
+      day.getCommissions().forEach(stat -> commissions.merge(stat.getCashierName(), stat.getTotalCommission(),
+          BigDecimal::add));
     }
 
-    // Build Daily List
-    List<DailyReportDTO> dailyReports = builderMap.values().stream()
-        .map(builder -> {
-          LocalDate date = builder.build().getDate();
-          return builder.paymentMethods(paymentMethodsMap.getOrDefault(date, new ArrayList<>()))
-              .commissions(commissionsMap.getOrDefault(date, new ArrayList<>()))
-              .build();
-        })
-        .sorted((a, b) -> b.getDate().compareTo(a.getDate()))
-        .collect(Collectors.toList());
-
-    // Calculate Summary Aggregates from Daily Reports
-    long totalTransaction = 0;
-    long totalProductSold = 0;
-    BigDecimal totalRevenue = BigDecimal.ZERO;
-    BigDecimal totalRefund = BigDecimal.ZERO;
-    BigDecimal totalDiscount = BigDecimal.ZERO;
-    BigDecimal totalNetRevenue = BigDecimal.ZERO;
-    Long totalRefundTransaction = 0L;
-    Long totalRefundProduct = 0L;
-    BigDecimal totalTax = BigDecimal.ZERO;
-    BigDecimal totalExpenses = BigDecimal.ZERO;
+    List<ReportSummaryDTO.PaymentMethodStat> paymentMethodStats = new ArrayList<>();
+    payments.forEach((method, amount) -> paymentMethodStats.add(new ReportSummaryDTO.PaymentMethodStat(method, amount)));
+    List<ReportSummaryDTO.CommissionStat> commissionStats = new ArrayList<>();
+    commissions.forEach((cashier, amount) -> commissionStats.add(new ReportSummaryDTO.CommissionStat(cashier, amount)));
 
-    for (DailyReportDTO day : dailyReports) {
-      totalTransaction += day.getTotalTransaction();
-      totalProductSold += day.getTotalProductSold();
-      totalRevenue = totalRevenue.add(day.getTotalRevenue() != null ? day.getTotalRevenue() : BigDecimal.ZERO);
-      totalRefund = totalRefund.add(day.getTotalRefund() != null ? day.getTotalRefund() : BigDecimal.ZERO);
-      totalNetRevenue = totalNetRevenue
-          .add(day.getTotalNetRevenue() != null ? day.getTotalNetRevenue() : BigDecimal.ZERO);
-      totalDiscount = totalDiscount
-          .add(day.getTotalDiscount() != null ? day.getTotalDiscount() : BigDecimal.ZERO);
-
-      if (day.getTotalRefundTransaction() != null)
-        totalRefundTransaction += day.getTotalRefundTransaction();
-      if (day.getTotalRefundProduct() != null)
-        totalRefundProduct += day.getTotalRefundProduct();
-      if (day.getTotalTax() != null)
-        totalTax = totalTax.add(day.getTotalTax());
-      if (day.getTotalExpenses() != null)
-        totalExpenses = totalExpenses.add(day.getTotalExpenses());
-    }
+    summary.setPaymentMethods(paymentMethodStats);
+    summary.setCommissions(commissionStats);
+    return summary;
+  }
 
-    // Process Global Refund Stats for Amount (Summary)
-    BigDecimal totalRefundAmount = BigDecimal.ZERO;
-    for (Object[] row : refundStats) {
-      BigDecimal amount = (BigDecimal) row[1];
-      if (amount != null)
-        totalRefundAmount = totalRefundAmount.add(amount);
-    }
-    // Note: totalRefund above from daily sum (sum of day.totalRefund) should match
-    // totalRefundAmount.
-    // day.totalRefund comes from transactions list (revenue/refund columns from
-    // main stats).
-    // Let's use the one from the loop for consistency.
+  private DailyReportDTO day(Map<LocalDate, DailyReportDTO> days, LocalDate date) {
+    return days.computeIfAbsent(date, k -> DailyReportDTO.builder()
+        .date(k)
+        .totalRevenue(BigDecimal.ZERO)
+        .totalRefund(BigDecimal.ZERO)
+        .totalNetRevenue(BigDecimal.ZERO)
+        .totalDiscount(BigDecimal.ZERO)
+        .totalRefundTransaction(0L)
+        .totalRefundProduct(0L)
+        .totalTax(BigDecimal.ZERO)
+        .totalExpenses(BigDecimal.ZERO)
+        .paymentMethods(new ArrayList<>())
+        .commissions(new ArrayList<>())
+        .build());
+  }
 
-    // Payment Methods Summary
-    List<ReportSummaryDTO.PaymentMethodStat> paymentMethodStats = new ArrayList<>();
-    for (Object[] row : paymentStats) {
-      String method = (String) row[0];
-      BigDecimal amount = (BigDecimal) row[1];
-      paymentMethodStats.add(new ReportSummaryDTO.PaymentMethodStat(method, amount));
+  // Native rows may carry java.sql.Date and any Number subtype depending on the driver
+  private static LocalDate toDate(Object value) {
+    if (value == null) {
+      return null;
     }
-
-    // Commissions Summary
-    List<ReportSummaryDTO.CommissionStat> commissionStatList = new ArrayList<>();
-    for (Object[] row : commissionStats) {
-      String cashier = (String) row[0];
-      BigDecimal amount = (BigDecimal) row[1];
-      commissionStatList.add(new ReportSummaryDTO.CommissionStat(cashier, amount));
+    if (value instanceof java.sql.Date sqlDate) {
+      return sqlDate.toLocalDate();
     }
+    return (LocalDate) value;
+  }
 
-    ReportSummaryDTO summary = ReportSummaryDTO.builder()
-        .totalTransaction(totalTransaction)
-        .totalProductSold(totalProductSold)
-        .totalRevenue(totalRevenue)
-        .totalRefund(totalRefund) // Use summed value
-        .totalNetRevenue(totalNetRevenue)
-        .totalDiscount(totalDiscount)
-        .totalRefundTransaction(totalRefundTransaction)
-        .totalRefundProduct(totalRefundProduct)
-        .totalTax(totalTax)
-        .totalExpenses(totalExpenses)
-        .paymentMethods(paymentMethodStats)
-        .commissions(commissionStatList)
-        .build();
+  private static long toLong(Object value) {
+    return value == null ? 0L : ((Number) value).longValue();
+  }
 
-    return ReportResponse.builder()
-        .summary(summary)
-        .dailyReports(dailyReports)
-        .build();
+  private static BigDecimal toDecimal(Object value) {
+    if (value == null) {
+      return BigDecimal.ZERO;
+    }
+    if (value instanceof BigDecimal decimal) {
+      return decimal;
+    }
+    return new BigDecimal(value.toString());
   }
 }
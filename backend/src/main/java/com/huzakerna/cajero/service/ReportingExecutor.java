@@ -0,0 +1,89 @@
+package com.huzakerna.cajero.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.huzakerna.cajero.config.RoutingDataSource;
+import com.huzakerna.cajero.config.RoutingDataSource.Route;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded pool for independent report and analytics queries. Tasks run on the
+ * reporting connection pool, so callers can fan out several queries and wait
+ * roughly as long as the slowest one. A full queue rejects work instead of
+ * piling it up, and every future carries a timeout.
+ */
+@Component
+@Slf4j
+public class ReportingExecutor {
+
+  private final ThreadPoolExecutor executor;
+  private final long timeoutMs;
+
+  public ReportingExecutor(
+      @Value("${reporting.executor.threads:5}") int threads,
+      @Value("${reporting.executor.queue-capacity:100}") int queueCapacity,
+      @Value("${reporting.executor.timeout-ms:30000}") long timeoutMs) {
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread thread = new Thread(r, "reporting-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+    this.timeoutMs = timeoutMs;
+  }
+
+  public <T> CompletableFuture<T> supply(Supplier<T> query) {
+    try {
+      return CompletableFuture
+          .supplyAsync(() -> RoutingDataSource.callWith(Route.REPORTING, query), executor)
+          .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      return CompletableFuture.failedFuture(new IllegalStateException("Reporting pool is busy", e));
+    }
+  }
+
+  // Result of a query the caller can't do without; failures propagate
+  public <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof TimeoutException) {
+        throw new IllegalStateException("Report query timed out", e.getCause());
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  // Result of an optional query; on failure logs and returns the fallback
+  public <T> T joinOrDefault(CompletableFuture<T> future, T fallback, String name) {
+    try {
+      return join(future);
+    } catch (RuntimeException e) {
+      log.warn("Report query {} failed: {}", name, e.getMessage());
+      return fallback;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
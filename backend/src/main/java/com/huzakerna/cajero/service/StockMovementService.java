@@ -9,8 +9,8 @@ import com.huzakerna.cajero.repository.IngredientRepository;
 import com.huzakerna.cajero.repository.ProductRepository;
 import org.springframework.transaction.annotation.Transactional;
 import com.huzakerna.cajero.model.StockMovement;
+import com.huzakerna.cajero.repository.StockDeltaRepository;
 import com.huzakerna.cajero.repository.StockMovementRepository;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.repository.VariantOptionRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -23,7 +23,12 @@ import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import com.huzakerna.cajero.dto.StockMovementResponse;
 import com.huzakerna.cajero.model.StockMovementType;
 
@@ -32,11 +37,12 @@ import com.huzakerna.cajero.model.StockMovementType;
 @Slf4j
 public class StockMovementService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
   private final StockMovementRepository repo;
   private final IngredientRepository ingredientRepo;
   private final ProductRepository productRepo;
   private final VariantOptionRepository variantOptionRepo;
+  private final StockDeltaRepository stockDeltaRepo;
 
   public Page<StockMovementResponse> getStockMovements(
       UUID storeId, int page, int size, String sortBy, String sortDir,
@@ -104,6 +110,7 @@ public class StockMovementService {
         .transactionId(sm.getTransactionId())
         .type(sm.getType())
         .quantity(sm.getQuantity())
+        .balance(sm.getBalance())
         .createdAt(sm.getCreatedAt())
         .updatedAt(sm.getUpdatedAt())
         .createdByName(sm.getCreatedByName())
@@ -115,17 +122,17 @@ public class StockMovementService {
   @Transactional
   public StockMovement addStockMovement(UUID storeId, StockMovement request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
     // Update Stock Logic
     if (request.getIngredientId() != null) {
-      updateIngredientStock(request);
+      request.setBalance(updateIngredientStock(request));
     } else if (request.getVariantId() != null) {
-      updateVariantStock(request);
+      request.setBalance(updateVariantStock(request));
     } else if (request.getProductId() != null) {
-      updateProductStock(request);
+      request.setBalance(updateProductStock(request));
       // return request; // Comment if product update not affect stock movement
     }
 
@@ -135,59 +142,169 @@ public class StockMovementService {
     return repo.save(request);
   }
 
-  private void updateIngredientStock(StockMovement movement) {
-    var ingredient = ingredientRepo.findById(movement.getIngredientId())
-        .orElseThrow(() -> new RuntimeException("Ingredient not found"));
+  /**
+   * Batched variant of {@link #addStockMovement} used by checkout.
+   * Deltas are merged per entity and applied with one grouped UPDATE per type,
+   * then the movements are inserted through a single JDBC batch.
+   */
+  @Transactional
+  public List<StockMovement> addStockMovements(UUID storeId, List<StockMovement> movements) {
+    if (movements.isEmpty()) {
+      return movements;
+    }
 
-    BigDecimal quantity = movement.getQuantity();
-    if (quantity == null)
-      return;
+    // Validate store exists
+    if (!storeContexts.exists(storeId)) {
+      throw new IllegalArgumentException("Store not found");
+    }
+
+    // Same precedence as addStockMovement: ingredient > variant > product.
+    // StockDeltaRepository locks the rows in id order before updating them.
+    Map<UUID, BigDecimal> ingredientDeltas = new HashMap<>();
+    Map<UUID, BigDecimal> variantDeltas = new HashMap<>();
+    Map<UUID, BigDecimal> productDeltas = new HashMap<>();
+
+    for (StockMovement movement : movements) {
+      movement.setStoreId(storeId);
+      if (movement.getQuantity() == null) {
+        continue;
+      }
+      if (movement.getIngredientId() != null) {
+        ingredientDeltas.merge(movement.getIngredientId(), movement.getQuantity(), BigDecimal::add);
+      } else if (movement.getVariantId() != null) {
+        variantDeltas.merge(movement.getVariantId(), movement.getQuantity(), BigDecimal::add);
+      } else if (movement.getProductId() != null) {
+        productDeltas.merge(movement.getProductId(), movement.getQuantity(), BigDecimal::add);
+      }
+    }
+
+    Map<UUID, BigDecimal> ingredientBalances = stockDeltaRepo.applyIngredientDeltas(ingredientDeltas);
+    Map<UUID, BigDecimal> variantBalances = stockDeltaRepo.applyVariantOptionDeltas(variantDeltas);
+    Map<UUID, BigDecimal> productBalances = stockDeltaRepo.applyProductDeltas(productDeltas);
+
+    // Ids without a returned balance are either untracked (stock NULL) or missing;
+    // only those need an existence check, which rolls the whole batch back
+    requireAllFound(untouched(ingredientDeltas, ingredientBalances), ingredientRepo::findAllById,
+        "Ingredient not found");
+    requireAllFound(untouched(variantDeltas, variantBalances), variantOptionRepo::findAllById,
+        "Variant Option not found");
+    requireAllFound(untouched(productDeltas, productBalances), productRepo::findAllById,
+        "Product not found");
+
+    recordRunningBalances(movements, ingredientBalances, variantBalances, productBalances);
+
+    log.info("Stock updated for store {}: {} ingredients, {} variant options, {} products", storeId,
+        ingredientDeltas.size(), variantDeltas.size(), productDeltas.size());
+
+    return repo.saveAll(movements);
+  }
+
+  // Walks movements backwards from each item's final stock so every row gets the
+  // balance right after it was applied
+  private void recordRunningBalances(List<StockMovement> movements, Map<UUID, BigDecimal> ingredientBalances,
+      Map<UUID, BigDecimal> variantBalances, Map<UUID, BigDecimal> productBalances) {
+    Map<UUID, BigDecimal> ingredientRunning = new HashMap<>(ingredientBalances);
+    Map<UUID, BigDecimal> variantRunning = new HashMap<>(variantBalances);
+    Map<UUID, BigDecimal> productRunning = new HashMap<>(productBalances);
+
+    for (int i = movements.size() - 1; i >= 0; i--) {
+      StockMovement movement = movements.get(i);
+      if (movement.getQuantity() == null) {
+        continue;
+      }
+      if (movement.getIngredientId() != null) {
+        movement.setBalance(rewind(ingredientRunning, movement.getIngredientId(), movement.getQuantity()));
+      } else if (movement.getVariantId() != null) {
+        movement.setBalance(rewind(variantRunning, movement.getVariantId(), movement.getQuantity()));
+      } else if (movement.getProductId() != null) {
+        movement.setBalance(rewind(productRunning, movement.getProductId(), movement.getQuantity()));
+      }
+    }
+  }
 
-    if (ingredient.getStock() != null) {
-      ingredient.setStock(ingredient.getStock().add(quantity)); // quantity will be - or + base on params
+  private BigDecimal rewind(Map<UUID, BigDecimal> running, UUID id, BigDecimal quantity) {
+    BigDecimal balance = running.get(id);
+    if (balance != null) {
+      running.put(id, balance.subtract(quantity));
     }
+    return balance;
+  }
+
+  private Set<UUID> untouched(Map<UUID, BigDecimal> deltas, Map<UUID, BigDecimal> balances) {
+    Set<UUID> ids = new HashSet<>(deltas.keySet());
+    ids.removeAll(balances.keySet());
+    return ids;
+  }
 
-    log.info("Stock updated for Ingredient {} ({}): {} {}", ingredient.getId(), ingredient.getName(),
-        movement.getType(), quantity);
-    ingredientRepo.save(ingredient);
+  private void requireAllFound(Set<UUID> ids, Function<Set<UUID>, List<?>> finder, String message) {
+    if (!ids.isEmpty() && finder.apply(ids).size() != ids.size()) {
+      throw new RuntimeException(message);
+    }
   }
 
-  private void updateProductStock(StockMovement movement) {
-    var product = productRepo.findById(movement.getProductId())
-        .orElseThrow(() -> new RuntimeException("Product not found"));
+  // Stock updates are single atomic statements (stock = stock + delta), so
+  // concurrent sales of the same item can't overwrite each other.
+  // Each returns the new stock, or null when the item doesn't track stock.
+
+  private BigDecimal updateIngredientStock(StockMovement movement) {
+    BigDecimal quantity = movement.getQuantity();
+    if (quantity == null) {
+      requireExists(ingredientRepo.existsById(movement.getIngredientId()), "Ingredient not found");
+      return null;
+    }
+
+    BigDecimal balance = ingredientRepo.addStock(movement.getIngredientId(), quantity);
+    if (balance == null) {
+      requireExists(ingredientRepo.existsById(movement.getIngredientId()), "Ingredient not found");
+    }
 
+    log.info("Stock updated for Ingredient {}: {} {} -> {}", movement.getIngredientId(), movement.getType(),
+        quantity, balance);
+    return balance;
+  }
+
+  private BigDecimal updateProductStock(StockMovement movement) {
     BigDecimal quantity = movement.getQuantity();
-    if (quantity == null)
-      return;
+    if (quantity == null) {
+      requireExists(productRepo.existsById(movement.getProductId()), "Product not found");
+      return null;
+    }
 
-    if (product.getStock() != null) {
-      product.setStock(product.getStock().add(quantity)); // quantity will be - or + base on params
+    BigDecimal balance = productRepo.addStock(movement.getProductId(), quantity);
+    if (balance == null) {
+      requireExists(productRepo.existsById(movement.getProductId()), "Product not found");
     }
 
-    log.info("Stock updated for Product {} ({}): {} {}", product.getId(), product.getName(), movement.getType(),
-        quantity);
-    productRepo.save(product);
+    log.info("Stock updated for Product {}: {} {} -> {}", movement.getProductId(), movement.getType(), quantity,
+        balance);
+    return balance;
   }
 
-  private void updateVariantStock(StockMovement movement) {
+  private BigDecimal updateVariantStock(StockMovement movement) {
     /**
      * TODO
      * need to adjust, since variant option could be more than one in one variant
      */
-    var option = variantOptionRepo.findById(movement.getVariantId())
-        .orElseThrow(() -> new RuntimeException("Variant Option not found"));
-
     BigDecimal quantity = movement.getQuantity();
-    if (quantity == null)
-      return;
+    if (quantity == null) {
+      requireExists(variantOptionRepo.existsById(movement.getVariantId()), "Variant Option not found");
+      return null;
+    }
 
-    if (option.getStock() != null) {
-      option.setStock(option.getStock().add(quantity)); // quantity will be - or + base on params
+    BigDecimal balance = variantOptionRepo.addStock(movement.getVariantId(), quantity);
+    if (balance == null) {
+      requireExists(variantOptionRepo.existsById(movement.getVariantId()), "Variant Option not found");
     }
 
-    log.info("Stock updated for Variant Option {} ({}): {} {}", option.getId(), option.getName(), movement.getType(),
-        quantity);
-    variantOptionRepo.save(option);
+    log.info("Stock updated for Variant Option {}: {} {} -> {}", movement.getVariantId(), movement.getType(),
+        quantity, balance);
+    return balance;
+  }
+
+  private void requireExists(boolean exists, String message) {
+    if (!exists) {
+      throw new RuntimeException(message);
+    }
   }
 
   @Transactional
@@ -0,0 +1,245 @@
+package com.huzakerna.cajero.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huzakerna.cajero.dto.StockLine;
+import com.huzakerna.cajero.model.StockMovement;
+import com.huzakerna.cajero.model.StockMovementType;
+import com.huzakerna.cajero.model.StockOutbox;
+import com.huzakerna.cajero.model.StockOutboxStatus;
+import com.huzakerna.cajero.repository.StockOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transactional outbox for stock deduction.
+ * Checkout writes one compact row per transaction; {@link StockOutboxWorker} drains
+ * rows per store, in id order, expanding recipes and applying stock in batches.
+ * A failing row blocks its store (to keep order) until it succeeds or runs out
+ * of attempts, after which it is parked as FAILED. Completed rows are purged
+ * after {@code stock.outbox.retention-days}.
+ */
+@Service
+@Slf4j
+public class StockOutboxService {
+
+  private static final TypeReference<List<StockLine>> LINES_TYPE = new TypeReference<>() {
+  };
+
+  private final StockOutboxRepository repo;
+  private final RecipeExpander recipeExpander;
+  private final StockMovementService stockMovementService;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  private final Counter processedCounter;
+  private final Counter retryCounter;
+  private final Counter deadCounter;
+
+  @Value("${stock.outbox.batch-size:100}")
+  private int batchSize;
+
+  @Value("${stock.outbox.max-attempts:10}")
+  private int maxAttempts;
+
+  @Value("${stock.outbox.backoff-ms:2000}")
+  private long backoffMs;
+
+  @Value("${stock.outbox.retention-days:7}")
+  private int retentionDays;
+
+  @Value("${stock.outbox.purge-batch-size:1000}")
+  private int purgeBatchSize;
+
+  public StockOutboxService(StockOutboxRepository repo, RecipeExpander recipeExpander,
+      StockMovementService stockMovementService, TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.repo = repo;
+    this.recipeExpander = recipeExpander;
+    this.stockMovementService = stockMovementService;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.processedCounter = meterRegistry.counter("stock.outbox.processed");
+    this.retryCounter = meterRegistry.counter("stock.outbox.retries");
+    this.deadCounter = meterRegistry.counter("stock.outbox.failed");
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  // Runs inside the checkout transaction, so the row commits (or not) with the sale
+  public void enqueue(UUID storeId, UUID transactionId, LocalDateTime movementAt, StockMovementType type,
+      List<StockLine> lines) {
+    repo.save(StockOutbox.builder()
+        .storeId(storeId)
+        .transactionId(transactionId)
+        .type(type)
+        .payload(objectMapper.valueToTree(lines))
+        .status(StockOutboxStatus.PENDING)
+        .movementAt(movementAt)
+        .nextAttemptAt(LocalDateTime.now())
+        .build());
+  }
+
+  /**
+   * Drains the head of one store's queue. The whole batch is applied in one
+   * transaction; if that fails, rows are retried one by one so the failing row
+   * can be isolated. Returns the number of rows completed.
+   */
+  public int drainStore(UUID storeId) {
+    try {
+      Integer done = transactionTemplate.execute(status -> {
+        if (!repo.tryLockStore(storeId)) {
+          return 0; // Another worker owns this store right now
+        }
+        List<StockOutbox> rows = repo.findPendingByStore(storeId, batchSize);
+        if (rows.isEmpty() || !isDue(rows.get(0))) {
+          return 0;
+        }
+        apply(storeId, rows);
+        return rows.size();
+      });
+      processedCounter.increment(done);
+      return done;
+    } catch (RuntimeException e) {
+      log.warn("Stock outbox batch for store {} failed, retrying rows one by one: {}", storeId, e.getMessage());
+      return drainOneByOne(storeId);
+    }
+  }
+
+  private int drainOneByOne(UUID storeId) {
+    int done = 0;
+    for (int i = 0; i < batchSize; i++) {
+      // The row this attempt locked and tried; once rolled back, another worker may take the head
+      AtomicReference<Long> attempted = new AtomicReference<>();
+      String error = null;
+      try {
+        Boolean applied = transactionTemplate.execute(status -> {
+          if (!repo.tryLockStore(storeId)) {
+            return false;
+          }
+          List<StockOutbox> head = repo.findPendingByStore(storeId, 1);
+          if (head.isEmpty() || !isDue(head.get(0))) {
+            return false;
+          }
+          attempted.set(head.get(0).getId());
+          apply(storeId, head);
+          return true;
+        });
+        if (!applied) {
+          break;
+        }
+        processedCounter.increment();
+        done++;
+        continue;
+      } catch (RuntimeException e) {
+        error = e.getMessage();
+      }
+
+      Long failedId = attempted.get();
+      if (failedId == null || !recordFailure(storeId, failedId, error)) {
+        break; // Head is waiting for a retry, later rows must wait too
+      }
+    }
+    return done;
+  }
+
+  private void apply(UUID storeId, List<StockOutbox> rows) {
+    // Recipes come from the plan cache, so expanding row by row costs no queries once warm
+    List<StockMovement> movements = new ArrayList<>();
+    for (StockOutbox row : rows) {
+      List<StockLine> lines = objectMapper.convertValue(row.getPayload(), LINES_TYPE);
+      movements.addAll(recipeExpander.expand(storeId, lines, row.getTransactionId(), row.getMovementAt(),
+          row.getType()));
+    }
+    stockMovementService.addStockMovements(storeId, movements);
+
+    LocalDateTime now = LocalDateTime.now();
+    for (StockOutbox row : rows) {
+      row.setStatus(StockOutboxStatus.DONE);
+      row.setAttempts(row.getAttempts() + 1);
+      row.setProcessedAt(now);
+    }
+    repo.saveAll(rows);
+  }
+
+  // Returns true when the row was parked as FAILED and the queue can move on
+  private boolean recordFailure(UUID storeId, Long id, String error) {
+    Boolean parked = transactionTemplate.execute(status -> {
+      // Nothing is recorded while another worker holds the store, or once the row moved on
+      if (!repo.tryLockStore(storeId)) {
+        return null;
+      }
+      StockOutbox row = repo.findById(id).orElse(null);
+      if (row == null || row.getStatus() != StockOutboxStatus.PENDING) {
+        return null;
+      }
+      int attempts = row.getAttempts() + 1;
+      row.setAttempts(attempts);
+      row.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+      if (attempts >= maxAttempts) {
+        row.setStatus(StockOutboxStatus.FAILED);
+        row.setProcessedAt(LocalDateTime.now());
+        log.error("Stock outbox row {} for store {} failed after {} attempts: {}", id, row.getStoreId(), attempts,
+            error);
+        repo.save(row);
+        return true;
+      }
+
+      // Exponential backoff, capped at 64x the base delay
+      long delay = backoffMs << Math.min(attempts - 1, 6);
+      row.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+      log.warn("Stock outbox row {} attempt {} failed, retrying in {} ms: {}", id, attempts, delay, error);
+      repo.save(row);
+      return false;
+    });
+
+    if (parked == null) {
+      return false;
+    }
+    if (parked) {
+      deadCounter.increment();
+    } else {
+      retryCounter.increment();
+    }
+    return parked;
+  }
+
+  @Scheduled(fixedDelayString = "${stock.outbox.purge-interval-ms:3600000}",
+      initialDelayString = "${stock.outbox.purge-initial-delay-ms:300000}")
+  public void purgeDone() {
+    try {
+      LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+      int purged = 0;
+      int batch;
+      do {
+        batch = repo.deleteDoneBatch(before, purgeBatchSize);
+        purged += batch;
+      } while (batch >= purgeBatchSize);
+      if (purged > 0) {
+        log.info("Purged {} completed stock outbox rows", purged);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Stock outbox purge failed: {}", e.getMessage());
+    }
+  }
+
+  private boolean isDue(StockOutbox row) {
+    return !row.getNextAttemptAt().isAfter(LocalDateTime.now());
+  }
+}
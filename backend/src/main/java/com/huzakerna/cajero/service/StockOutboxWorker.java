@@ -0,0 +1,120 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.huzakerna.cajero.repository.StockOutboxRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the stock outbox. Each store is pinned to one single-threaded lane
+ * (store hash modulo lane count) so its rows are applied in order, while
+ * different stores progress in parallel. A Postgres advisory lock keeps the
+ * same guarantee across application instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockOutboxWorker {
+
+  private final StockOutboxRepository repo;
+  private final StockOutboxService outboxService;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${stock.outbox.workers:4}")
+  private int workers;
+
+  @Value("${stock.outbox.max-stores-per-poll:100}")
+  private int maxStoresPerPoll;
+
+  private ExecutorService[] lanes;
+  private final Set<UUID> queuedStores = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicLong lagSeconds = new AtomicLong();
+
+  @PostConstruct
+  void init() {
+    lanes = new ExecutorService[workers];
+    for (int i = 0; i < workers; i++) {
+      int lane = i;
+      lanes[i] = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "stock-outbox-" + lane);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    meterRegistry.gauge("stock.outbox.pending", pending);
+    meterRegistry.gauge("stock.outbox.lag.seconds", lagSeconds);
+  }
+
+  @Scheduled(fixedDelayString = "${stock.outbox.poll-interval-ms:1000}")
+  public void poll() {
+    List<UUID> storeIds;
+    try {
+      storeIds = repo.findDueStoreIds(LocalDateTime.now(), maxStoresPerPoll);
+    } catch (RuntimeException e) {
+      log.warn("Stock outbox poll failed: {}", e.getMessage());
+      return;
+    }
+
+    for (UUID storeId : storeIds) {
+      // Skip stores that already have a drain queued or running
+      if (!queuedStores.add(storeId)) {
+        continue;
+      }
+      lanes[Math.floorMod(storeId.hashCode(), lanes.length)].execute(() -> drain(storeId));
+    }
+  }
+
+  private void drain(UUID storeId) {
+    try {
+      // Keep going while full batches come back
+      while (outboxService.drainStore(storeId) >= outboxService.getBatchSize()) {
+        log.debug("Stock outbox: more rows pending for store {}", storeId);
+      }
+    } catch (RuntimeException e) {
+      log.error("Stock outbox drain for store {} failed: {}", storeId, e.getMessage(), e);
+    } finally {
+      queuedStores.remove(storeId);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${stock.outbox.metrics-interval-ms:15000}")
+  public void refreshMetrics() {
+    try {
+      pending.set(repo.countPending());
+      LocalDateTime oldest = repo.findOldestPendingCreatedAt();
+      lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds()));
+    } catch (RuntimeException e) {
+      log.warn("Stock outbox metrics refresh failed: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+    for (ExecutorService lane : lanes) {
+      lane.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.huzakerna.cajero.repository.StoreRepository;
+import com.huzakerna.cajero.util.AfterCommit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * What service writes need to know about a store (that it exists, its discount
+ * cap and subscription), cached per store and resolved at most once per
+ * request, so the "store exists" checks a checkout repeats cost nothing.
+ * Store updates evict the entry. Unknown stores are remembered only briefly,
+ * so a store created on another node is seen soon.
+ */
+@Component
+public class StoreContextCache {
+
+  private static final String REQUEST_ATTRIBUTE = StoreContextCache.class.getName() + ".";
+
+  public record StoreContext(UUID id, Double maxDiscount, String subscriptionStatus,
+      LocalDateTime subscriptionExpiresAt) {
+  }
+
+  private final StoreRepository storeRepository;
+  private final Cache<UUID, Optional<StoreContext>> contexts;
+
+  public StoreContextCache(StoreRepository storeRepository, MeterRegistry meterRegistry,
+      @Value("${store.context.max-size:20000}") long maxSize,
+      @Value("${store.context.ttl-ms:300000}") long ttlMs,
+      @Value("${store.context.missing-ttl-ms:10000}") long missingTtlMs) {
+    this.storeRepository = storeRepository;
+    long ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+    long missingTtlNanos = Duration.ofMillis(missingTtlMs).toNanos();
+    this.contexts = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<UUID, Optional<StoreContext>>() {
+          @Override
+          public long expireAfterCreate(UUID key, Optional<StoreContext> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : missingTtlNanos;
+          }
+
+          @Override
+          public long expireAfterUpdate(UUID key, Optional<StoreContext> value, long currentTime,
+              long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(UUID key, Optional<StoreContext> value, long currentTime,
+              long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, contexts, "store.context");
+  }
+
+  @SuppressWarnings("unchecked")
+  public Optional<StoreContext> find(UUID storeId) {
+    if (storeId == null) {
+      return Optional.empty();
+    }
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    String attribute = REQUEST_ATTRIBUTE + storeId;
+    if (request != null) {
+      Object resolved = request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+      if (resolved != null) {
+        return (Optional<StoreContext>) resolved;
+      }
+    }
+    Optional<StoreContext> context = contexts.get(storeId, id -> storeRepository.findContextById(id)
+        .map(view -> new StoreContext(view.getId(), view.getMaxDiscount(), view.getSubscriptionStatus(),
+            view.getSubscriptionExpiresAt())));
+    if (request != null) {
+      request.setAttribute(attribute, context, RequestAttributes.SCOPE_REQUEST);
+    }
+    return context;
+  }
+
+  public boolean exists(UUID storeId) {
+    return find(storeId).isPresent();
+  }
+
+  public void evict(UUID storeId) {
+    if (storeId == null) {
+      return;
+    }
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request != null) {
+      request.removeAttribute(REQUEST_ATTRIBUTE + storeId, RequestAttributes.SCOPE_REQUEST);
+    }
+    AfterCommit.invalidate(() -> contexts.invalidate(storeId));
+  }
+}
@@ -0,0 +1,121 @@
+package com.huzakerna.cajero.service;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.huzakerna.cajero.util.AtomicTokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-store and per-user request budgets for the API, separate for reads,
+ * writes and reports, so one device stuck in a retry loop can't take the
+ * connection pool from the rest of its store, or a store from everyone else.
+ * Buckets are lock-free and live in concurrent maps keyed by id; buckets back
+ * at full capacity are dropped in the background.
+ */
+@Component
+public class StoreRateLimiter {
+
+  public enum Budget {
+    READ, WRITE, REPORT
+  }
+
+  private record Limit(long capacity, double perSecond) {
+  }
+
+  private final Limit[] storeLimits;
+  private final Limit[] userLimits;
+  private final ConcurrentHashMap<UUID, AtomicTokenBucket[]> stores = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<UUID, AtomicTokenBucket[]> users = new ConcurrentHashMap<>();
+  private final Counter[] storeRejections;
+  private final Counter[] userRejections;
+
+  public StoreRateLimiter(MeterRegistry meterRegistry,
+      @Value("${ratelimit.store.read.capacity:300}") long storeReadCapacity,
+      @Value("${ratelimit.store.read.per-second:50}") double storeReadPerSecond,
+      @Value("${ratelimit.store.write.capacity:120}") long storeWriteCapacity,
+      @Value("${ratelimit.store.write.per-second:20}") double storeWritePerSecond,
+      @Value("${ratelimit.store.report.capacity:30}") long storeReportCapacity,
+      @Value("${ratelimit.store.report.per-second:2}") double storeReportPerSecond,
+      @Value("${ratelimit.user.read.capacity:100}") long userReadCapacity,
+      @Value("${ratelimit.user.read.per-second:20}") double userReadPerSecond,
+      @Value("${ratelimit.user.write.capacity:40}") long userWriteCapacity,
+      @Value("${ratelimit.user.write.per-second:8}") double userWritePerSecond,
+      @Value("${ratelimit.user.report.capacity:10}") long userReportCapacity,
+      @Value("${ratelimit.user.report.per-second:1}") double userReportPerSecond) {
+    this.storeLimits = new Limit[] {
+        new Limit(storeReadCapacity, storeReadPerSecond),
+        new Limit(storeWriteCapacity, storeWritePerSecond),
+        new Limit(storeReportCapacity, storeReportPerSecond) };
+    this.userLimits = new Limit[] {
+        new Limit(userReadCapacity, userReadPerSecond),
+        new Limit(userWriteCapacity, userWritePerSecond),
+        new Limit(userReportCapacity, userReportPerSecond) };
+
+    Budget[] budgets = Budget.values();
+    this.storeRejections = new Counter[budgets.length];
+    this.userRejections = new Counter[budgets.length];
+    for (Budget budget : budgets) {
+      String name = budget.name().toLowerCase();
+      storeRejections[budget.ordinal()] = meterRegistry.counter("ratelimit.rejections", "scope", "store", "budget", name);
+      userRejections[budget.ordinal()] = meterRegistry.counter("ratelimit.rejections", "scope", "user", "budget", name);
+    }
+  }
+
+  /**
+   * Takes one request from the user's and then the store's budget. Returns 0
+   * when allowed, otherwise the nanoseconds until the request would be.
+   */
+  public long tryAcquire(UUID storeId, UUID userId, Budget budget) {
+    int index = budget.ordinal();
+    if (userId != null) {
+      long wait = buckets(users, userId, userLimits)[index].tryConsume();
+      if (wait > 0) {
+        userRejections[index].increment();
+        return wait;
+      }
+    }
+    long wait = buckets(stores, storeId, storeLimits)[index].tryConsume();
+    if (wait > 0) {
+      storeRejections[index].increment();
+    }
+    return wait;
+  }
+
+  @Scheduled(fixedDelayString = "${ratelimit.cleanup-interval-ms:60000}")
+  public void dropIdle() {
+    stores.values().removeIf(StoreRateLimiter::idle);
+    users.values().removeIf(StoreRateLimiter::idle);
+  }
+
+  private static AtomicTokenBucket[] buckets(ConcurrentHashMap<UUID, AtomicTokenBucket[]> map, UUID id,
+      Limit[] limits) {
+    // Plain get first: the common case never locks a bin
+    AtomicTokenBucket[] buckets = map.get(id);
+    if (buckets == null) {
+      buckets = map.computeIfAbsent(id, key -> {
+        AtomicTokenBucket[] created = new AtomicTokenBucket[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+          created[i] = new AtomicTokenBucket(limits[i].capacity(), limits[i].perSecond());
+        }
+        return created;
+      });
+    }
+    return buckets;
+  }
+
+  private static boolean idle(AtomicTokenBucket[] buckets) {
+    for (AtomicTokenBucket bucket : buckets) {
+      if (!bucket.isIdle()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -17,12 +17,15 @@ public class StoreService {
   private final StoreRepository storeRepository;
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
+  private final StoreContextCache storeContexts;
 
   @Transactional
   public Store createStoreWithUser(CreateStoreWithUserRequest request) {
     // 1. Save Store
     Store store = request.getStore();
     Store savedStore = storeRepository.save(store);
+    // A recent "not found" for this id must not linger
+    storeContexts.evict(savedStore.getId());
 
     // 2. Prepare User (Owner)
     User user = request.getUser();
@@ -35,4 +38,11 @@ public class StoreService {
 
     return savedStore;
   }
+
+  @Transactional
+  public Store update(Store store) {
+    Store saved = storeRepository.save(store);
+    storeContexts.evict(saved.getId());
+    return saved;
+  }
 }
@@ -0,0 +1,113 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.huzakerna.cajero.dto.SyncChangesResponse;
+import com.huzakerna.cajero.repository.ProductCategoryRepository;
+import com.huzakerna.cajero.repository.SyncChangeRepository;
+import com.huzakerna.cajero.repository.SyncChangeRepository.Change;
+import com.huzakerna.cajero.util.SyncCursor;
+
+/**
+ * Delta sync for devices: everything of a store that changed after a cursor,
+ * a page at a time. The cursor follows updated_at, which the database stamps
+ * with its transaction start time (entity saves and native stock updates
+ * alike), so rows show up only after commit with a stamp up to one transaction
+ * length old. Rows younger than {@code settle-ms} are held back, which keeps
+ * anything from appearing behind the cursor as long as no write transaction on
+ * synced tables runs longer than that. Deleted rows are sent as tombstones.
+ */
+@Service
+public class SyncService {
+
+  private final StoreContextCache storeContexts;
+  private final SyncChangeRepository syncChangeRepository;
+  private final ProductService productService;
+  private final IngredientService ingredientService;
+  private final VariantService variantService;
+  private final ProductCategoryRepository productCategoryRepository;
+  private final TransactionService transactionService;
+  private final int pageSize;
+  private final int maxPageSize;
+  private final Duration settle;
+  private final int transactionHistoryDays;
+
+  public SyncService(StoreContextCache storeContexts, SyncChangeRepository syncChangeRepository,
+      ProductService productService, IngredientService ingredientService, VariantService variantService,
+      ProductCategoryRepository productCategoryRepository, TransactionService transactionService,
+      @Value("${sync.page-size:200}") int pageSize,
+      @Value("${sync.max-page-size:1000}") int maxPageSize,
+      @Value("${sync.settle-ms:30000}") long settleMs,
+      @Value("${sync.transactions.history-days:30}") int transactionHistoryDays) {
+    this.storeContexts = storeContexts;
+    this.syncChangeRepository = syncChangeRepository;
+    this.productService = productService;
+    this.ingredientService = ingredientService;
+    this.variantService = variantService;
+    this.productCategoryRepository = productCategoryRepository;
+    this.transactionService = transactionService;
+    this.pageSize = pageSize;
+    this.maxPageSize = maxPageSize;
+    this.settle = Duration.ofMillis(settleMs);
+    this.transactionHistoryDays = transactionHistoryDays;
+  }
+
+  @Transactional(readOnly = true)
+  public SyncChangesResponse changes(UUID storeId, String since, Integer limit) {
+    if (!storeContexts.exists(storeId)) {
+      throw new IllegalArgumentException("Store not found");
+    }
+    SyncCursor after = SyncCursor.decode(since);
+    int size = limit == null ? pageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+    LocalDateTime now = LocalDateTime.now();
+    // A new device gets recent sales only, not the whole history
+    List<Change> changes = syncChangeRepository.findChanges(storeId, after, settle,
+        now.minusDays(transactionHistoryDays), size + 1);
+    boolean hasMore = changes.size() > size;
+    if (hasMore) {
+      changes = changes.subList(0, size);
+    }
+
+    Map<String, List<String>> live = new HashMap<>();
+    Map<String, List<String>> deleted = new HashMap<>();
+    for (Change change : changes) {
+      (change.deleted() ? deleted : live).computeIfAbsent(change.kind(), k -> new ArrayList<>()).add(change.key());
+    }
+
+    Change last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+    SyncCursor next = last == null ? after : new SyncCursor(last.updatedAt(), last.kind(), last.key());
+
+    return SyncChangesResponse.builder()
+        .products(load(ids(live, SyncChangeRepository.PRODUCT), ids -> productService.getByIds(storeId, ids)))
+        .ingredients(load(ids(live, SyncChangeRepository.INGREDIENT), ids -> ingredientService.getByIds(storeId, ids)))
+        .variants(load(ids(live, SyncChangeRepository.VARIANT), ids -> variantService.getByIds(storeId, ids)))
+        .categories(load(live.getOrDefault(SyncChangeRepository.CATEGORY, List.of()),
+            codes -> productCategoryRepository.findByStoreIdAndCodeIn(storeId, codes)))
+        .transactions(load(ids(live, SyncChangeRepository.TRANSACTION),
+            ids -> transactionService.getByIds(storeId, ids)))
+        .deleted(deleted)
+        .cursor(next.encode())
+        .hasMore(hasMore)
+        .build();
+  }
+
+  private static <K, T> List<T> load(List<K> keys, Function<List<K>, List<T>> loader) {
+    return keys.isEmpty() ? List.of() : loader.apply(keys);
+  }
+
+  private static List<UUID> ids(Map<String, List<String>> keys, String kind) {
+    return keys.getOrDefault(kind, List.of()).stream().map(UUID::fromString).toList();
+  }
+}
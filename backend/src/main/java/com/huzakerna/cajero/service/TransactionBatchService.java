@@ -0,0 +1,186 @@
+package com.huzakerna.cajero.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.huzakerna.cajero.dto.TransactionBatchResult;
+import com.huzakerna.cajero.dto.TransactionBatchResult.Status;
+import com.huzakerna.cajero.dto.TransactionRequest;
+import com.huzakerna.cajero.dto.TransactionResponse;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk upload of transactions queued offline by the mobile app.
+ * Items are written in chunks, one database transaction per chunk. If a chunk
+ * fails it is rolled back and its items are retried one by one, so a single bad
+ * sale never blocks the rest of the queue. Client keys make replays safe.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionBatchService {
+
+  private final StoreContextCache storeContexts;
+  private final TransactionService transactionService;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+
+  @Value("${transaction.batch.chunk-size:50}")
+  private int chunkSize;
+
+  @Value("${transaction.batch.max-size:500}")
+  private int maxSize;
+
+  public List<TransactionBatchResult> addTransactions(UUID storeId, List<TransactionRequest> requests) {
+    // Validate store exists
+    if (storeId == null || !storeContexts.exists(storeId)) {
+      throw new IllegalArgumentException("Store not found");
+    }
+    if (requests == null || requests.isEmpty()) {
+      return List.of();
+    }
+    if (requests.size() > maxSize) {
+      throw new IllegalArgumentException("Batch must not contain more than " + maxSize + " transactions");
+    }
+
+    log.info("Uploading batch of {} transactions for store: {}", requests.size(), storeId);
+    TransactionBatchResult[] results = new TransactionBatchResult[requests.size()];
+    for (int from = 0; from < requests.size(); from += chunkSize) {
+      processChunk(storeId, requests, from, Math.min(from + chunkSize, requests.size()), results);
+    }
+    return Arrays.asList(results);
+  }
+
+  private void processChunk(UUID storeId, List<TransactionRequest> requests, int from, int to,
+      TransactionBatchResult[] results) {
+    List<Integer> valid = new ArrayList<>();
+    Set<String> keys = new HashSet<>();
+    for (int i = from; i < to; i++) {
+      TransactionRequest request = requests.get(i);
+      String error = validate(request);
+      if (error != null) {
+        results[i] = failed(i, request, error);
+        continue;
+      }
+      valid.add(i);
+      if (request.getClientKey() != null) {
+        keys.add(request.getClientKey());
+      }
+    }
+
+    // Keys we have already seen: answer with the original transaction
+    Map<String, TransactionResponse> existing = transactionService.findByClientKeys(storeId, keys);
+
+    List<Integer> toCreate = new ArrayList<>();
+    Map<Integer, Integer> repeats = new HashMap<>(); // index -> first index with the same key in this chunk
+    Map<String, Integer> firstByKey = new HashMap<>();
+    for (int i : valid) {
+      String clientKey = requests.get(i).getClientKey();
+      if (clientKey != null && existing.containsKey(clientKey)) {
+        results[i] = result(i, clientKey, Status.DUPLICATE, existing.get(clientKey));
+      } else if (clientKey != null && firstByKey.containsKey(clientKey)) {
+        repeats.put(i, firstByKey.get(clientKey));
+      } else {
+        if (clientKey != null) {
+          firstByKey.put(clientKey, i);
+        }
+        toCreate.add(i);
+      }
+    }
+
+    if (!toCreate.isEmpty()) {
+      try {
+        Map<Integer, TransactionResponse> created = transactionTemplate.execute(status -> {
+          Map<Integer, TransactionResponse> responses = new LinkedHashMap<>();
+          for (int i : toCreate) {
+            responses.put(i, transactionService.addNewTransaction(storeId, requests.get(i)));
+          }
+          return responses;
+        });
+        created.forEach((i, response) -> results[i] = result(i, requests.get(i).getClientKey(),
+            Status.CREATED, response));
+      } catch (RuntimeException e) {
+        log.warn("Transaction batch chunk [{}, {}) failed, retrying items one by one: {}", from, to,
+            e.getMessage());
+        for (int i : toCreate) {
+          results[i] = addSingle(storeId, i, requests.get(i));
+        }
+      }
+    }
+
+    repeats.forEach((i, first) -> {
+      TransactionBatchResult original = results[first];
+      results[i] = original.getStatus() == Status.FAILED
+          ? failed(i, requests.get(i), original.getError())
+          : result(i, original.getClientKey(), Status.DUPLICATE, original.getTransaction());
+    });
+  }
+
+  private TransactionBatchResult addSingle(UUID storeId, int index, TransactionRequest request) {
+    try {
+      TransactionResponse response = transactionTemplate
+          .execute(status -> transactionService.addNewTransaction(storeId, request));
+      return result(index, request.getClientKey(), Status.CREATED, response);
+    } catch (DataIntegrityViolationException e) {
+      // Same key uploaded concurrently by another request: return the winner
+      if (request.getClientKey() != null) {
+        TransactionResponse winner = transactionService
+            .findByClientKeys(storeId, Set.of(request.getClientKey()))
+            .get(request.getClientKey());
+        if (winner != null) {
+          return result(index, request.getClientKey(), Status.DUPLICATE, winner);
+        }
+      }
+      log.warn("Batch item {} failed: {}", index, e.getMessage());
+      return failed(index, request, "Data integrity violation");
+    } catch (RuntimeException e) {
+      log.warn("Batch item {} failed: {}", index, e.getMessage());
+      return failed(index, request, e.getMessage());
+    }
+  }
+
+  private String validate(TransactionRequest request) {
+    if (request == null) {
+      return "Transaction is required";
+    }
+    Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .findFirst()
+        .orElse(null);
+  }
+
+  private TransactionBatchResult result(int index, String clientKey, Status status, TransactionResponse response) {
+    return TransactionBatchResult.builder()
+        .index(index)
+        .clientKey(clientKey)
+        .status(status)
+        .transaction(response)
+        .build();
+  }
+
+  private TransactionBatchResult failed(int index, TransactionRequest request, String error) {
+    return TransactionBatchResult.builder()
+        .index(index)
+        .clientKey(request != null ? request.getClientKey() : null)
+        .status(Status.FAILED)
+        .error(error)
+        .build();
+  }
+}
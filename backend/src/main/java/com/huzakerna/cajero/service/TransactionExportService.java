@@ -0,0 +1,109 @@
+package com.huzakerna.cajero.service;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.huzakerna.cajero.config.RoutingDataSource;
+import com.huzakerna.cajero.config.RoutingDataSource.Route;
+import com.huzakerna.cajero.repository.TransactionExportRepository;
+import com.huzakerna.cajero.util.CsvWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CSV export of transactions with their line items, streamed straight from a
+ * database cursor to the response. Nothing is collected in memory, so heap use
+ * is the same for a day or for years of sales.
+ */
+@Service
+@Slf4j
+public class TransactionExportService {
+
+  private static final String[] HEADER = {
+      "transaction_id", "created_at", "status", "type", "payment_method", "description",
+      "total_price", "total_discount", "total_tax", "total_commission", "customer", "cashier",
+      "product_id", "product_name", "quantity", "selling_price", "discount", "tax", "commission", "note",
+      "selected_variants" };
+
+  private final StoreContextCache storeContexts;
+  private final TransactionExportRepository exportRepository;
+  private final TransactionTemplate readOnlyTemplate;
+
+  @Value("${transaction.export.fetch-size:1000}")
+  private int fetchSize;
+
+  // Rows written between explicit flushes to the client
+  @Value("${transaction.export.flush-rows:5000}")
+  private int flushRows;
+
+  public TransactionExportService(StoreContextCache storeContexts, TransactionExportRepository exportRepository,
+      PlatformTransactionManager transactionManager) {
+    this.storeContexts = storeContexts;
+    this.exportRepository = exportRepository;
+    this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTemplate.setReadOnly(true);
+  }
+
+  // Validates up front, then returns the body that streams when the response is written
+  public StreamingResponseBody exportCsv(UUID storeId, LocalDate startDate, LocalDate endDate) {
+    if (storeId == null || !storeContexts.exists(storeId)) {
+      throw new IllegalArgumentException("Store not found");
+    }
+
+    // fallback to 1970 and now if null
+    LocalDateTime start = startDate != null ? startDate.atStartOfDay() : LocalDate.of(1970, 1, 1).atStartOfDay();
+    LocalDateTime end = endDate != null ? endDate.plusDays(1).atStartOfDay() : LocalDateTime.now();
+
+    return out -> {
+      BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+      CsvWriter csv = new CsvWriter(writer);
+      csv.row((Object[]) HEADER);
+
+      long[] rows = { 0 };
+      // Long-running read: use the reporting pool, not the connections checkout needs
+      RoutingDataSource.runWith(Route.REPORTING, () -> readOnlyTemplate.executeWithoutResult(
+          status -> exportRepository.streamLines(storeId, start, end, fetchSize,
+            rs -> {
+              Timestamp createdAt = rs.getTimestamp("created_at");
+              csv.field(rs.getObject("id"))
+                  .field(createdAt != null ? createdAt.toLocalDateTime() : null)
+                  .field(rs.getString("status_code"))
+                  .field(rs.getString("transaction_type_code"))
+                  .field(rs.getString("payment_method_code"))
+                  .field(rs.getString("description"))
+                  .field(rs.getBigDecimal("total_price"))
+                  .field(rs.getBigDecimal("total_discount"))
+                  .field(rs.getBigDecimal("total_tax"))
+                  .field(rs.getBigDecimal("total_commission"))
+                  .field(rs.getString("customer_name"))
+                  .field(rs.getString("cashier_name"))
+                  .field(rs.getObject("product_id"))
+                  .field(rs.getString("product_name"))
+                  .field(rs.getBigDecimal("quantity"))
+                  .field(rs.getBigDecimal("selling_price"))
+                  .field(rs.getBigDecimal("discount"))
+                  .field(rs.getBigDecimal("tax"))
+                  .field(rs.getBigDecimal("commission"))
+                  .field(rs.getString("note"))
+                  .field(rs.getString("selected_variants"))
+                  .endRow();
+              if (++rows[0] % flushRows == 0) {
+                csv.flush();
+              }
+            })));
+      csv.flush();
+      log.info("Exported {} transaction lines for store {}", rows[0], storeId);
+    };
+  }
+}
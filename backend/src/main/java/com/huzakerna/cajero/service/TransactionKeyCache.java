@@ -0,0 +1,49 @@
+package com.huzakerna.cajero.service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huzakerna.cajero.util.AfterCommit;
+
+/**
+ * Short-lived lookup of client idempotency keys to transaction ids.
+ * Sits in front of the unique (store_id, client_key) index so replayed offline
+ * uploads are answered without touching the database. Only committed
+ * transactions are remembered.
+ */
+@Component
+public class TransactionKeyCache {
+
+  private final Cache<String, UUID> cache;
+
+  public TransactionKeyCache(
+      @Value("${transaction.key-cache.max-size:50000}") long maxSize,
+      @Value("${transaction.key-cache.ttl-minutes:30}") long ttlMinutes) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .build();
+  }
+
+  public UUID get(UUID storeId, String clientKey) {
+    return cache.getIfPresent(key(storeId, clientKey));
+  }
+
+  public void put(UUID storeId, String clientKey, UUID transactionId) {
+    cache.put(key(storeId, clientKey), transactionId);
+  }
+
+  // Remember the key once the surrounding transaction commits (immediately if there is none)
+  public void putAfterCommit(UUID storeId, String clientKey, UUID transactionId) {
+    AfterCommit.run(() -> put(storeId, clientKey, transactionId));
+  }
+
+  private String key(UUID storeId, String clientKey) {
+    return storeId + ":" + clientKey;
+  }
+}
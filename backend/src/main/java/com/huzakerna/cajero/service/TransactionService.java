@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,26 +14,19 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.huzakerna.cajero.dto.StockLine;
 import com.huzakerna.cajero.dto.TransactionProductRequest;
 import com.huzakerna.cajero.dto.TransactionProductResponse;
 import com.huzakerna.cajero.dto.TransactionRequest;
 import com.huzakerna.cajero.dto.TransactionResponse;
-import com.huzakerna.cajero.model.Ingredient;
 import com.huzakerna.cajero.model.Product;
-import com.huzakerna.cajero.model.ProductIngredient;
-import com.huzakerna.cajero.model.StockMovement;
 import com.huzakerna.cajero.model.StockMovementType;
 import com.huzakerna.cajero.model.Transaction;
 import com.huzakerna.cajero.model.TransactionProduct;
 import com.huzakerna.cajero.model.TransactionProductId;
 import com.huzakerna.cajero.repository.ProductRepository;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.repository.TransactionProductRepository;
 import com.huzakerna.cajero.repository.TransactionRepository;
-import com.huzakerna.cajero.repository.VariantOptionRepository;
-import com.huzakerna.cajero.model.VariantOption;
-import com.huzakerna.cajero.model.VariantOptionIngredient;
 import com.huzakerna.cajero.util.ChangeTracker;
 
 import lombok.RequiredArgsConstructor;
@@ -43,23 +37,57 @@ import lombok.RequiredArgsConstructor;
 @Slf4j
 public class TransactionService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
   private final TransactionRepository repo;
   private final TransactionProductRepository tpRepo;
   private final ProductRepository pRepo;
   private final StockMovementService stockMovementService;
   private final LogService logService;
   private final CustomerService customerService;
-  private final VariantOptionRepository voRepo;
+  private final TransactionKeyCache keyCache;
+  private final RecipeExpander recipeExpander;
+  private final StockOutboxService stockOutboxService;
+  private final DailyStoreStatService dailyStoreStatService;
+
+  private static final String STOCK_MODE_OUTBOX = "outbox";
+
+  // sync: deduct inside checkout, outbox: deduct asynchronously via the stock outbox
+  @Value("${stock.deduction.mode:sync}")
+  private String stockDeductionMode;
 
   @Transactional
   public TransactionResponse addTransaction(UUID storeId, TransactionRequest request) {
     log.info("Adding transaction for store: {}", storeId);
     // Validate store exists
-    if (storeId == null || !sRepo.existsById(storeId)) {
+    if (storeId == null || !storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
+    // Idempotent replay: a known client key returns the transaction it created
+    if (request.getClientKey() != null) {
+      Transaction existing = findExistingByClientKey(storeId, request.getClientKey());
+      if (existing != null) {
+        log.info("Transaction with client key {} already exists: {}", request.getClientKey(), existing.getId());
+        return mapToResponse(existing);
+      }
+    }
+    return create(storeId, request);
+  }
+
+  /**
+   * Same as {@link #addTransaction} for callers that already looked the client
+   * key up (batch uploads resolve a whole chunk in one query). A key stored
+   * in between still fails on the unique (store_id, client_key) index.
+   */
+  @Transactional
+  public TransactionResponse addNewTransaction(UUID storeId, TransactionRequest request) {
+    if (storeId == null || !storeContexts.exists(storeId)) {
+      throw new IllegalArgumentException("Store not found");
+    }
+    return create(storeId, request);
+  }
+
+  private TransactionResponse create(UUID storeId, TransactionRequest request) {
     Transaction transaction = repo.save(
         Transaction.builder()
             .storeId(storeId)
@@ -73,106 +101,176 @@ public class TransactionService {
             .totalTax(request.getTotalTax())
             .customerId(request.getCustomerId())
             .createdAt(request.getCreatedAt()) // Use client provided creation time if available
+            .clientKey(request.getClientKey())
             .build());
 
+    List<TransactionProductRequest> lines = request.getTransactionProducts() != null
+        ? request.getTransactionProducts()
+        : List.of();
+
+    // Preload every product in the cart in one query; recipes come from the plan cache
+    Map<UUID, Product> products = new HashMap<>();
+    for (Product product : pRepo.findAllById(lines.stream().map(TransactionProductRequest::getProductId).toList())) {
+      products.put(product.getId(), product);
+    }
+
     // Add transaction products if any
     BigDecimal calculatedTotalDiscount = BigDecimal.ZERO;
     BigDecimal calculatedTotalTax = BigDecimal.ZERO;
     BigDecimal calculatedTotalCommission = BigDecimal.ZERO;
     BigDecimal calculatedTotalPrice = BigDecimal.ZERO;
 
-    if (request.getTransactionProducts() != null) {
-      for (TransactionProductRequest product : request
-          .getTransactionProducts()) {
-        TransactionProduct tp = addProductToTransaction(transaction,
-            product.getProductId(),
-            product.getBuyingPrice(),
-            product.getSellingPrice(),
-            product.getNote(),
-            product.getQuantity(),
-            product.getSelectedVariants(),
-            product.getCommission(),
-            product.getDiscount(),
-            product.getTax());
-
-        calculatedTotalDiscount = calculatedTotalDiscount.add(tp.getDiscount());
-        calculatedTotalTax = calculatedTotalTax.add(tp.getTax());
-        calculatedTotalCommission = calculatedTotalCommission.add(tp.getCommission());
-
-        // Price Calculation: (Selling Price * Quantity) - Discount + Tax
-        // Note: Assuming Selling Price is Pre-Tax and Pre-Discount base unit price.
-        BigDecimal lineTotal = tp.getSellingPrice().multiply(tp.getQuantity())
-            .subtract(tp.getDiscount())
-            .add(tp.getTax());
-        calculatedTotalPrice = calculatedTotalPrice.add(lineTotal);
+    // Keyed by product: a repeated product replaces the earlier line, as the per-line save did
+    Map<UUID, TransactionProduct> transactionProducts = new LinkedHashMap<>();
+    List<StockLine> stockLines = new ArrayList<>();
+
+    for (TransactionProductRequest line : lines) {
+      Product product = products.get(line.getProductId());
+      if (product == null) {
+        throw new RuntimeException("Product not found");
       }
+      log.info("Adding product {} to transaction {}", product.getId(), transaction.getId());
+
+      TransactionProduct tp = buildTransactionProduct(transaction, product, line);
+      transactionProducts.put(product.getId(), tp);
+
+      // Stock for ingredients / variants / products is deducted once for the whole cart
+      stockLines.add(StockLine.builder()
+          .productId(product.getId())
+          .quantity(line.getQuantity())
+          .optionIds(recipeExpander.selectedOptionIds(line.getSelectedVariants()))
+          .build());
+
+      calculatedTotalDiscount = calculatedTotalDiscount.add(tp.getDiscount());
+      calculatedTotalTax = calculatedTotalTax.add(tp.getTax());
+      calculatedTotalCommission = calculatedTotalCommission.add(tp.getCommission());
+
+      // Price Calculation: (Selling Price * Quantity) - Discount + Tax
+      // Note: Assuming Selling Price is Pre-Tax and Pre-Discount base unit price.
+      BigDecimal lineTotal = tp.getSellingPrice().multiply(tp.getQuantity())
+          .subtract(tp.getDiscount())
+          .add(tp.getTax());
+      calculatedTotalPrice = calculatedTotalPrice.add(lineTotal);
     }
 
+    // Lines are cascaded from the managed transaction and flushed as one JDBC batch
+    transaction.setTransactionProducts(new ArrayList<>(transactionProducts.values()));
+    deductStock(transaction, stockLines, StockMovementType.SALE);
+
     // Update transaction totals with calculated values
     transaction.setTotalDiscount(calculatedTotalDiscount);
     transaction.setTotalTax(calculatedTotalTax);
     transaction.setTotalCommission(calculatedTotalCommission);
     transaction.setTotalPrice(calculatedTotalPrice);
+    dailyStoreStatService.add(transaction);
 
-    repo.save(transaction);
+    // No save(): the transaction is already managed, so the flush persists the
+    // new lines instead of merging them one SELECT at a time
 
     if (request.getCustomerId() != null) {
       customerService.updateCustomer(storeId, request.getCustomerId(),
           BigDecimal.valueOf(transaction.getTotalPrice().doubleValue() / 1000));
     }
 
+    if (transaction.getClientKey() != null) {
+      keyCache.putAfterCommit(storeId, transaction.getClientKey(), transaction.getId());
+    }
+
     log.info("Transaction added successfully: {}", transaction.getId());
     return mapToResponse(transaction);
   }
 
-  public TransactionProduct addProductToTransaction(Transaction transaction, UUID productId,
-      BigDecimal buyingPrice, BigDecimal sellingPrice, String note, BigDecimal quantity,
-      JsonNode selectedVariants,
-      BigDecimal commission, BigDecimal discount, BigDecimal tax) {
-    log.info("Adding product {} to transaction {}", productId, transaction.getId());
+  /**
+   * Resolves client keys that already have a transaction, keyed by client key.
+   * Cached keys are loaded by id, the rest with a single IN query.
+   */
+  public Map<String, TransactionResponse> findByClientKeys(UUID storeId, Collection<String> clientKeys) {
+    Map<String, TransactionResponse> found = new HashMap<>();
+    if (clientKeys.isEmpty()) {
+      return found;
+    }
 
-    Product product = pRepo.findById(productId)
-        .orElseThrow(() -> new RuntimeException("Product not found"));
+    Map<UUID, String> cachedIds = new HashMap<>();
+    Set<String> misses = new HashSet<>();
+    for (String clientKey : clientKeys) {
+      UUID id = keyCache.get(storeId, clientKey);
+      if (id != null) {
+        cachedIds.put(id, clientKey);
+      } else {
+        misses.add(clientKey);
+      }
+    }
 
+    for (Transaction transaction : repo.findAllById(cachedIds.keySet())) {
+      found.put(cachedIds.get(transaction.getId()), mapToResponse(transaction));
+    }
+    if (!misses.isEmpty()) {
+      for (Transaction transaction : repo.findByStoreIdAndClientKeyIn(storeId, misses)) {
+        keyCache.put(storeId, transaction.getClientKey(), transaction.getId());
+        found.put(transaction.getClientKey(), mapToResponse(transaction));
+      }
+    }
+    return found;
+  }
+
+  private Transaction findExistingByClientKey(UUID storeId, String clientKey) {
+    UUID cachedId = keyCache.get(storeId, clientKey);
+    if (cachedId != null) {
+      Transaction cached = repo.findById(cachedId).orElse(null);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    Transaction existing = repo.findByStoreIdAndClientKey(storeId, clientKey).orElse(null);
+    if (existing != null) {
+      keyCache.put(storeId, clientKey, existing.getId());
+    }
+    return existing;
+  }
+
+  private TransactionProduct buildTransactionProduct(Transaction transaction, Product product,
+      TransactionProductRequest request) {
     TransactionProduct transactionProduct = new TransactionProduct();
-    transactionProduct.setId(new TransactionProductId(transaction.getId(), productId));
-    transactionProduct.setBuyingPrice(buyingPrice);
-    transactionProduct.setSellingPrice(sellingPrice);
-    transactionProduct.setNote(note);
-    transactionProduct.setQuantity(quantity);
-    transactionProduct.setSelectedVariants(selectedVariants);
+    transactionProduct.setId(new TransactionProductId(transaction.getId(), product.getId()));
     transactionProduct.setProduct(product);
     transactionProduct.setTransaction(transaction);
+    applyLineValues(transactionProduct, product, request);
+    return transactionProduct;
+  }
+
+  private void applyLineValues(TransactionProduct transactionProduct, Product product,
+      TransactionProductRequest request) {
+    BigDecimal quantity = request.getQuantity();
+
+    transactionProduct.setBuyingPrice(request.getBuyingPrice());
+    transactionProduct.setSellingPrice(request.getSellingPrice());
+    transactionProduct.setNote(request.getNote());
+    transactionProduct.setQuantity(quantity);
+    transactionProduct.setSelectedVariants(request.getSelectedVariants());
 
     // Calculate/Set Tax, Commission, Discount
     // Priority: Request > Product Default > 0
-    if (commission != null) {
-      transactionProduct.setCommission(commission);
+    if (request.getCommission() != null) {
+      transactionProduct.setCommission(request.getCommission());
     } else {
       transactionProduct.setCommission(
           product.getCommission() != null ? product.getCommission().multiply(quantity) : BigDecimal.ZERO);
     }
 
-    if (discount != null) {
-      transactionProduct.setDiscount(discount);
+    if (request.getDiscount() != null) {
+      transactionProduct.setDiscount(request.getDiscount());
     } else {
       transactionProduct.setDiscount(
           product.getDiscount() != null ? product.getDiscount().multiply(quantity) : BigDecimal.ZERO);
     }
 
-    if (tax != null) {
-      transactionProduct.setTax(tax);
+    if (request.getTax() != null) {
+      transactionProduct.setTax(request.getTax());
     } else {
       transactionProduct.setTax(
           product.getTax() != null ? product.getTax().multiply(quantity) : BigDecimal.ZERO);
     }
-
-    tpRepo.save(transactionProduct);
-
-    // Deduct stock for ingredients / variants / products
-    handleStockMovement(transaction, product, quantity, selectedVariants, StockMovementType.SALE);
-
-    return transactionProduct;
   }
 
   public void removeProductFromTransaction(UUID transactionId, UUID productId) {
@@ -192,96 +290,102 @@ public class TransactionService {
     tpRepo.deleteAllByIdInBatch(transactionProducts);
   }
 
-  // Helper to handle stock movement
-  private void handleStockMovement(Transaction transaction, Product product, BigDecimal quantity,
-      JsonNode selectedVariants, StockMovementType type) {
-    // 1. Base Product Ingredients
-    if (product.getIngredients() != null) {
-      for (ProductIngredient pi : product.getIngredients()) {
-        Ingredient ingredient = pi.getIngredient();
-        BigDecimal totalNeeded = pi.getQuantityNeeded().multiply(quantity);
-
-        stockMovementService.addStockMovement(transaction.getStoreId(),
-            StockMovement.builder()
-                .ingredientId(ingredient.getId())
-                .productId(product.getId())
-                .transactionId(transaction.getId())
-                .type(type)
-                .quantity(totalNeeded.negate())
-                .createdAt(transaction.getCreatedAt())
-                .build());
-      }
+  // Deducts stock synchronously or hands the lines to the stock outbox
+  private void deductStock(Transaction transaction, List<StockLine> lines, StockMovementType type) {
+    if (lines.isEmpty()) {
+      return;
+    }
+    if (STOCK_MODE_OUTBOX.equalsIgnoreCase(stockDeductionMode)) {
+      stockOutboxService.enqueue(transaction.getStoreId(), transaction.getId(), transaction.getCreatedAt(), type,
+          lines);
+      return;
     }
+    stockMovementService.addStockMovements(transaction.getStoreId(),
+        recipeExpander.expand(transaction.getStoreId(), lines, transaction.getId(), transaction.getCreatedAt(), type));
+  }
 
-    // 2. Variant Ingredients
-    if (selectedVariants != null && selectedVariants.isArray()) {
-      for (JsonNode node : selectedVariants) {
-        if (node.has("optionId")) {
-          try {
-            log.info("Processing variant option for stock deduction: {}", node);
-            UUID optionId = UUID.fromString(node.get("optionId").asText());
-            VariantOption option = voRepo.findById(optionId).orElse(null);
-
-            if (option != null) {
-              log.info("Found variant option: {}", option.getName());
-              // Priority 1: If mapped to ingredients, deduct ingredients (Cafe Case)
-              if (option.getIngredients() != null && !option.getIngredients().isEmpty()) {
-                log.info("Variant option has {} ingredients. Deducting stock...", option.getIngredients().size());
-                for (VariantOptionIngredient voi : option.getIngredients()) {
-                  BigDecimal requiredQty = voi.getQuantityNeeded().multiply(quantity);
-                  log.info("Deducting ingredient {} by {}", voi.getIngredient().getName(), requiredQty);
-
-                  stockMovementService.addStockMovement(transaction.getStoreId(),
-                      StockMovement.builder()
-                          .ingredientId(voi.getIngredient().getId())
-                          .productId(product.getId())
-                          .transactionId(transaction.getId())
-                          .type(type)
-                          .quantity(requiredQty.negate())
-                          .createdAt(transaction.getCreatedAt())
-                          .build());
-                }
-              } else {
-                log.info("Variant option has NO ingredients. Attempting to deduct option stock directly...");
-                // Priority 2: If validation passed, deduct option stock directly (Retail/Shoes
-                // Case)
-                // BUT only if stock is tracked (stock is not null)
-                if (option.getStock() != null) {
-                  log.info("Deducting variant option stock: {}", quantity);
-                  stockMovementService.addStockMovement(transaction.getStoreId(),
-                      StockMovement.builder()
-                          .variantId(option.getId())
-                          .productId(product.getId())
-                          .transactionId(transaction.getId())
-                          .type(type)
-                          .quantity(quantity.negate())
-                          .createdAt(transaction.getCreatedAt())
-                          .build());
-                } else {
-                  log.info("Variant option stock is NULL, skipping deduction.");
-                }
-              }
-            } else {
-              log.warn("Variant option not found for ID: {}", optionId);
-            }
-          } catch (Exception e) {
-            log.error("Error processing variant option stock movement: {}", e.getMessage(), e);
-          }
-        } else {
-          log.warn("Variant node missing optionId: {}", node);
+  private void applyLineChanges(Transaction transaction, List<TransactionProductRequest> lines) {
+    if (transaction.getTransactionProducts() == null) {
+      transaction.setTransactionProducts(new ArrayList<>());
+    }
+    Map<UUID, TransactionProduct> current = new HashMap<>();
+    for (TransactionProduct tp : transaction.getTransactionProducts()) {
+      current.put(tp.getProduct().getId(), tp);
+    }
+
+    Map<UUID, Product> products = new HashMap<>();
+    for (Product product : pRepo.findAllById(lines.stream().map(TransactionProductRequest::getProductId).toList())) {
+      products.put(product.getId(), product);
+    }
+
+    // Positive quantities are sold (deducted), negative ones go back to stock
+    List<StockLine> sold = new ArrayList<>();
+    List<StockLine> returned = new ArrayList<>();
+    Set<UUID> kept = new HashSet<>();
+
+    for (TransactionProductRequest line : lines) {
+      Product product = products.get(line.getProductId());
+      if (product == null) {
+        throw new RuntimeException("Product not found");
+      }
+      kept.add(product.getId());
+
+      TransactionProduct existing = current.get(product.getId());
+      List<UUID> newOptions = recipeExpander.selectedOptionIds(line.getSelectedVariants());
+
+      if (existing == null) {
+        // Added line
+        transaction.getTransactionProducts().add(buildTransactionProduct(transaction, product, line));
+        sold.add(stockLine(product.getId(), line.getQuantity(), newOptions));
+        continue;
+      }
+
+      List<UUID> oldOptions = recipeExpander.selectedOptionIds(existing.getSelectedVariants());
+      if (!sameOptions(oldOptions, newOptions)) {
+        // Different variants: put the old line back and deduct the new one
+        returned.add(stockLine(product.getId(), existing.getQuantity().negate(), oldOptions));
+        sold.add(stockLine(product.getId(), line.getQuantity(), newOptions));
+      } else {
+        BigDecimal delta = line.getQuantity().subtract(existing.getQuantity());
+        if (delta.signum() > 0) {
+          sold.add(stockLine(product.getId(), delta, newOptions));
+        } else if (delta.signum() < 0) {
+          returned.add(stockLine(product.getId(), delta, newOptions));
         }
       }
-    } else if (product.getStock() != null) {
-      // 3. Product Stock (DEFAULT)
-      stockMovementService.addStockMovement(transaction.getStoreId(),
-          StockMovement.builder()
-              .productId(product.getId())
-              .transactionId(transaction.getId())
-              .type(StockMovementType.SALE)
-              .quantity(quantity.negate())
-              .createdAt(transaction.getCreatedAt())
-              .build());
+
+      // Managed entity: Hibernate only issues an UPDATE if a value actually changed
+      applyLineValues(existing, product, line);
     }
+
+    // Removed lines
+    Iterator<TransactionProduct> it = transaction.getTransactionProducts().iterator();
+    while (it.hasNext()) {
+      TransactionProduct tp = it.next();
+      if (!kept.contains(tp.getProduct().getId())) {
+        returned.add(stockLine(tp.getProduct().getId(), tp.getQuantity().negate(),
+            recipeExpander.selectedOptionIds(tp.getSelectedVariants())));
+        it.remove();
+      }
+    }
+
+    deductStock(transaction, sold, StockMovementType.SALE);
+    deductStock(transaction, returned, StockMovementType.REFUND);
+  }
+
+  private StockLine stockLine(UUID productId, BigDecimal quantity, List<UUID> optionIds) {
+    return StockLine.builder()
+        .productId(productId)
+        .quantity(quantity)
+        .optionIds(optionIds)
+        .build();
+  }
+
+  private boolean sameOptions(List<UUID> a, List<UUID> b) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return new HashSet<>(a).equals(new HashSet<>(b)) && a.size() == b.size();
   }
 
   public TransactionResponse getTransactionById(UUID id) {
@@ -291,11 +395,18 @@ public class TransactionService {
     return mapToResponse(transaction);
   }
 
+  // Delta sync
+  public List<TransactionResponse> getByIds(UUID storeId, Collection<UUID> ids) {
+    return repo.findWithProductsByStoreIdAndIdIn(storeId, ids).stream()
+        .map(this::mapToResponse)
+        .toList();
+  }
+
   @Transactional
   public TransactionResponse updateTransaction(UUID storeId, UUID id, TransactionRequest request) {
     log.info("Updating transaction: {}", id);
     // Validate store exists
-    if (storeId == null || !sRepo.existsById(storeId)) {
+    if (storeId == null || !storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -307,6 +418,7 @@ public class TransactionService {
     if (!transaction.getStoreId().equals(storeId)) {
       throw new IllegalArgumentException("Transaction does not belong to the store");
     }
+    DailyStoreStatService.Contribution before = dailyStoreStatService.snapshot(transaction);
 
     // Create log details
     var logDetails = new HashMap<String, Object>();
@@ -359,59 +471,38 @@ public class TransactionService {
     // transaction.setTotalDiscount(request.getTotalDiscount());
     // transaction.setTotalTax(request.getTotalTax());
 
-    // Prepare new transaction products list
-    List<TransactionProduct> newTransactionProducts = new ArrayList<>();
+    // Diff lines by product: only changed lines are updated, added ones inserted,
+    // dropped ones deleted (orphan removal), and stock moves by the deltas only
+    if (request.getTransactionProducts() != null) {
+      applyLineChanges(transaction, request.getTransactionProducts());
+    }
+
+    // Recalculate totals from the resulting lines
     BigDecimal calculatedTotalDiscount = BigDecimal.ZERO;
     BigDecimal calculatedTotalTax = BigDecimal.ZERO;
     BigDecimal calculatedTotalCommission = BigDecimal.ZERO;
     BigDecimal calculatedTotalPrice = BigDecimal.ZERO;
 
-    if (request.getTransactionProducts() != null) {
-      for (TransactionProductRequest product : request.getTransactionProducts()) {
-        Product p = pRepo.findById(product.getProductId())
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        TransactionProduct tp = new TransactionProduct();
-        tp.setId(new TransactionProductId(transaction.getId(), p.getId()));
-        tp.setBuyingPrice(product.getBuyingPrice());
-        tp.setSellingPrice(product.getSellingPrice());
-        tp.setNote(product.getNote());
-        tp.setQuantity(product.getQuantity());
-        tp.setSelectedVariants(product.getSelectedVariants());
-        tp.setProduct(p);
-        tp.setTransaction(transaction);
-
-        // Calculate/Set Tax, Commission, Discount
-        tp.setCommission(product.getCommission() != null ? product.getCommission()
-            : (p.getCommission() != null ? p.getCommission().multiply(product.getQuantity()) : BigDecimal.ZERO));
-        tp.setDiscount(product.getDiscount() != null ? product.getDiscount()
-            : (p.getDiscount() != null ? p.getDiscount().multiply(product.getQuantity()) : BigDecimal.ZERO));
-        tp.setTax(product.getTax() != null ? product.getTax()
-            : (p.getTax() != null ? p.getTax().multiply(product.getQuantity()) : BigDecimal.ZERO));
-
-        // Add to list
-        newTransactionProducts.add(tp);
-
-        // Aggregate totals
-        calculatedTotalDiscount = calculatedTotalDiscount.add(tp.getDiscount());
-        calculatedTotalTax = calculatedTotalTax.add(tp.getTax());
-        calculatedTotalCommission = calculatedTotalCommission.add(tp.getCommission());
-
-        BigDecimal lineTotal = tp.getSellingPrice().multiply(tp.getQuantity())
-            .subtract(tp.getDiscount())
-            .add(tp.getTax());
-        calculatedTotalPrice = calculatedTotalPrice.add(lineTotal);
-      }
+    for (TransactionProduct tp : transaction.getTransactionProducts()) {
+      calculatedTotalDiscount = calculatedTotalDiscount.add(tp.getDiscount());
+      calculatedTotalTax = calculatedTotalTax.add(tp.getTax());
+      calculatedTotalCommission = calculatedTotalCommission.add(tp.getCommission());
+
+      BigDecimal lineTotal = tp.getSellingPrice().multiply(tp.getQuantity())
+          .subtract(tp.getDiscount())
+          .add(tp.getTax());
+      calculatedTotalPrice = calculatedTotalPrice.add(lineTotal);
     }
 
-    // Set updated products and totals
-    transaction.setTransactionProducts(newTransactionProducts);
     transaction.setTotalDiscount(calculatedTotalDiscount);
     transaction.setTotalTax(calculatedTotalTax);
     transaction.setTotalCommission(calculatedTotalCommission);
     transaction.setTotalPrice(calculatedTotalPrice);
+    dailyStoreStatService.replace(before, transaction);
 
-    transaction = repo.save(transaction);
+    // No save() (merge): the transaction is managed, so flushing writes only what
+    // changed and stamps updatedAt for the response
+    repo.flush();
 
     // Only add oldValues and newValues to log details if there were changes
     if (changeTracker.hasChanges()) {
@@ -427,7 +518,7 @@ public class TransactionService {
   public TransactionResponse removeTransaction(UUID storeId, UUID id) {
     log.info("Removing transaction: {}", id);
     // Validate store exists
-    if (storeId == null || !sRepo.existsById(storeId)) {
+    if (storeId == null || !storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -440,8 +531,11 @@ public class TransactionService {
       throw new IllegalArgumentException("Transaction does not belong to the store");
     }
 
+    DailyStoreStatService.Contribution before = dailyStoreStatService.snapshot(transaction);
+
     // Update transaction fields
     transaction.setDeletedAt(LocalDateTime.now());
+    dailyStoreStatService.replace(before, transaction);
 
     transaction = repo.save(transaction);
 
@@ -479,12 +573,6 @@ public class TransactionService {
     return transactionPage.map(this::mapToResponse);
   }
 
-  public List<TransactionResponse> getAllTransactions() {
-    return repo.findAll().stream()
-        .map(this::mapToResponse)
-        .toList();
-  }
-
   private TransactionResponse mapToResponse(Transaction transaction) {
     return TransactionResponse.builder()
         .id(transaction.getId())
@@ -499,6 +587,7 @@ public class TransactionService {
         .totalPrice(transaction.getTotalPrice())
         .totalTax(transaction.getTotalTax())
         .customerId(transaction.getCustomerId())
+        .clientKey(transaction.getClientKey())
         .createdBy(transaction.getCreatedBy() != null ? transaction.getCreatedBy().getId() : null)
         .createdByName(transaction.getCreatedBy() != null ? transaction.getCreatedBy().getName() : null)
         .updatedBy(transaction.getUpdatedBy() != null ? transaction.getUpdatedBy().getId() : null)
@@ -9,8 +9,8 @@ import com.huzakerna.cajero.dto.UserResponse;
 import com.huzakerna.cajero.exception.DuplicateEmailException;
 import com.huzakerna.cajero.exception.UserNotFoundException;
 import com.huzakerna.cajero.model.User;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.repository.UserRepository;
+import com.huzakerna.cajero.security.UserCache;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,7 +19,8 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository repo;
-    private final StoreRepository sRepo;
+    private final StoreContextCache storeContexts;
+    private final UserCache userCache;
     private final PasswordEncoder encoder; // Autowired via constructor
 
     @Transactional
@@ -36,7 +37,7 @@ public class UserService {
         }
 
         // Validate store exists
-        if (!sRepo.existsById(storeId)) {
+        if (!storeContexts.exists(storeId)) {
             throw new IllegalArgumentException("Store not found");
         }
 
@@ -87,6 +88,10 @@ public class UserService {
             throw new IllegalArgumentException("User does not belong to this store");
         }
 
+        // A new role or password revokes the tokens issued before
+        boolean revoke = (request.getRoleCode() != null && !request.getRoleCode().equals(user.getRoleCode()))
+                || (request.getPassword() != null && !request.getPassword().isBlank());
+
         user.setName(request.getName());
         user.setPhone(request.getPhone());
         if (request.getRoleCode() != null) {
@@ -103,8 +108,13 @@ public class UserService {
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
             user.setPasswordHash(encoder.encode(request.getPassword()));
         }
+        if (revoke) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
 
-        return mapToResponse(repo.save(user));
+        User saved = repo.save(user);
+        userCache.evict(userId);
+        return mapToResponse(saved);
     }
 
     private UserResponse mapToResponse(User user) {
@@ -13,7 +13,6 @@ import com.huzakerna.cajero.model.Variant;
 import com.huzakerna.cajero.model.VariantOption;
 import com.huzakerna.cajero.repository.VariantRepository;
 import com.huzakerna.cajero.util.ChangeTracker;
-import com.huzakerna.cajero.repository.StoreRepository;
 import com.huzakerna.cajero.repository.ProductRepository;
 import com.huzakerna.cajero.repository.IngredientRepository;
 import com.huzakerna.cajero.model.Ingredient;
@@ -32,12 +31,14 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class VariantService {
 
-  private final StoreRepository sRepo;
+  private final StoreContextCache storeContexts;
+  private final CatalogVersionCache catalogVersions;
   private final VariantRepository repo;
   private final VariantOptionService voService;
   private final LogService logService;
   private final IngredientRepository iRepo;
   private final ProductRepository pRepo;
+  private final RecipePlanCache planCache;
 
   public List<VariantResponse> getAllByStoreId(UUID storeId) {
     return repo.findByStoreIdAndDeletedAtIsNull(storeId).stream()
@@ -45,6 +46,13 @@ public class VariantService {
         .toList();
   }
 
+  // Delta sync
+  public List<VariantResponse> getByIds(UUID storeId, Collection<UUID> ids) {
+    return repo.findWithOptionsByStoreIdAndIdIn(storeId, ids).stream()
+        .map(this::mapToResponse)
+        .toList();
+  }
+
   public VariantResponse getVariantById(UUID id) {
     Variant variant = repo.findById(id)
         .orElseThrow(() -> new RuntimeException("Variant not found"));
@@ -54,7 +62,7 @@ public class VariantService {
 
   public VariantResponse addVariant(UUID storeId, VariantRequest request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -84,14 +92,16 @@ public class VariantService {
     }
 
     variant.setOptions(options);
+    planCache.evict(storeId, product.getId());
 
+    catalogVersions.bump(storeId);
     return mapToResponse(variant);
 
   }
 
   public VariantResponse updateVariant(UUID storeId, UUID id, VariantRequest request) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -195,7 +205,10 @@ public class VariantService {
     // Safely update options collection
     variant.setOptions(newOptions);
 
+    // Option-only edits must still move updated_at, which delta sync follows
+    variant.setUpdatedAt(LocalDateTime.now());
     variant = repo.save(variant);
+    planCache.evict(storeId, variant.getProductId());
 
     // Only add oldValues and newValues to log details if there were changes
     if (changeTracker.hasChanges()) {
@@ -203,13 +216,14 @@ public class VariantService {
           changeTracker.getChanges());
     }
 
+    catalogVersions.bump(storeId);
     return mapToResponse(variant);
   }
 
   // soft delete
   public VariantResponse removeVariant(UUID storeId, UUID id) {
     // Validate store exists
-    if (!sRepo.existsById(storeId)) {
+    if (!storeContexts.exists(storeId)) {
       throw new IllegalArgumentException("Store not found");
     }
 
@@ -230,6 +244,7 @@ public class VariantService {
     // Log action
     logService.logAction(storeId, "variant", "deleted", variant.getId(), variant.getName(), null);
 
+    catalogVersions.bump(storeId);
     return mapToResponse(variant);
   }
 
@@ -0,0 +1,26 @@
+package com.huzakerna.cajero.service.ai;
+
+import java.util.List;
+
+/**
+ * One chat message in the OpenAI-compatible format. Assistant messages may
+ * carry tool calls instead of content; tool messages answer one call by id.
+ */
+public record AiMessage(String role, String content, List<AiToolCall> toolCalls, String toolCallId) {
+
+  public static AiMessage system(String content) {
+    return new AiMessage("system", content, null, null);
+  }
+
+  public static AiMessage user(String content) {
+    return new AiMessage("user", content, null, null);
+  }
+
+  public static AiMessage assistant(AiReply reply) {
+    return new AiMessage("assistant", reply.content(), reply.hasToolCalls() ? reply.toolCalls() : null, null);
+  }
+
+  public static AiMessage tool(String toolCallId, String content) {
+    return new AiMessage("tool", content, null, toolCallId);
+  }
+}
@@ -0,0 +1,24 @@
+package com.huzakerna.cajero.service.ai;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A chat completion backend. Calls never block the caller: results arrive on
+ * the provider's own threads. The implementation is chosen with
+ * {@code ai.provider}. When {@code tools} is not empty the model may answer
+ * with tool calls instead of text.
+ */
+public interface AiProvider {
+
+  // The whole reply, once generation has finished
+  CompletableFuture<AiReply> complete(List<AiMessage> messages, List<AiTool> tools);
+
+  /**
+   * Hands reply text fragments to {@code onToken} as they arrive and completes
+   * with the whole reply. Cancelling the future aborts the generation, and so
+   * does an exception thrown by {@code onToken}.
+   */
+  CompletableFuture<AiReply> stream(List<AiMessage> messages, List<AiTool> tools, Consumer<String> onToken);
+}
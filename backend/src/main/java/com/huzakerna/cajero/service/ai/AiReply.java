@@ -0,0 +1,17 @@
+package com.huzakerna.cajero.service.ai;
+
+import java.util.List;
+
+/**
+ * A model turn: either the answer text, or tool calls to run before asking again.
+ */
+public record AiReply(String content, List<AiToolCall> toolCalls) {
+
+  public static AiReply text(String content) {
+    return new AiReply(content, List.of());
+  }
+
+  public boolean hasToolCalls() {
+    return toolCalls != null && !toolCalls.isEmpty();
+  }
+}
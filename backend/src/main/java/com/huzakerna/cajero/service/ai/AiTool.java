@@ -0,0 +1,9 @@
+package com.huzakerna.cajero.service.ai;
+
+import java.util.Map;
+
+/**
+ * A function the model may call; {@code parameters} is its JSON schema.
+ */
+public record AiTool(String name, String description, Map<String, Object> parameters) {
+}
@@ -0,0 +1,7 @@
+package com.huzakerna.cajero.service.ai;
+
+/**
+ * A call the model asked for; {@code arguments} is the raw JSON object text.
+ */
+public record AiToolCall(String id, String name, String arguments) {
+}
@@ -0,0 +1,87 @@
+package com.huzakerna.cajero.service.ai;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local provider for tests and offline development. Replies with the scripted
+ * replies first, if any, then with the last tool result or, without one, the
+ * last user message. Text is streamed word by word. Enabled with
+ * {@code ai.provider: fake}.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.provider", havingValue = "fake")
+public class FakeAiProvider implements AiProvider {
+
+  private final Queue<AiReply> script = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger calls = new AtomicInteger();
+  private volatile List<AiMessage> lastMessages = List.of();
+  private volatile List<AiTool> lastTools = List.of();
+
+  @Override
+  public CompletableFuture<AiReply> complete(List<AiMessage> messages, List<AiTool> tools) {
+    return CompletableFuture.completedFuture(reply(messages, tools));
+  }
+
+  @Override
+  public CompletableFuture<AiReply> stream(List<AiMessage> messages, List<AiTool> tools, Consumer<String> onToken) {
+    AiReply reply = reply(messages, tools);
+    return CompletableFuture.supplyAsync(() -> {
+      if (reply.content() != null) {
+        // Keep the separators so the fragments join back into the reply
+        for (String token : reply.content().split("(?<= )")) {
+          onToken.accept(token);
+        }
+      }
+      return reply;
+    });
+  }
+
+  // Queues replies to return, in order, before the default ones
+  public FakeAiProvider script(AiReply... replies) {
+    script.addAll(List.of(replies));
+    return this;
+  }
+
+  // Messages of the most recent call, for assertions
+  public List<AiMessage> lastMessages() {
+    return lastMessages;
+  }
+
+  public List<AiTool> lastTools() {
+    return lastTools;
+  }
+
+  public int calls() {
+    return calls.get();
+  }
+
+  private AiReply reply(List<AiMessage> messages, List<AiTool> tools) {
+    calls.incrementAndGet();
+    lastMessages = List.copyOf(messages);
+    lastTools = tools != null ? List.copyOf(tools) : List.of();
+
+    AiReply scripted = script.poll();
+    if (scripted != null) {
+      return scripted;
+    }
+    AiMessage last = messages.get(messages.size() - 1);
+    if ("tool".equals(last.role())) {
+      return AiReply.text("Based on: " + last.content());
+    }
+    String prompt = "";
+    for (AiMessage message : messages) {
+      if ("user".equals(message.role())) {
+        prompt = message.content();
+      }
+    }
+    return AiReply.text("You said: " + prompt);
+  }
+}
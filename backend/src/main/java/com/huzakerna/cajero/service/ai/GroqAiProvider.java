@@ -0,0 +1,288 @@
+package com.huzakerna.cajero.service.ai;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Groq's OpenAI-compatible chat completions API over the JDK HttpClient. The
+ * client is shared, so connections stay open between calls, and responses are
+ * handled asynchronously: no request thread waits on the model. Streamed
+ * replies are read line by line from the server-sent events as they arrive.
+ * Tools are sent in the OpenAI function format; streamed tool calls arrive in
+ * fragments and are reassembled by index.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.provider", havingValue = "groq", matchIfMissing = true)
+@Slf4j
+public class GroqAiProvider implements AiProvider {
+
+  private static final String DATA_PREFIX = "data:";
+  private static final String DONE = "[DONE]";
+
+  private final ObjectMapper objectMapper;
+  private final HttpClient httpClient;
+  private final String apiKey;
+  private final URI url;
+  private final String model;
+  private final Duration requestTimeout;
+  private final long streamTimeoutMs;
+
+  public GroqAiProvider(ObjectMapper objectMapper,
+      @Value("${groq.api.key:}") String apiKey,
+      @Value("${ai.groq.url:https://api.groq.com/openai/v1/chat/completions}") String url,
+      @Value("${ai.groq.model:llama-3.1-8b-instant}") String model,
+      @Value("${ai.groq.connect-timeout-ms:5000}") long connectTimeoutMs,
+      @Value("${ai.groq.request-timeout-ms:30000}") long requestTimeoutMs,
+      @Value("${ai.groq.stream-timeout-ms:120000}") long streamTimeoutMs) {
+    this.objectMapper = objectMapper;
+    this.apiKey = apiKey;
+    this.url = URI.create(url);
+    this.model = model;
+    this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    this.streamTimeoutMs = streamTimeoutMs;
+    this.httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+        .build();
+  }
+
+  @Override
+  public CompletableFuture<AiReply> complete(List<AiMessage> messages, List<AiTool> tools) {
+    HttpRequest request;
+    try {
+      request = request(messages, tools, false);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(response -> {
+          if (response.statusCode() != 200) {
+            log.warn("Groq returned {}: {}", response.statusCode(), response.body());
+            throw new IllegalStateException("AI provider returned status " + response.statusCode());
+          }
+          JsonNode message = readTree(response.body()).path("choices").path(0).path("message");
+          List<AiToolCall> toolCalls = new ArrayList<>();
+          for (JsonNode call : message.path("tool_calls")) {
+            toolCalls.add(new AiToolCall(call.path("id").asText(), call.path("function").path("name").asText(),
+                call.path("function").path("arguments").asText("{}")));
+          }
+          JsonNode content = message.path("content");
+          if (!content.isTextual() && toolCalls.isEmpty()) {
+            throw new IllegalStateException("No valid response received from AI service");
+          }
+          return new AiReply(content.isTextual() ? content.asText() : null, toolCalls);
+        });
+  }
+
+  @Override
+  public CompletableFuture<AiReply> stream(List<AiMessage> messages, List<AiTool> tools,
+      Consumer<String> onToken) {
+    HttpRequest request;
+    try {
+      request = request(messages, tools, true);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    ChunkSubscriber subscriber = new ChunkSubscriber(onToken);
+    CompletableFuture<HttpResponse<Void>> response = httpClient.sendAsync(request, info -> info.statusCode() == 200
+        ? BodySubscribers.fromLineSubscriber(subscriber)
+        : BodySubscribers.discarding());
+
+    response.whenComplete((result, error) -> {
+      if (error != null) {
+        subscriber.done.completeExceptionally(error);
+      } else if (result.statusCode() != 200) {
+        log.warn("Groq stream returned {}", result.statusCode());
+        subscriber.done.completeExceptionally(
+            new IllegalStateException("AI provider returned status " + result.statusCode()));
+      }
+    });
+
+    // The request timeout only covers the headers; bound the whole generation too.
+    // Callers get the subscriber's own future, so cancelling it reaches the connection.
+    CompletableFuture<AiReply> done = subscriber.done.orTimeout(streamTimeoutMs, TimeUnit.MILLISECONDS);
+    done.whenComplete((result, error) -> {
+      if (error != null) {
+        subscriber.cancel();
+        response.cancel(true);
+      }
+    });
+    return done;
+  }
+
+  private HttpRequest request(List<AiMessage> messages, List<AiTool> tools, boolean stream) {
+    if (apiKey == null || apiKey.isEmpty()) {
+      throw new IllegalStateException("Groq API Key is not configured in backend");
+    }
+
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("model", model);
+    body.put("messages", messages.stream().map(GroqAiProvider::message).toList());
+    if (tools != null && !tools.isEmpty()) {
+      body.put("tools", tools.stream()
+          .map(tool -> Map.of("type", "function", "function", Map.of(
+              "name", tool.name(),
+              "description", tool.description(),
+              "parameters", tool.parameters())))
+          .toList());
+    }
+    body.put("stream", stream);
+
+    try {
+      return HttpRequest.newBuilder(url)
+          .timeout(requestTimeout)
+          .header("Content-Type", "application/json")
+          .header("Accept", stream ? "text/event-stream" : "application/json")
+          .header("Authorization", "Bearer " + apiKey)
+          .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+          .build();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize AI request", e);
+    }
+  }
+
+  private static Map<String, Object> message(AiMessage message) {
+    Map<String, Object> wire = new LinkedHashMap<>();
+    wire.put("role", message.role());
+    wire.put("content", message.content());
+    if (message.toolCalls() != null) {
+      wire.put("tool_calls", message.toolCalls().stream()
+          .map(call -> Map.of("id", call.id(), "type", "function", "function", Map.of(
+              "name", call.name(),
+              "arguments", call.arguments())))
+          .toList());
+    }
+    if (message.toolCallId() != null) {
+      wire.put("tool_call_id", message.toolCallId());
+    }
+    return wire;
+  }
+
+  private JsonNode readTree(String json) {
+    try {
+      return objectMapper.readTree(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Malformed AI response", e);
+    }
+  }
+
+  /**
+   * Parses "data: {chunk}" lines of the event stream and forwards each text
+   * delta. Lines are requested one at a time, so a slow client slows the read
+   * from Groq instead of buffering the reply in memory.
+   */
+  private final class ChunkSubscriber implements Flow.Subscriber<String> {
+
+    private final Consumer<String> onToken;
+    private final CompletableFuture<AiReply> done = new CompletableFuture<>();
+    private final StringBuilder content = new StringBuilder();
+    // Tool call fragments by index: id and name come first, arguments in pieces
+    private final Map<Integer, String[]> toolCalls = new TreeMap<>();
+    private final Map<Integer, StringBuilder> toolArguments = new TreeMap<>();
+    private volatile Flow.Subscription subscription;
+
+    private ChunkSubscriber(Consumer<String> onToken) {
+      this.onToken = onToken;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (done.isDone()) {
+        subscription.cancel();
+      } else {
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onNext(String line) {
+      if (done.isDone()) {
+        return;
+      }
+      try {
+        if (line.startsWith(DATA_PREFIX)) {
+          String data = line.substring(DATA_PREFIX.length()).trim();
+          if (DONE.equals(data)) {
+            done.complete(reply());
+            subscription.cancel();
+            return;
+          }
+          JsonNode delta = readTree(data).path("choices").path(0).path("delta");
+          String token = delta.path("content").asText("");
+          if (!token.isEmpty()) {
+            content.append(token);
+            onToken.accept(token);
+          }
+          for (JsonNode call : delta.path("tool_calls")) {
+            int index = call.path("index").asInt();
+            String[] idAndName = toolCalls.computeIfAbsent(index, i -> new String[2]);
+            if (call.hasNonNull("id")) {
+              idAndName[0] = call.path("id").asText();
+            }
+            if (call.path("function").hasNonNull("name")) {
+              idAndName[1] = call.path("function").path("name").asText();
+            }
+            toolArguments.computeIfAbsent(index, i -> new StringBuilder())
+                .append(call.path("function").path("arguments").asText(""));
+          }
+        }
+        subscription.request(1);
+      } catch (RuntimeException e) {
+        // Includes the consumer failing, e.g. the client went away
+        subscription.cancel();
+        done.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      done.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(reply());
+    }
+
+    private AiReply reply() {
+      List<AiToolCall> calls = new ArrayList<>();
+      toolCalls.forEach((index, idAndName) -> {
+        String arguments = toolArguments.get(index).toString();
+        calls.add(new AiToolCall(idAndName[0], idAndName[1], arguments.isEmpty() ? "{}" : arguments));
+      });
+      return new AiReply(content.isEmpty() ? null : content.toString(), calls);
+    }
+
+    private void cancel() {
+      Flow.Subscription current = subscription;
+      if (current != null) {
+        current.cancel();
+      }
+    }
+  }
+}
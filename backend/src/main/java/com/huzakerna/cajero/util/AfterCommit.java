@@ -0,0 +1,43 @@
+package com.huzakerna.cajero.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ties in-memory side effects to the surrounding database transaction.
+ */
+public final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  /**
+   * Runs a cache invalidation now and again once the transaction commits, so a
+   * reader that loads the old row while the write is in flight can't leave it
+   * cached.
+   */
+  public static void invalidate(Runnable invalidation) {
+    invalidation.run();
+    register(invalidation);
+  }
+
+  // After commit, or right away outside a transaction; never after a rollback
+  public static void run(Runnable action) {
+    if (!register(action)) {
+      action.run();
+    }
+  }
+
+  private static boolean register(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return false;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+    return true;
+  }
+}
@@ -0,0 +1,54 @@
+package com.huzakerna.cajero.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter allowing bursts of up to {@code capacity} and a steady
+ * {@code refillPerSecond} on average. The state is one "theoretical arrival
+ * time" (the generic cell rate algorithm), updated with a compare-and-set, so
+ * hot paths never lock. A request is allowed while that time is less than a
+ * burst ahead of now.
+ */
+public class AtomicTokenBucket {
+
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicLong arrival;
+
+  public AtomicTokenBucket(long capacity, double refillPerSecond) {
+    this(capacity, refillPerSecond, System::nanoTime);
+  }
+
+  public AtomicTokenBucket(long capacity, double refillPerSecond, LongSupplier nanoClock) {
+    if (capacity < 1 || refillPerSecond <= 0) {
+      throw new IllegalArgumentException("Invalid token bucket settings");
+    }
+    this.intervalNanos = Math.max(1, (long) (1_000_000_000d / refillPerSecond));
+    this.burstNanos = intervalNanos * (capacity - 1);
+    this.nanoClock = nanoClock;
+    this.arrival = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  // 0 when a token was taken, otherwise how long until one will be available
+  public long tryConsume() {
+    long now = nanoClock.getAsLong();
+    while (true) {
+      long current = arrival.get();
+      long start = current - now > 0 ? current : now;
+      long wait = start - now - burstNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (arrival.compareAndSet(current, start + intervalNanos)) {
+        return 0;
+      }
+    }
+  }
+
+  // Whether the bucket is back to full capacity, i.e. it can be dropped
+  public boolean isIdle() {
+    return arrival.get() - nanoClock.getAsLong() <= 0;
+  }
+}
@@ -0,0 +1,86 @@
+package com.huzakerna.cajero.util;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures
+ * in a row calls are refused for {@code openDuration}; then a single trial call
+ * is let through, which closes the circuit on success or reopens it on failure.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final LongSupplier nanoClock;
+
+  private State state = State.CLOSED;
+  private int failures;
+  private long openedAt;
+  private boolean trialInFlight;
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration) {
+    this(failureThreshold, openDuration, System::nanoTime);
+  }
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openNanos = openDuration.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  // Whether a call may start now; in half-open state only one trial at a time
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (nanoClock.getAsLong() - openedAt < openNanos) {
+        return false;
+      }
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+    if (state == State.HALF_OPEN) {
+      if (trialInFlight) {
+        return false;
+      }
+      trialInFlight = true;
+    }
+    return true;
+  }
+
+  // Refusing without taking the trial slot, for a cheap check before queueing
+  public synchronized boolean isOpen() {
+    return state == State.OPEN && nanoClock.getAsLong() - openedAt < openNanos;
+  }
+
+  public synchronized void onSuccess() {
+    state = State.CLOSED;
+    failures = 0;
+    trialInFlight = false;
+  }
+
+  // Returns true when this failure opened the circuit
+  public synchronized boolean onFailure() {
+    trialInFlight = false;
+    if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+      boolean opened = state != State.OPEN;
+      state = State.OPEN;
+      openedAt = nanoClock.getAsLong();
+      failures = 0;
+      return opened;
+    }
+    return false;
+  }
+
+  // A call that ended without telling anything about the backend (e.g. cancelled)
+  public synchronized void onIgnored() {
+    trialInFlight = false;
+  }
+
+  public synchronized State state() {
+    return state;
+  }
+}
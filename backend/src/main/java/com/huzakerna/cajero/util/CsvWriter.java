@@ -0,0 +1,87 @@
+package com.huzakerna.cajero.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Minimal RFC 4180 CSV writer. Fields containing a separator, quote or line
+ * break are quoted, with quotes doubled. Rows end with CRLF. Text that a
+ * spreadsheet would run as a formula is prefixed with a single quote; numbers
+ * and other non-text values are written as they are.
+ */
+public class CsvWriter {
+
+  private final Writer out;
+  private boolean firstField = true;
+
+  public CsvWriter(Writer out) {
+    this.out = out;
+  }
+
+  public CsvWriter field(Object value) {
+    try {
+      if (!firstField) {
+        out.write(',');
+      }
+      firstField = false;
+      if (value != null) {
+        String text = value.toString();
+        out.write(escape(value instanceof CharSequence ? neutralize(text) : text));
+      }
+      return this;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void row(Object... values) {
+    for (Object value : values) {
+      field(value);
+    }
+    endRow();
+  }
+
+  public void endRow() {
+    try {
+      out.write("\r\n");
+      firstField = true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void flush() {
+    try {
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Keeps free text such as notes from running as a formula in Excel
+  static String neutralize(String value) {
+    if (value.isEmpty()) {
+      return value;
+    }
+    return switch (value.charAt(0)) {
+      case '=', '+', '-', '@', '\t', '\r' -> "'" + value;
+      default -> value;
+    };
+  }
+
+  static String escape(String value) {
+    boolean quote = false;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        quote = true;
+        break;
+      }
+    }
+    if (!quote) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
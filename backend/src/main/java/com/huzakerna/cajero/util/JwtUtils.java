@@ -1,32 +1,103 @@
 package com.huzakerna.cajero.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.huzakerna.cajero.model.User;
-import java.security.Key;
+import com.huzakerna.cajero.security.UserDetailsImpl;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import javax.crypto.SecretKey;
 
+/**
+ * Issues and verifies access tokens. The signing key and parser are built once;
+ * verified claims are cached by token hash until the token expires, so a
+ * client's repeated requests skip the HMAC check and JSON parsing.
+ */
 @Service
 public class JwtUtils {
 
-  @Value("${jwt.secret-key}")
-  private String jwtSecret;
+  private final String jwtSecret;
+  private final int jwtExpirationMs;
+  // Null when disabled
+  private final Cache<String, Claims> verified;
 
-  @Value("${jwt.expiration-ms}")
-  private int jwtExpirationMs;
+  // Built on first use, so a misconfigured secret fails requests rather than startup, as before
+  private volatile SecretKey signingKey;
+  private volatile JwtParser parser;
+
+  public JwtUtils(
+      @Value("${jwt.secret-key}") String jwtSecret,
+      @Value("${jwt.expiration-ms}") int jwtExpirationMs,
+      @Value("${jwt.verified-cache.max-size:50000}") long verifiedCacheSize) {
+    this.jwtSecret = jwtSecret;
+    this.jwtExpirationMs = jwtExpirationMs;
+    this.verified = verifiedCacheSize <= 0 ? null : Caffeine.newBuilder()
+        .maximumSize(verifiedCacheSize)
+        .expireAfter(new Expiry<String, Claims>() {
+          @Override
+          public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration() == null
+                ? jwtExpirationMs
+                : claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Claims of a token whose signature and expiry check out, parsed once per
+   * token. Throws {@link io.jsonwebtoken.JwtException} otherwise.
+   */
+  public Claims verify(String token) {
+    if (verified == null) {
+      return parse(token);
+    }
+    String key = hash(token);
+    Claims claims = verified.getIfPresent(key);
+    if (claims == null) {
+      claims = parse(token);
+      verified.put(key, claims);
+    } else if (isExpired(claims)) {
+      // Caffeine expires lazily; never hand out a stale entry
+      verified.invalidate(key);
+      throw new ExpiredJwtException(null, claims, "JWT expired");
+    }
+    return claims;
+  }
 
   public String extractUsername(String token) {
     return extractClaim(token, Claims::getSubject);
   }
 
   public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
+    final Claims claims = verify(token);
     return claimsResolver.apply(claims);
   }
 
@@ -34,39 +105,77 @@ public class JwtUtils {
   public String generateToken(User user) {
     return Jwts.builder()
       .subject(user.getEmail())
+      .claim("uid", user.getId())
       .claim("storeId", user.getStoreId())
       .claim("role", user.getRoleCode())
+      .claim("ver", user.getTokenVersion())
       .issuedAt(new Date())
       .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
       .signWith(getSigningKey())
       .compact();
   }
 
+  /**
+   * Principal built from verified claims alone. Null for tokens issued before
+   * the user id and version were signed in, which still need the user loaded.
+   */
+  public UserDetailsImpl extractPrincipal(Claims claims) {
+    String id = claims.get("uid", String.class);
+    Number version = claims.get("ver", Number.class);
+    if (id == null || version == null) {
+      return null;
+    }
+    String storeId = claims.get("storeId", String.class);
+    return UserDetailsImpl.fromClaims(
+        UUID.fromString(id),
+        claims.getSubject(),
+        storeId != null ? UUID.fromString(storeId) : null,
+        claims.get("role", String.class),
+        version.longValue());
+  }
+
+  public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+    return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
+  }
+
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    return isTokenValid(verify(token), userDetails);
+  }
+
+  private static boolean isExpired(Claims claims) {
+    return claims.getExpiration() != null && claims.getExpiration().before(new Date());
   }
 
-  private boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
+  private Claims parse(String token) {
+    return getParser().parseSignedClaims(token).getPayload();
   }
 
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+  private JwtParser getParser() {
+    JwtParser current = parser;
+    if (current == null) {
+      current = Jwts.parser().verifyWith(getSigningKey()).build();
+      parser = current;
+    }
+    return current;
   }
 
-  @SuppressWarnings("deprecation")
-  private Claims extractAllClaims(String token) {
-    return Jwts
-      .parser()
-      .setSigningKey(getSigningKey())
-      .build()
-      .parseClaimsJws(token)
-      .getBody();
+  private SecretKey getSigningKey() {
+    SecretKey current = signingKey;
+    if (current == null) {
+      byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
+      current = Keys.hmacShaKeyFor(keyBytes);
+      signingKey = current;
+    }
+    return current;
   }
 
-  private Key getSigningKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-    return Keys.hmacShaKeyFor(keyBytes);
+  // The cache never holds the bearer token itself
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 }
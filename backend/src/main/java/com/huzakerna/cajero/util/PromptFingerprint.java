@@ -0,0 +1,130 @@
+package com.huzakerna.cajero.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized form of a chat prompt, so that rephrasings of the same question
+ * ("What's the best seller this week?" / "best seller this week") share a
+ * cache key. Lowercases, drops punctuation and filler words (English and
+ * Indonesian) and writes numbers in one canonical form where the separators
+ * are unambiguous: "1,000.50", "1.000,50" and "1000.5" all become "1000.5",
+ * "1.000.000" becomes "1000000". A single separator before three digits
+ * ("1.500" is 1500 in Indonesian, 1.5 in English) is left as written. Word
+ * order and content words are kept, so "top 5" and "top 10" stay different
+ * questions.
+ */
+public final class PromptFingerprint {
+
+  private static final Set<String> STOPWORDS = Set.of(
+      // English
+      "a", "an", "the", "is", "are", "was", "were", "be", "been", "am", "do", "does", "did",
+      "i", "me", "my", "we", "our", "you", "your", "it", "its", "this", "that", "these", "those",
+      "of", "in", "on", "at", "to", "for", "from", "by", "with", "about", "and", "or",
+      "what", "whats", "which", "who", "how", "can", "could", "would", "will", "should",
+      "please", "tell", "show", "give", "let", "know", "so", "far", "there", "s",
+      // Indonesian
+      "yang", "dan", "di", "ke", "dari", "ini", "itu", "apa", "apakah", "bagaimana", "berapa",
+      "saya", "kami", "kita", "tolong", "mohon", "dong", "ya", "nya", "untuk", "pada", "adalah");
+
+  // Digits with dot or comma separators, read in canonicalNumber
+  private static final Pattern NUMBER = Pattern.compile("\\d+(?:[.,]\\d+)*");
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}.]+");
+
+  private PromptFingerprint() {
+  }
+
+  public static String of(String prompt) {
+    if (prompt == null) {
+      return "";
+    }
+
+    String text = prompt.toLowerCase(Locale.ROOT).replace("'", "");
+    text = canonicalizeNumbers(text);
+
+    List<String> words = new ArrayList<>();
+    for (String word : NON_WORD.split(text)) {
+      // Sentence dots survive the split; keep them only inside numbers
+      String trimmed = trimDots(word);
+      if (!trimmed.isEmpty() && !STOPWORDS.contains(trimmed)) {
+        words.add(trimmed);
+      }
+    }
+    return String.join(" ", words);
+  }
+
+  private static String canonicalizeNumbers(String text) {
+    Matcher matcher = NUMBER.matcher(text);
+    StringBuilder out = new StringBuilder();
+    while (matcher.find()) {
+      matcher.appendReplacement(out, Matcher.quoteReplacement(canonicalNumber(matcher.group())));
+    }
+    matcher.appendTail(out);
+    return out.toString();
+  }
+
+  static String canonicalNumber(String number) {
+    int dot = number.lastIndexOf('.');
+    int comma = number.lastIndexOf(',');
+    String plain;
+    if (dot < 0 && comma < 0) {
+      plain = number;
+    } else if (dot >= 0 && comma >= 0) {
+      // Both present: the last one is the decimal mark, the other groups thousands
+      int mark = Math.max(dot, comma);
+      char group = mark == dot ? ',' : '.';
+      String whole = number.substring(0, mark);
+      if (!groupsOfThousands(whole, group)) {
+        return number;
+      }
+      plain = whole.replace(String.valueOf(group), "") + "." + number.substring(mark + 1);
+    } else {
+      char separator = dot >= 0 ? '.' : ',';
+      String[] parts = number.split(Pattern.quote(String.valueOf(separator)));
+      if (parts.length > 2) {
+        // Repeated: only thousands separators can repeat
+        if (!groupsOfThousands(number, separator)) {
+          return number;
+        }
+        plain = number.replace(String.valueOf(separator), "");
+      } else if (parts[1].length() == 3) {
+        // Thousands in one locale, decimals in the other; one spelling for both separators
+        return parts[0] + "." + parts[1];
+      } else {
+        plain = parts[0] + "." + parts[1];
+      }
+    }
+    return new BigDecimal(plain).stripTrailingZeros().toPlainString();
+  }
+
+  // "1.000.000": a leading group of one to three digits, then groups of exactly three
+  private static boolean groupsOfThousands(String number, char separator) {
+    String[] groups = number.split(Pattern.quote(String.valueOf(separator)), -1);
+    if (groups[0].isEmpty() || groups[0].length() > 3) {
+      return false;
+    }
+    for (int i = 1; i < groups.length; i++) {
+      if (groups[i].length() != 3) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String trimDots(String word) {
+    int start = 0;
+    int end = word.length();
+    while (start < end && word.charAt(start) == '.') {
+      start++;
+    }
+    while (end > start && word.charAt(end - 1) == '.') {
+      end--;
+    }
+    return word.substring(start, end);
+  }
+}
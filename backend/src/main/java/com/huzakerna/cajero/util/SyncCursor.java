@@ -0,0 +1,38 @@
+package com.huzakerna.cajero.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the delta sync stream: the last row served, ordered by
+ * (updatedAt, kind, key). Travels as an opaque URL-safe token.
+ */
+public record SyncCursor(LocalDateTime updatedAt, String kind, String key) {
+
+  // Before any row
+  public static final SyncCursor START = new SyncCursor(LocalDateTime.of(1970, 1, 1, 0, 0), "", "");
+
+  public String encode() {
+    String raw = updatedAt + "|" + kind + "|" + key;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // Null or blank is the start of the stream
+  public static SyncCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", 3);
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Invalid sync cursor");
+      }
+      return new SyncCursor(LocalDateTime.parse(parts[0]), parts[1], parts[2]);
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid sync cursor");
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.huzakerna.cajero.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import com.huzakerna.cajero.config.CorsConfig;
+import com.huzakerna.cajero.config.FilterConfig;
+import com.huzakerna.cajero.config.SecurityConfig;
+import com.huzakerna.cajero.model.User;
+import com.huzakerna.cajero.security.UserCache;
+import com.huzakerna.cajero.security.UserDetailsServiceImpl;
+import com.huzakerna.cajero.service.AiChatService;
+import com.huzakerna.cajero.service.AiDigestService;
+import com.huzakerna.cajero.service.StoreRateLimiter;
+import com.huzakerna.cajero.util.JwtUtils;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AIController.class)
+@Import({ SecurityConfig.class, FilterConfig.class, CorsConfig.class, JwtUtils.class })
+@TestPropertySource(properties = "jwt.secret-key=dGVzdC1zZWNyZXQta2V5LWZvci1jYWplcm8tY29udHJvbGxlci10ZXN0cw==")
+public class AIControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private JwtUtils jwtUtils;
+
+  @MockitoBean
+  private AiChatService aiChatService;
+
+  @MockitoBean
+  private AiDigestService aiDigestService;
+
+  @MockitoBean
+  private UserDetailsServiceImpl userDetailsService;
+
+  @MockitoBean
+  private UserCache userCache;
+
+  @MockitoBean
+  private StoreRateLimiter storeRateLimiter;
+
+  private String token(String roleCode) {
+    return jwtUtils.generateToken(User.builder()
+        .id(UUID.randomUUID())
+        .email("owner@example.com")
+        .roleCode(roleCode)
+        .storeId(UUID.randomUUID())
+        .build());
+  }
+
+  @Test
+  public void testChatAuthorizedOnAsyncDispatch() throws Exception {
+    when(userCache.isCurrent(any(), anyLong())).thenReturn(true);
+    when(aiChatService.chat(any(), eq("How were sales today?")))
+        .thenReturn(CompletableFuture.completedFuture("12 sales"));
+
+    MvcResult started = mockMvc.perform(post("/api/ai/chat")
+        .header("Authorization", "Bearer " + token("OWNER"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"prompt\":\"How were sales today?\"}"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.text").value("12 sales"));
+  }
+
+  @Test
+  public void testChatRefusedForCashier() throws Exception {
+    when(userCache.isCurrent(any(), anyLong())).thenReturn(true);
+
+    mockMvc.perform(post("/api/ai/chat")
+        .header("Authorization", "Bearer " + token("CASHIER"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"prompt\":\"How were sales today?\"}"))
+        .andExpect(status().isForbidden());
+
+    verifyNoInteractions(aiChatService);
+  }
+}
@@ -0,0 +1,67 @@
+package com.huzakerna.cajero.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import com.huzakerna.cajero.model.RefreshToken;
+import com.huzakerna.cajero.model.User;
+import java.time.Duration;
+import java.time.Instant;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Against PostgreSQL with the app's naming strategy, so native SQL meets the real column names
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class RefreshTokenRepositoryTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withInitScript("db/init.sql");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired
+  private RefreshTokenRepository refreshTokenRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  public void testDeleteExpiredBatch() {
+    User user = userRepository.save(User.builder()
+        .name("Owner")
+        .email("owner@example.com")
+        .passwordHash("hash")
+        .build());
+    Instant now = Instant.now();
+    for (int i = 0; i < 3; i++) {
+      refreshTokenRepository.saveAndFlush(token(user, "expired-" + i, now.minus(Duration.ofDays(1))));
+    }
+    refreshTokenRepository.saveAndFlush(token(user, "live", now.plus(Duration.ofDays(1))));
+
+    assertEquals(2, refreshTokenRepository.deleteExpiredBatch(now, 2));
+    assertEquals(1, refreshTokenRepository.deleteExpiredBatch(now, 2));
+    assertEquals(0, refreshTokenRepository.deleteExpiredBatch(now, 2));
+    assertTrue(refreshTokenRepository.findByTokenHash("live").isPresent());
+  }
+
+  private static RefreshToken token(User user, String hash, Instant expiry) {
+    RefreshToken token = new RefreshToken();
+    token.setUser(user);
+    token.setTokenHash(hash);
+    token.setExpiryDate(expiry);
+    return token;
+  }
+}
@@ -0,0 +1,49 @@
+package com.huzakerna.cajero.service;
+
+import org.junit.jupiter.api.Test;
+import com.huzakerna.cajero.exception.AiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AiCallGuardTest {
+
+  // One permit, one queue slot, 100 ms in the queue
+  private AiCallGuard guard() {
+    return new AiCallGuard(mock(StoreContextCache.class), new SimpleMeterRegistry(), 1, 1, 100, 5, 30000,
+        30, 120, 10, 30, 3, 5);
+  }
+
+  @Test
+  public void testQueuedCallTimesOutWithoutRelease() throws Exception {
+    AiCallGuard guard = guard();
+    CompletableFuture<String> slow = new CompletableFuture<>();
+    guard.call(() -> slow);
+
+    CompletableFuture<String> queued = guard.call(() -> CompletableFuture.completedFuture("late"));
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(2, TimeUnit.SECONDS));
+    assertInstanceOf(AiUnavailableException.class, e.getCause());
+    // The slot is free again
+    CompletableFuture<String> next = guard.call(() -> CompletableFuture.completedFuture("next"));
+    slow.complete("done");
+    assertEquals("next", next.get(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCancelledCallFreesQueueSlot() throws Exception {
+    AiCallGuard guard = guard();
+    CompletableFuture<String> slow = new CompletableFuture<>();
+    guard.call(() -> slow);
+
+    guard.call(() -> CompletableFuture.completedFuture("never")).cancel(true);
+
+    CompletableFuture<String> next = guard.call(() -> CompletableFuture.completedFuture("next"));
+    assertFalse(next.isDone());
+    slow.complete("done");
+    assertEquals("next", next.get(2, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,240 @@
+package com.huzakerna.cajero.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huzakerna.cajero.exception.AiUnavailableException;
+import com.huzakerna.cajero.model.User;
+import com.huzakerna.cajero.repository.IngredientRepository;
+import com.huzakerna.cajero.repository.ProductRepository;
+import com.huzakerna.cajero.repository.TransactionRepository;
+import com.huzakerna.cajero.security.UserDetailsImpl;
+import com.huzakerna.cajero.service.ai.AiMessage;
+import com.huzakerna.cajero.service.ai.AiReply;
+import com.huzakerna.cajero.service.ai.AiToolCall;
+import com.huzakerna.cajero.service.ai.FakeAiProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AiChatServiceTest {
+
+  private final UUID storeId = UUID.randomUUID();
+  private FakeAiProvider provider;
+  private AiContextCache contextCache;
+  private ProductRepository productRepository;
+  private IngredientRepository ingredientRepository;
+  private TransactionRepository transactionRepository;
+  private StoreContextCache storeContexts;
+  private UserDetailsImpl user;
+
+  @BeforeEach
+  public void setUp() {
+    contextCache = mock(AiContextCache.class);
+    when(contextCache.get(storeId))
+        .thenReturn(new AiContextCache.Context("REAL-TIME DATA CONTEXT: 12 sales today", 1));
+    productRepository = mock(ProductRepository.class);
+    ingredientRepository = mock(IngredientRepository.class);
+    transactionRepository = mock(TransactionRepository.class);
+    storeContexts = mock(StoreContextCache.class);
+    subscription("ultra");
+
+    provider = new FakeAiProvider();
+    user = new UserDetailsImpl(User.builder()
+        .email("owner@example.com")
+        .roleCode("OWNER")
+        .storeId(storeId)
+        .build());
+  }
+
+  private void subscription(String status) {
+    when(storeContexts.find(storeId))
+        .thenReturn(Optional.of(new StoreContextCache.StoreContext(storeId, null, status, null)));
+  }
+
+  private AiChatService service(boolean toolsEnabled) {
+    AiToolCatalog catalog = new AiToolCatalog(mock(ReportService.class), transactionRepository,
+        productRepository, ingredientRepository, new ObjectMapper(), new SimpleMeterRegistry(), 366);
+    // Ultra 30 burst, pro 10, others 3
+    AiCallGuard guard = new AiCallGuard(storeContexts, new SimpleMeterRegistry(), 20, 50, 10000, 5, 30000,
+        30, 120, 10, 30, 3, 5);
+    return new AiChatService(provider, contextCache, new AiResponseCache(new SimpleMeterRegistry(), 100, 30),
+        catalog, guard, toolsEnabled, 3, 600000);
+  }
+
+  @Test
+  public void testChatSendsContextAndPrompt() {
+    String reply = service(false).chat(user, "How were sales today?").join();
+
+    assertEquals("You said: How were sales today?", reply);
+    List<AiMessage> messages = provider.lastMessages();
+    assertEquals(2, messages.size());
+    assertEquals("system", messages.get(0).role());
+    assertTrue(messages.get(0).content().contains("12 sales today"));
+    assertTrue(messages.get(0).content().contains(storeId.toString()));
+    assertTrue(messages.get(0).content().contains("OWNER"));
+    assertFalse(messages.get(0).content().contains("owner@example.com"));
+    assertEquals(AiMessage.user("How were sales today?"), messages.get(1));
+    assertTrue(provider.lastTools().isEmpty());
+  }
+
+  @Test
+  public void testStreamDeliversTokensInOrder() {
+    StringBuilder streamed = new StringBuilder();
+    List<String> tokens = new ArrayList<>();
+
+    String reply = service(false).stream(user, "best seller this week", token -> {
+      tokens.add(token);
+      streamed.append(token);
+    }).join();
+
+    assertTrue(tokens.size() > 1);
+    assertEquals("You said: best seller this week", streamed.toString());
+    assertEquals(reply, streamed.toString());
+  }
+
+  @Test
+  public void testRepeatedQuestionServedFromCache() {
+    AiChatService service = service(false);
+    String first = service.chat(user, "What's the best seller this week?").join();
+    String second = service.chat(user, "best seller this week").join();
+
+    assertEquals(first, second);
+    assertEquals(1, provider.calls());
+
+    StringBuilder streamed = new StringBuilder();
+    service.stream(user, "Best seller, this week?", streamed::append).join();
+    assertEquals(first, streamed.toString());
+    assertEquals(1, provider.calls());
+  }
+
+  @Test
+  public void testCacheNotSharedAcrossRoles() {
+    AiChatService service = service(false);
+    UserDetailsImpl cashier = new UserDetailsImpl(User.builder()
+        .email("cashier@example.com")
+        .roleCode("CASHIER")
+        .storeId(storeId)
+        .build());
+    UserDetailsImpl otherOwner = new UserDetailsImpl(User.builder()
+        .email("partner@example.com")
+        .roleCode("OWNER")
+        .storeId(storeId)
+        .build());
+
+    service.chat(user, "best seller this week").join();
+    service.chat(cashier, "best seller this week").join();
+    assertEquals(2, provider.calls());
+
+    // Same role, same prompt: the answer is reused
+    service.chat(otherOwner, "best seller this week").join();
+    assertEquals(2, provider.calls());
+  }
+
+  @Test
+  public void testNewContextVersionMisses() {
+    AiChatService service = service(false);
+    service.chat(user, "busiest hour").join();
+    when(contextCache.get(storeId))
+        .thenReturn(new AiContextCache.Context("REAL-TIME DATA CONTEXT: 20 sales today", 2));
+    service.chat(user, "busiest hour").join();
+
+    assertEquals(2, provider.calls());
+  }
+
+  @Test
+  public void testPreparingContextNotCached() {
+    AiChatService service = service(false);
+    when(contextCache.get(storeId)).thenReturn(new AiContextCache.Context("[Data is being prepared]", 0));
+    service.chat(user, "busiest hour").join();
+    service.chat(user, "busiest hour").join();
+
+    assertEquals(2, provider.calls());
+  }
+
+  @Test
+  public void testToolCallRunsForUsersStore() {
+    when(productRepository.findStockByName(eq(storeId), eq("latte"), any()))
+        .thenReturn(List.of(Map.of("name", "Iced Latte", "stock", new BigDecimal("7"))));
+    provider.script(new AiReply(null, List.of(new AiToolCall("call-1", "item_stock", "{\"name\":\"latte\"}"))));
+
+    String reply = service(true).chat(user, "How many lattes are left?").join();
+
+    assertTrue(reply.contains("Iced Latte"));
+    assertEquals(2, provider.calls());
+    // Small prompt, no precomputed analytics
+    List<AiMessage> messages = provider.lastMessages();
+    assertFalse(messages.get(0).content().contains("12 sales today"));
+    assertEquals("tool", messages.get(messages.size() - 1).role());
+    assertEquals("call-1", messages.get(messages.size() - 1).toolCallId());
+    verify(contextCache, never()).get(any());
+    verify(productRepository).findStockByName(eq(storeId), eq("latte"), any());
+  }
+
+  @Test
+  public void testStreamedToolCall() {
+    when(transactionRepository.findTopSellingProducts(eq(storeId), any(), any(), any()))
+        .thenReturn(List.of(Map.of("name", "Espresso", "quantity", 40)));
+    provider.script(new AiReply(null, List.of(new AiToolCall("call-1", "top_products",
+        "{\"start_date\":\"2024-01-01\",\"end_date\":\"2024-01-07\",\"limit\":3}"))));
+
+    StringBuilder streamed = new StringBuilder();
+    String reply = service(true).stream(user, "top 3 products first week of january", streamed::append).join();
+
+    assertTrue(streamed.toString().contains("Espresso"));
+    assertEquals(reply, streamed.toString());
+  }
+
+  @Test
+  public void testBadToolArgumentsReportedToModel() {
+    provider.script(new AiReply(null, List.of(new AiToolCall("call-1", "sales_summary",
+        "{\"start_date\":\"2024-02-10\",\"end_date\":\"2024-02-01\"}"))));
+
+    String reply = service(true).chat(user, "sales last week").join();
+
+    assertTrue(reply.contains("error"));
+    verifyNoInteractions(transactionRepository);
+  }
+
+  @Test
+  public void testToolRoundsAreBounded() {
+    AiReply loop = new AiReply(null, List.of(new AiToolCall("call", "item_stock", "{\"name\":\"x\"}")));
+    provider.script(loop, loop, loop, loop);
+
+    service(true).chat(user, "stock of x").join();
+
+    // Three rounds with tools, then one without
+    assertEquals(4, provider.calls());
+    assertTrue(provider.lastTools().isEmpty());
+  }
+
+  @Test
+  public void testQuotaFollowsSubscription() {
+    subscription("free");
+    AiChatService service = service(false);
+
+    service.chat(user, "question one").join();
+    service.chat(user, "question two").join();
+    service.chat(user, "question three").join();
+    // Cached answers don't count against the quota
+    service.chat(user, "question one").join();
+
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> service.chat(user, "question four").join());
+    assertInstanceOf(AiUnavailableException.class, e.getCause());
+    assertEquals(3, provider.calls());
+  }
+
+  @Test
+  public void testBlankPromptRejected() {
+    assertThrows(IllegalArgumentException.class, () -> service(false).chat(user, " "));
+  }
+}
@@ -0,0 +1,44 @@
+package com.huzakerna.cajero.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AtomicTokenBucketTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  @Test
+  public void testBurstThenRefill() {
+    AtomicLong now = new AtomicLong();
+    AtomicTokenBucket bucket = new AtomicTokenBucket(3, 0.5, now::get);
+
+    assertEquals(0, bucket.tryConsume());
+    assertEquals(0, bucket.tryConsume());
+    assertEquals(0, bucket.tryConsume());
+    // Half a token per second: the next one in two seconds
+    assertEquals(2 * SECOND, bucket.tryConsume());
+
+    now.addAndGet(SECOND);
+    assertEquals(SECOND, bucket.tryConsume());
+    now.addAndGet(SECOND);
+    assertEquals(0, bucket.tryConsume());
+    assertTrue(bucket.tryConsume() > 0);
+  }
+
+  @Test
+  public void testRefillCappedAtCapacity() {
+    AtomicLong now = new AtomicLong();
+    AtomicTokenBucket bucket = new AtomicTokenBucket(2, 1, now::get);
+
+    assertTrue(bucket.isIdle());
+    assertEquals(0, bucket.tryConsume());
+    assertFalse(bucket.isIdle());
+
+    now.addAndGet(60 * SECOND);
+    assertTrue(bucket.isIdle());
+    assertEquals(0, bucket.tryConsume());
+    assertEquals(0, bucket.tryConsume());
+    assertTrue(bucket.tryConsume() > 0);
+  }
+}
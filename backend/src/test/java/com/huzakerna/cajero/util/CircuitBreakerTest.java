@@ -0,0 +1,47 @@
+package com.huzakerna.cajero.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+  @Test
+  public void testOpensAfterConsecutiveFailures() {
+    AtomicLong now = new AtomicLong();
+    CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(30), now::get);
+
+    assertFalse(breaker.onFailure());
+    breaker.onSuccess(); // Resets the streak
+    assertFalse(breaker.onFailure());
+    assertFalse(breaker.onFailure());
+    assertTrue(breaker.onFailure());
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    assertTrue(breaker.isOpen());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testSingleTrialAfterOpenDuration() {
+    AtomicLong now = new AtomicLong();
+    CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(30), now::get);
+    breaker.onFailure();
+
+    now.addAndGet(Duration.ofSeconds(30).toNanos());
+    assertFalse(breaker.isOpen());
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire()); // One trial at a time
+
+    // A failed trial reopens, a successful one closes
+    assertTrue(breaker.onFailure());
+    assertFalse(breaker.tryAcquire());
+    now.addAndGet(Duration.ofSeconds(30).toNanos());
+    assertTrue(breaker.tryAcquire());
+    breaker.onSuccess();
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    assertTrue(breaker.tryAcquire());
+    assertTrue(breaker.tryAcquire());
+  }
+}
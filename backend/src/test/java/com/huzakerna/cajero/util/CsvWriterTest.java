@@ -0,0 +1,41 @@
+package com.huzakerna.cajero.util;
+
+import org.junit.jupiter.api.Test;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvWriterTest {
+
+  @Test
+  public void testEscaping() {
+    StringWriter out = new StringWriter();
+    CsvWriter csv = new CsvWriter(out);
+
+    csv.row("plain", "a,b", "say \"hi\"", "line\nbreak", null, 42);
+    csv.row("second");
+
+    assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",,42\r\nsecond\r\n", out.toString());
+  }
+
+  @Test
+  public void testFieldByField() {
+    StringWriter out = new StringWriter();
+    CsvWriter csv = new CsvWriter(out);
+
+    csv.field("x").field("").field("y");
+    csv.endRow();
+
+    assertEquals("x,,y\r\n", out.toString());
+  }
+
+  @Test
+  public void testFormulasNeutralized() {
+    StringWriter out = new StringWriter();
+    CsvWriter csv = new CsvWriter(out);
+
+    csv.row("=HYPERLINK(\"http://x\")", "+1", "-2", "@SUM(A1)", "\tx", "\rx", "a=b", new BigDecimal("-5"));
+
+    assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\",'+1,'-2,'@SUM(A1),'\tx,\"'\rx\",a=b,-5\r\n", out.toString());
+  }
+}
@@ -0,0 +1,39 @@
+package com.huzakerna.cajero.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PromptFingerprintTest {
+
+  @Test
+  public void testRephrasingsMatch() {
+    assertEquals(PromptFingerprint.of("What's the best seller this week?"),
+        PromptFingerprint.of("best seller   this WEEK"));
+    assertEquals(PromptFingerprint.of("Apa produk terlaris minggu ini?"),
+        PromptFingerprint.of("produk terlaris minggu ini"));
+  }
+
+  @Test
+  public void testNumbersCanonicalized() {
+    assertEquals("sales over 1000.5", PromptFingerprint.of("Sales over 1,000.50?"));
+    assertEquals(PromptFingerprint.of("sales over 1000.5"), PromptFingerprint.of("Sales over 1,000.50?"));
+    assertNotEquals(PromptFingerprint.of("top 5 products"), PromptFingerprint.of("top 10 products"));
+  }
+
+  @Test
+  public void testIndonesianSeparators() {
+    // id-ID: dots group thousands, the comma marks decimals
+    assertEquals("penjualan atas 1000000", PromptFingerprint.of("Penjualan di atas 1.000.000"));
+    assertEquals(PromptFingerprint.of("sales over 1,000,000.50"), PromptFingerprint.of("sales over 1.000.000,50"));
+    assertEquals(PromptFingerprint.of("diskon 1,5"), PromptFingerprint.of("diskon 1.5"));
+    // "1.500" is 1500 in id-ID and 1.5 in en-US: never merged with either
+    assertNotEquals(PromptFingerprint.of("stok di bawah 1.500"), PromptFingerprint.of("stok di bawah 1.5"));
+    assertNotEquals(PromptFingerprint.of("stok di bawah 1.000.000"), PromptFingerprint.of("stok di bawah 1.0"));
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals("", PromptFingerprint.of(null));
+    assertEquals("", PromptFingerprint.of("what is the?"));
+  }
+}
@@ -0,0 +1,39 @@
+package com.huzakerna.cajero.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyncCursorTest {
+
+  @Test
+  public void testRoundTrip() {
+    SyncCursor cursor = new SyncCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123456000),
+        "product", "0b8f6a52-4c1e-4f39-9d59-0f3c2b1a7e11");
+
+    String token = cursor.encode();
+
+    assertFalse(token.contains("="));
+    assertFalse(token.contains("/"));
+    assertEquals(cursor, SyncCursor.decode(token));
+  }
+
+  @Test
+  public void testKeyMayContainSeparator() {
+    SyncCursor cursor = new SyncCursor(LocalDateTime.of(2024, 3, 1, 10, 0), "category", "hot|cold");
+
+    assertEquals(cursor, SyncCursor.decode(cursor.encode()));
+  }
+
+  @Test
+  public void testBlankIsStart() {
+    assertEquals(SyncCursor.START, SyncCursor.decode(null));
+    assertEquals(SyncCursor.START, SyncCursor.decode(""));
+  }
+
+  @Test
+  public void testGarbageRejected() {
+    assertThrows(IllegalArgumentException.class, () -> SyncCursor.decode("not a cursor!"));
+    assertThrows(IllegalArgumentException.class, () -> SyncCursor.decode("bm90LWEtZGF0ZXxwfGs"));
+  }
+}
@@ -16,6 +16,13 @@ const zustandStorage: StateStorage = {
 	},
 };
 
+// Plain values outside the zustand stores; also cleared on logout
+export const getStoredString = (key: string) => storage.getString(key) ?? null;
+
+export const setStoredString = (key: string, value: string) => {
+	storage.set(key, value);
+};
+
 export const clearAllStorage = () => {
 	storage.clearAll();
 };
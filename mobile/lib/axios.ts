@@ -17,6 +17,32 @@ api.interceptors.request.use(
 	(error) => Promise.reject(error),
 );
 
+// Refresh tokens are single use, so concurrent 401s must share one refresh call
+let refreshing: Promise<string> | null = null;
+
+const refreshAccessToken = (refreshToken: string): Promise<string> => {
+	if (!refreshing) {
+		refreshing = axios
+			.post(`${process.env.EXPO_PUBLIC_API_URL}/auth/refreshtoken`, {
+				refreshToken,
+			})
+			.then((response) => {
+				const { accessToken, refreshToken: newRefreshToken } = response.data;
+
+				useAuthStore.getState().setUser({
+					...useAuthStore.getState().user!,
+					accessToken,
+					refreshToken: newRefreshToken,
+				});
+				return accessToken as string;
+			})
+			.finally(() => {
+				refreshing = null;
+			});
+	}
+	return refreshing;
+};
+
 api.interceptors.response.use(
 	(response) => response,
 	async (error) => {
@@ -27,18 +53,7 @@ api.interceptors.response.use(
 
 			if (refreshToken) {
 				try {
-					const response = await axios.post(
-						`${process.env.EXPO_PUBLIC_API_URL}/auth/refreshtoken`,
-						{ refreshToken },
-					);
-
-					const { accessToken, refreshToken: newRefreshToken } = response.data;
-
-					useAuthStore.getState().setUser({
-						...useAuthStore.getState().user!,
-						accessToken,
-						refreshToken: newRefreshToken,
-					});
+					const accessToken = await refreshAccessToken(refreshToken);
 
 					originalRequest.headers.set("Authorization", `Bearer ${accessToken}`);
 					return api(originalRequest);
@@ -14,8 +14,35 @@ const generateUUID = () => {
 };
 
 import { useAuthStore } from "@/store/useAuthStore";
+import { getStoredString, setStoredString } from "@/lib/Storage";
 import Logger from "./logger";
 
+// Max transactions per upload request (backend accepts up to 500)
+const PUSH_BATCH_SIZE = 100;
+
+// Last catalog ETag per URL, so unchanged lists come back as an empty 304
+const catalogEtags: Record<string, string> = {};
+
+// Conditional GET; data is null when nothing changed since the last sync
+const getIfChanged = async (url: string) => {
+  const etag = catalogEtags[url];
+  const response = await api.get(url, {
+    headers: etag ? { "If-None-Match": etag } : undefined,
+    validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+  });
+  if (response.status === 304) return { data: null, etag };
+  return { data: response.data, etag: response.headers.etag as string | undefined };
+};
+
+// Only remembered once the response is stored locally
+const rememberEtag = (url: string, etag?: string) => {
+  if (etag) catalogEtags[url] = etag;
+};
+
+// Delta feed position for stock; sales don't change the catalog ETags, so list stock can be stale
+const STOCK_CURSOR_KEY = "sync-stock-cursor";
+const STOCK_PAGE_SIZE = 500;
+
 export const SyncService = {
   async syncProducts() {
     const { isLoggedIn, user } = useAuthStore.getState();
@@ -25,39 +52,22 @@ export const SyncService = {
       // Fetch from API
       // Note: Fetching all products might need pagination handling if list is huge.
       // For now, let's request a large size.
-      const response = await api.get("/product?size=1000&includeDeleted=true");
-      const backendProducts = response.data.content; // Page response
+      const url = "/product?size=1000&includeDeleted=true";
+      const { data, etag } = await getIfChanged(url);
+      if (data) {
+        const backendProducts = data.content; // Page response
 
-      // Upsert to Local DB
-      await db.transaction(async (tx) => {
-        for (const p of backendProducts) {
-          await tx.insert(products).values({
-            id: p.id,
-            name: p.name,
-            description: p.description,
-            sellingPrice: p.sellingPrice,
-            buyingPrice: p.buyingPrice,
-            stock: p.stock,
-            categoryId: p.categoryCode, // Backend uses categoryCode
-            imageUrl: p.imageUrl,
-            barcode: p.barcode,
-            tax: p.tax,
-            commission: p.commission,
-            discount: p.discount,
-            measureUnitCode: p.measureUnitCode,
-            measureUnitName: p.measureUnitName,
-            createdAt: p.createdAt ? new Date(p.createdAt) : null,
-            updatedAt: p.updatedAt ? new Date(p.updatedAt) : null,
-            deletedAt: p.deletedAt ? new Date(p.deletedAt) : null,
-          }).onConflictDoUpdate({
-            target: products.id,
-            set: {
+        // Upsert to Local DB
+        await db.transaction(async (tx) => {
+          for (const p of backendProducts) {
+            await tx.insert(products).values({
+              id: p.id,
               name: p.name,
               description: p.description,
               sellingPrice: p.sellingPrice,
               buyingPrice: p.buyingPrice,
               stock: p.stock,
-              categoryId: p.categoryCode,
+              categoryId: p.categoryCode, // Backend uses categoryCode
               imageUrl: p.imageUrl,
               barcode: p.barcode,
               tax: p.tax,
@@ -65,30 +75,51 @@ export const SyncService = {
               discount: p.discount,
               measureUnitCode: p.measureUnitCode,
               measureUnitName: p.measureUnitName,
+              createdAt: p.createdAt ? new Date(p.createdAt) : null,
               updatedAt: p.updatedAt ? new Date(p.updatedAt) : null,
               deletedAt: p.deletedAt ? new Date(p.deletedAt) : null,
-            }
-          });
+            }).onConflictDoUpdate({
+              target: products.id,
+              set: {
+                name: p.name,
+                description: p.description,
+                sellingPrice: p.sellingPrice,
+                buyingPrice: p.buyingPrice,
+                stock: p.stock,
+                categoryId: p.categoryCode,
+                imageUrl: p.imageUrl,
+                barcode: p.barcode,
+                tax: p.tax,
+                commission: p.commission,
+                discount: p.discount,
+                measureUnitCode: p.measureUnitCode,
+                measureUnitName: p.measureUnitName,
+                updatedAt: p.updatedAt ? new Date(p.updatedAt) : null,
+                deletedAt: p.deletedAt ? new Date(p.deletedAt) : null,
+              }
+            });
 
-          // Sync Ingredients
-          if (p.ingredients) {
-            // Clear existing to avoid stale data
-            await tx.delete(productIngredients).where(eq(productIngredients.productId, p.id));
-
-            for (const ing of p.ingredients) {
-              await tx.insert(productIngredients).values({
-                productId: p.id,
-                ingredientId: ing.ingredientId,
-                name: ing.name,
-                stock: ing.stock, // stock of ingredient at that time?
-                measureUnitCode: ing.measureUnitCode,
-                measureUnitName: ing.measureUnitName,
-                quantityNeeded: ing.quantityNeeded,
-              });
+            // Sync Ingredients
+            if (p.ingredients) {
+              // Clear existing to avoid stale data
+              await tx.delete(productIngredients).where(eq(productIngredients.productId, p.id));
+
+              for (const ing of p.ingredients) {
+                await tx.insert(productIngredients).values({
+                  productId: p.id,
+                  ingredientId: ing.ingredientId,
+                  name: ing.name,
+                  stock: ing.stock, // stock of ingredient at that time?
+                  measureUnitCode: ing.measureUnitCode,
+                  measureUnitName: ing.measureUnitName,
+                  quantityNeeded: ing.quantityNeeded,
+                });
+              }
             }
           }
-        }
-      });
+        });
+        rememberEtag(url, etag);
+      }
 
       await db.insert(syncStatus).values({ tableName: "products", lastSync: new Date() })
         .onConflictDoUpdate({ target: syncStatus.tableName, set: { lastSync: new Date() } });
@@ -100,13 +131,47 @@ export const SyncService = {
     }
   },
 
+  // Current stock of products and ingredients changed since the last call
+  async syncStock() {
+    const { isLoggedIn, user } = useAuthStore.getState();
+    if (!isLoggedIn || !user?.accessToken) return false;
+
+    try {
+      let cursor = getStoredString(STOCK_CURSOR_KEY);
+      let hasMore = true;
+      while (hasMore) {
+        const { data } = await api.get("/sync/changes", {
+          params: { since: cursor ?? undefined, limit: STOCK_PAGE_SIZE },
+        });
+
+        await db.transaction(async (tx) => {
+          for (const p of data.products ?? []) {
+            await tx.update(products).set({ stock: p.stock }).where(eq(products.id, p.id));
+          }
+          for (const i of data.ingredients ?? []) {
+            await tx.update(productIngredients).set({ stock: i.stock }).where(eq(productIngredients.ingredientId, i.id));
+          }
+        });
+
+        cursor = data.cursor;
+        setStoredString(STOCK_CURSOR_KEY, data.cursor);
+        hasMore = data.hasMore;
+      }
+      return true;
+    } catch (error) {
+      Logger.error("Sync stock failed:", error);
+      return false;
+    }
+  },
+
   async syncCategories() {
     const { isLoggedIn, user } = useAuthStore.getState();
     if (!isLoggedIn || !user?.accessToken) return false;
 
     try {
-      const response = await api.get("/product-category");
-      const backendCategories = response.data;
+      const url = "/product-category";
+      const { data: backendCategories, etag } = await getIfChanged(url);
+      if (!backendCategories) return true;
 
       await db.transaction(async (tx) => {
         for (const c of backendCategories) {
@@ -128,6 +193,7 @@ export const SyncService = {
           });
         }
       });
+      rememberEtag(url, etag);
       return true;
     } catch (error) {
       Logger.error("Sync categories failed:", error);
@@ -222,10 +288,12 @@ export const SyncService = {
       // Get unsynced transactions
       const unsynced = await db.select().from(transactions).where(eq(transactions.isSynced, false));
 
+      const payloads = [];
       for (const txn of unsynced) {
         const items = await db.select().from(transactionItems).where(eq(transactionItems.transactionId, txn.id));
 
-        const payload = {
+        payloads.push({
+          clientKey: txn.id, // Local id doubles as idempotency key so retries never duplicate a sale
           storeId: txn.storeId,
           customerId: txn.customerId || undefined, // Backend might expect undefined if null
           totalPrice: txn.totalPrice,
@@ -261,15 +329,26 @@ export const SyncService = {
             };
           }),
           createdAt: txn.createdAt ? txn.createdAt.toISOString() : undefined // Send local creation time
-        };
+        });
+      }
 
-        // Send to API
-        await api.post("/transaction", payload); // Verify endpoint: postTransaction.ts uses /transaction singular
+      let allSynced = true;
+      // Upload in batches; the backend answers per item so one bad sale doesn't block the queue
+      for (let start = 0; start < payloads.length; start += PUSH_BATCH_SIZE) {
+        const batch = payloads.slice(start, start + PUSH_BATCH_SIZE);
+        const response = await api.post("/transaction/batch", batch);
 
-        // Mark as synced
-        await db.update(transactions).set({ isSynced: true }).where(eq(transactions.id, txn.id));
+        for (const result of response.data) {
+          if (result.status === "CREATED" || result.status === "DUPLICATE") {
+            // Mark as synced
+            await db.update(transactions).set({ isSynced: true }).where(eq(transactions.id, result.clientKey));
+          } else {
+            allSynced = false;
+            Logger.error(`Push transaction ${result.clientKey} failed:`, result.error);
+          }
+        }
       }
-      return true;
+      return allSynced;
     } catch (error) {
       Logger.error("Push transactions failed:", error);
       return false;
@@ -279,6 +358,7 @@ export const SyncService = {
   async syncAll() {
     await this.syncCategories();
     await this.syncProducts();
+    await this.syncStock();
     // Sync Logic:
     // 1. Push local changes first (unsynced) to update backend.
     // 2. Pull latest from backend to update local.